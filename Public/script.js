@@ -1,6 +1,7 @@
 let expenses = []; // Store the list of expenses
 let pieChart;
 let editingIndex = -1; // Variable to store the index of the expense being edited
+let pendingExpenses = []; // Expenses shown while their add requests are in flight
 let currentMonth = new Date().getMonth() + 1; // Current selected month (1-12)
 let currentYear = new Date().getFullYear(); // Current selected year
 
@@ -12,9 +13,8 @@ window.onload = function () {
   setupLogoutButton(); // Setup logout button event
   displayWelcomeMessage(); // Display welcome message with user's name
   initializeMonthSelector(); // Initialize month selector to current month
-  // Fetch user's expenses and budget for current month
-  fetchExpensesByMonth(currentMonth, currentYear); // Fetch only current month's expenses
-  fetchBudget(); // Fetch user's budget
+  // Fetch the current month's expenses, budget and totals in one request
+  fetchDashboard(currentMonth, currentYear);
 };
 function fetchExpenses() {
   const token = getCookie("authToken"); // Retrieve token from cookies
@@ -36,10 +36,8 @@ function fetchExpenses() {
       if (data.expenses) {
         expenses = data.expenses; // Set the fetched expenses
         updateExpenseList(expenses); // Update the expense list table
-        updateTotalExpense(expenses); // Update the total expense
-        updateChart(); // Update the pie chart with the new data
-        updateBudgetStatus(); // Update budget status
-        document.getElementById("expense-list").style.display = "block"; // Show the list after fetching
+        refreshExpenseSummary(); // Update the total, pie chart and budget status
+        document.getElementById("expense-list").style.display = ""; // Show the list after fetching
       } else {
         console.error("Failed to fetch expenses:", data.error);
       }
@@ -86,24 +84,23 @@ document
       return;
     }
 
+    // Show the expense list if it's hidden
+    document.getElementById("expense-list").style.display = "";
+    document.getElementById("export-btn").style.display = "inline-block";
+
     if (editingIndex === -1) {
-      // Add the expense to the list (new expense)
-      expenses.push({ name, amount, category });
+      // Add the expense to the list (new expense); handleExpense swaps in the saved record
+      const pending = { name, amount, category };
+      pendingExpenses.push(pending);
+      addExpenseToList(pending);
     } else {
       // Edit the existing expense
-      expenses[editingIndex] = { name, amount, category };
+      replaceExpenseInList(expenses[editingIndex], { name, amount, category });
       editingIndex = -1; // Reset the editing index after editing
     }
 
-    // Show the expense list if it's hidden
-    document.getElementById("expense-list").style.display = "block";
-    document.getElementById("export-btn").style.display = "inline-block";
-
-    // Update the table, total, chart and budget status
-    updateExpenseList(expenses);
-    updateTotalExpense(expenses);
-    updateChart();
-    updateBudgetStatus(); // Update budget status after adding expense
+    // Update the total, chart and budget status
+    refreshExpenseSummary();
 
     // Reset the form
     document.getElementById("expense-form").reset();
@@ -111,15 +108,82 @@ document
 
 // Other functions remain the same...
 
-// Update the total expenses
-function updateTotalExpense(expenseList) {
-  const totalAmount = expenseList.reduce(
-    (sum, expense) => sum + expense.amount,
-    0
-  );
-  document.getElementById("total-amount").textContent = `₹${totalAmount.toFixed(
-    2
-  )}`;
+// Running totals of the expenses array, per category and overall, in paise so that adding and
+// removing amounts never drifts. Each add, edit or delete applies its delta; the whole array is
+// only counted again after it has been replaced (month switch, 6-month view, fetch).
+const CATEGORIES = ["Food", "Transport", "Entertainment", "Other"];
+const expenseTotals = {
+  source: null, // Array the totals were counted from
+  total: 0,
+  byCategory: {},
+};
+
+function applyExpenseDelta(expense, sign) {
+  const category = expense.type || expense.category || "";
+  const paise = sign * Math.round((Number(expense.amount) || 0) * 100);
+  expenseTotals.total += paise;
+  expenseTotals.byCategory[category] =
+    (expenseTotals.byCategory[category] || 0) + paise;
+}
+
+// Totals of the current expenses array, counted again if it was replaced since the last call
+function currentExpenseTotals() {
+  if (expenseTotals.source !== expenses) {
+    expenseTotals.source = expenses;
+    expenseTotals.total = 0;
+    expenseTotals.byCategory = {};
+    expenses.forEach((expense) => applyExpenseDelta(expense, 1));
+  }
+  return expenseTotals;
+}
+
+// Take totals the server already computed for a freshly fetched expenses array
+function seedExpenseTotals(list, summary) {
+  if (!summary) return; // Counted on the next read instead
+  expenseTotals.source = list;
+  expenseTotals.total = Math.round(summary.total * 100);
+  expenseTotals.byCategory = {};
+  Object.entries(summary.byCategory).forEach(([category, amount]) => {
+    expenseTotals.byCategory[category] = Math.round(amount * 100);
+  });
+}
+
+// Keep the totals in step with one expense being added, removed or swapped for another
+function trackExpenseChange(removed, added) {
+  if (expenseTotals.source !== expenses) return; // Counted from scratch on the next read
+  if (removed) applyExpenseDelta(removed, -1);
+  if (added) applyExpenseDelta(added, 1);
+}
+
+// Total, chart and budget redraws requested since the last animation frame; several changes in
+// one frame (e.g. an add and its server reply) are drawn once
+const pendingSummary = { frame: 0, total: false, chart: false, budget: false };
+
+function scheduleSummaryUpdate(parts) {
+  Object.assign(pendingSummary, parts);
+  if (pendingSummary.frame) return;
+  pendingSummary.frame = requestAnimationFrame(() => {
+    const { total, chart, budget } = pendingSummary;
+    Object.assign(pendingSummary, {
+      frame: 0,
+      total: false,
+      chart: false,
+      budget: false,
+    });
+    if (total) updateTotalExpense();
+    if (chart) updateChart();
+    if (budget) updateBudgetStatus();
+  });
+}
+
+// Update the total of the listed expenses: all of them, or the filtered category
+function updateTotalExpense() {
+  const totals = currentExpenseTotals();
+  const category = expenseListView.category;
+  const paise = category ? totals.byCategory[category] || 0 : totals.total;
+  document.getElementById("total-amount").textContent = `₹${(
+    paise / 100
+  ).toFixed(2)}`;
 }
 
 // Initialize the Pie Chart
@@ -148,43 +212,249 @@ function createPieChart() {
 
 // Update the Pie Chart with expense data
 function updateChart() {
-  const categories = ["Food", "Transport", "Entertainment", "Other"];
-  const categorySums = categories.map((category) => {
-    return expenses
-      .filter((expense) => (expense.type || expense.category) === category)
-      .reduce((sum, expense) => sum + expense.amount, 0);
+  const totals = currentExpenseTotals();
+  pieChart.data.datasets[0].data = CATEGORIES.map(
+    (category) => (totals.byCategory[category] || 0) / 100
+  );
+  pieChart.update();
+}
+
+// Expense table rendering
+// Only the rows scrolled into view, plus ROW_OVERSCAN on each side, exist in the DOM; two spacer
+// rows stand in for the rest so the scrollbar still covers the whole list. Adding, editing or
+// deleting one expense touches only that row instead of rebuilding the table.
+const ROW_OVERSCAN = 10;
+const DEFAULT_ROW_HEIGHT = 45;
+const expenseListView = {
+  items: [], // Expenses listed in the table: all of them, or the filtered subset
+  category: null, // Category the items are filtered by, null for all
+  start: 0, // First rendered item
+  end: 0, // One past the last rendered item
+  rowHeight: 0, // Measured from the first rendered row
+  frame: 0, // Pending scroll update
+  top: null, // Spacer rows
+  bottom: null,
+  parity: null, // Hidden row before the top spacer while start is odd, keeps the striping on the same rows
+};
+const rowExpenses = new WeakMap(); // Rendered row -> expense
+
+// Cell texts of an expense row, also read by the Selenium TrackerSnapshot
+function expenseCells(expense) {
+  const expenseDate = expense.date
+    ? new Date(expense.date).toLocaleDateString()
+    : new Date().toLocaleDateString();
+  return [
+    expense.description || expense.name || "",
+    expense.amount.toFixed(2),
+    expense.type || expense.category || "",
+    expenseDate,
+  ];
+}
+
+function createExpenseRow(expense) {
+  const row = document.createElement("tr");
+  expenseCells(expense).forEach((text) => {
+    row.insertCell().textContent = text;
   });
+  row.insertCell().innerHTML = `
+                <button data-action="edit">Edit</button>
+                <button data-action="delete" class="delete-btn">Delete</button>`;
+  rowExpenses.set(row, expense);
+  return row;
+}
 
-  pieChart.data.datasets[0].data = categorySums;
-  pieChart.update();
+function createSpacerRow() {
+  const row = document.createElement("tr");
+  row.className = "spacer";
+  row.insertCell().colSpan = 5;
+  return row;
 }
 
 // Update the expense list in the table
-function updateExpenseList(expenseList) {
+function updateExpenseList(expenseList, category = null) {
+  const view = expenseListView;
   const tableBody = document.getElementById("expense-list");
-  tableBody.innerHTML = "";
+  if (!view.top) {
+    view.top = createSpacerRow();
+    view.bottom = createSpacerRow();
+    view.parity = createSpacerRow();
+    view.parity.hidden = true;
+  }
+  tableBody.replaceChildren(view.top, view.bottom);
+  view.items = expenseList;
+  view.category = category;
+  view.start = view.end = 0;
+  renderExpenseWindow();
+}
 
-  expenseList.forEach((expense, index) => {
-    const row = tableBody.insertRow();
-    const expenseDate = expense.date
-      ? new Date(expense.date).toLocaleDateString()
-      : new Date().toLocaleDateString();
-    const expenseName = expense.description || expense.name || "";
-    const expenseCategory = expense.type || expense.category || "";
+// Bring the rendered rows in line with the scroll position, adding and removing rows at the edges only
+function renderExpenseWindow() {
+  const view = expenseListView;
+  if (!view.top) return;
+  const scroller = document.getElementById("expense-scroll");
+  const rowHeight = view.rowHeight || DEFAULT_ROW_HEIGHT;
+  const viewport =
+    parseFloat(getComputedStyle(scroller).maxHeight) || window.innerHeight;
+  const firstVisible = Math.floor(scroller.scrollTop / rowHeight);
+  const first = Math.max(0, firstVisible - ROW_OVERSCAN);
+  const last = Math.min(
+    view.items.length,
+    firstVisible + Math.ceil(viewport / rowHeight) + ROW_OVERSCAN
+  );
 
-    row.innerHTML = `
-            <td>${expenseName}</td>
-            <td>${expense.amount.toFixed(2)}</td>
-            <td>${expenseCategory}</td>
-            <td>${expenseDate}</td>
-            <td>
-                <button onclick="editExpense(${index})">Edit</button>
-                <button onclick="deleteExpense(${index})" class="delete-btn">Delete</button>
-            </td>
-        `;
-  });
+  if (first >= view.end || last <= view.start) {
+    // Jumped past everything rendered, start over
+    while (view.top.nextSibling !== view.bottom) view.top.nextSibling.remove();
+    view.start = view.end = first;
+  }
+  for (; view.start < first; view.start++) view.top.nextSibling.remove();
+  for (; view.end > last; view.end--) view.bottom.previousSibling.remove();
+  if (first < view.start) {
+    const rows = document.createDocumentFragment();
+    view.items.slice(first, view.start).forEach((expense) => {
+      rows.appendChild(createExpenseRow(expense));
+    });
+    view.top.after(rows);
+    view.start = first;
+  }
+  if (last > view.end) {
+    const rows = document.createDocumentFragment();
+    view.items.slice(view.end, last).forEach((expense) => {
+      rows.appendChild(createExpenseRow(expense));
+    });
+    view.bottom.before(rows);
+    view.end = last;
+  }
+
+  if (!view.rowHeight && view.end > view.start) {
+    view.rowHeight = view.top.nextSibling.offsetHeight;
+    // Size the window again with the real height
+    if (view.rowHeight) return renderExpenseWindow();
+  }
+  if (view.start % 2) {
+    if (!view.parity.isConnected) view.top.before(view.parity);
+  } else {
+    view.parity.remove();
+  }
+  const height = view.rowHeight || DEFAULT_ROW_HEIGHT;
+  view.top.firstChild.style.height = `${view.start * height}px`;
+  view.bottom.firstChild.style.height = `${
+    (view.items.length - view.end) * height
+  }px`;
+}
+
+// Rendered row of the listed item at position, if it is in the window
+function renderedExpenseRow(position) {
+  const view = expenseListView;
+  if (position < view.start || position >= view.end) return null;
+  return view.top.parentNode.rows[
+    view.top.sectionRowIndex + 1 + position - view.start
+  ];
 }
 
+// Add one expense to the list and render its row if it is in view
+function addExpenseToList(expense) {
+  expenses.push(expense);
+  trackExpenseChange(null, expense);
+  const view = expenseListView;
+  if (view.items !== expenses) {
+    if ((expense.type || expense.category) !== view.category) return;
+    view.items.push(expense);
+  }
+  const position = view.items.length - 1;
+  if (position === view.end && view.top) {
+    view.bottom.before(createExpenseRow(expense));
+    view.end++;
+  }
+  renderExpenseWindow();
+}
+
+// Remove one expense from the list and drop its row
+function removeExpenseFromList(expense) {
+  const index = expenses.indexOf(expense);
+  if (index < 0) return;
+  expenses.splice(index, 1);
+  trackExpenseChange(expense, null);
+  const view = expenseListView;
+  const position = view.items === expenses ? index : view.items.indexOf(expense);
+  if (position < 0) return;
+  if (view.items !== expenses) view.items.splice(position, 1);
+  const row = renderedExpenseRow(position);
+  if (row) {
+    row.remove();
+    view.end--;
+  } else if (position < view.start) {
+    view.start--;
+    view.end--;
+  }
+  renderExpenseWindow();
+}
+
+// Swap one expense for another in place and re-render just its row
+function replaceExpenseInList(oldExpense, newExpense) {
+  const index = expenses.indexOf(oldExpense);
+  if (index < 0) return;
+  expenses[index] = newExpense;
+  trackExpenseChange(oldExpense, newExpense);
+  const view = expenseListView;
+  let position = index;
+  if (view.items !== expenses) {
+    position = view.items.indexOf(oldExpense);
+    if (position < 0) return;
+    view.items[position] = newExpense;
+  }
+  const row = renderedExpenseRow(position);
+  if (row) row.replaceWith(createExpenseRow(newExpense));
+}
+
+// Swap the oldest in-flight add for the record the server saved, or drop it (saved = null)
+function settlePendingExpense(saved) {
+  let pending = pendingExpenses.shift();
+  if (pending && !expenses.includes(pending)) {
+    // Added to a month that is no longer on screen; take it out of that month's cached list
+    removeCachedExpense(pending);
+    pending = null;
+  }
+  if (pending && saved) {
+    replaceExpenseInList(pending, saved);
+  } else if (pending) {
+    removeExpenseFromList(pending);
+  } else if (saved) {
+    addExpenseToList(saved);
+  }
+  refreshExpenseSummary();
+}
+
+// Total, chart and budget after the listed expenses changed, drawn on the next animation frame
+function refreshExpenseSummary() {
+  scheduleSummaryUpdate({ total: true, chart: true, budget: true });
+}
+
+document.getElementById("expense-scroll").addEventListener(
+  "scroll",
+  function () {
+    if (expenseListView.frame) return;
+    expenseListView.frame = requestAnimationFrame(() => {
+      expenseListView.frame = 0;
+      renderExpenseWindow();
+    });
+  },
+  { passive: true }
+);
+
+// Edit and Delete buttons of all rows, looked up at click time since rows come and go
+document.getElementById("expense-list").addEventListener("click", function (e) {
+  const button = e.target.closest("button[data-action]");
+  if (!button) return;
+  const index = expenses.indexOf(rowExpenses.get(button.closest("tr")));
+  if (index < 0) return;
+  if (button.dataset.action === "edit") {
+    editExpense(index);
+  } else {
+    deleteExpense(index);
+  }
+});
+
 // Filter expenses by category
 document
   .getElementById("filter-category")
@@ -192,15 +462,14 @@ document
     const selectedCategory = this.value;
     if (selectedCategory === "All") {
       updateExpenseList(expenses); // Show all expenses
-      updateTotalExpense(expenses); // Show total for all expenses
     } else {
       const filteredExpenses = expenses.filter(
-        (expense) => expense.category === selectedCategory
+        (expense) => (expense.type || expense.category) === selectedCategory
       );
-      updateExpenseList(filteredExpenses); // Show filtered expenses
-      updateTotalExpense(filteredExpenses); // Show total for filtered expenses
+      updateExpenseList(filteredExpenses, selectedCategory); // Show filtered expenses
     }
-    updateBudgetStatus(); // Update budget status when filtering
+    // Total of the listed expenses and budget status when filtering
+    scheduleSummaryUpdate({ total: true, budget: true });
   });
 
 // Export expenses to CSV
@@ -259,12 +528,9 @@ async function deleteExpense(index) {
     const data = await response.json();
 
     if (response.ok) {
-      // Update local expenses array
-      expenses = data.expenses;
-      updateExpenseList(expenses);
-      updateTotalExpense(expenses);
-      updateChart();
-      updateBudgetStatus();
+      // Drop just this expense; the response lists every month, not the one on screen
+      removeExpenseFromList(expense);
+      refreshExpenseSummary();
       alert("Expense deleted successfully!");
     } else {
       alert(data.error || "Failed to delete expense");
@@ -295,32 +561,168 @@ async function fetchBudget(month = currentMonth, year = currentYear) {
     const data = await response.json();
 
     if (response.ok) {
-      const budgetDisplay = document.getElementById("budget-display");
-      const budgetStatus = document.getElementById("budget-status");
-      const monthDisplay = document.getElementById("current-month-display");
-
-      if (budgetDisplay && budgetStatus) {
-        budgetDisplay.textContent = data.budget.toFixed(2);
-
-        if (monthDisplay) {
-          const date = new Date(data.year, data.month - 1);
-          monthDisplay.textContent = date.toLocaleString("default", {
-            month: "long",
-            year: "numeric",
-          });
-        }
-
-        if (data.budget > 0) {
-          budgetStatus.style.display = "block";
-          updateBudgetStatus();
-        }
-      }
+      showBudget(data.budget, data.month, data.year);
     }
   } catch (error) {
     console.error("Error fetching budget:", error);
   }
 }
 
+// Show a month's budget and, if one is set, the budget status
+function showBudget(budget, month, year) {
+  const budgetDisplay = document.getElementById("budget-display");
+  const budgetStatus = document.getElementById("budget-status");
+  const monthDisplay = document.getElementById("current-month-display");
+
+  if (budgetDisplay && budgetStatus) {
+    budgetDisplay.textContent = budget.toFixed(2);
+
+    if (monthDisplay) {
+      const date = new Date(year, month - 1);
+      monthDisplay.textContent = date.toLocaleString("default", {
+        month: "long",
+        year: "numeric",
+      });
+    }
+
+    if (budget > 0) {
+      budgetStatus.style.display = "block";
+      updateBudgetStatus();
+    }
+  }
+}
+
+// Dashboard data of the months seen so far, keyed "yyyy-mm", so switching back to a month needs no
+// request. The month on screen shares its expenses array with its entry, so adds and deletes there
+// land in the cache as they happen; adds to other months are written through to their entries, and
+// a budget change or an edit fetches the month again.
+const MONTH_CACHE_LIMIT = 12;
+const monthCache = new Map(); // Least recently shown first
+const monthPrefetches = new Map(); // Key -> { stale } while a prefetch is in flight
+
+function monthKey(month, year) {
+  return `${year}-${String(month).padStart(2, "0")}`;
+}
+
+function cacheMonth(data) {
+  const key = monthKey(data.month, data.year);
+  const entry = { month: data.month, year: data.year, expenses: data.expenses, budget: data.budget };
+  monthCache.delete(key);
+  monthCache.set(key, entry);
+  if (monthCache.size > MONTH_CACHE_LIMIT) {
+    monthCache.delete(monthCache.keys().next().value);
+  }
+  return entry;
+}
+
+// Put an expense saved for a month that is not on screen into that month's cached list
+function cacheAddedExpense(expense, month, year) {
+  const key = monthKey(month, year);
+  const prefetch = monthPrefetches.get(key);
+  if (prefetch) prefetch.stale = true; // Its response may have been read before the add
+  const entry = monthCache.get(key);
+  if (entry && entry.expenses !== expenses) entry.expenses.push(expense);
+}
+
+// Take an expense out of whichever cached month lists it
+function removeCachedExpense(expense) {
+  for (const entry of monthCache.values()) {
+    const index = entry.expenses.indexOf(expense);
+    if (index >= 0) {
+      entry.expenses.splice(index, 1);
+      return;
+    }
+  }
+}
+
+function forgetCachedMonth(month, year) {
+  monthCache.delete(monthKey(month, year));
+}
+
+async function requestDashboard(month, year) {
+  const response = await fetch(`/dashboard?month=${month}&year=${year}`, {
+    method: "GET",
+    headers: {
+      "Content-Type": "application/json",
+    },
+  });
+
+  const data = await response.json();
+  if (!response.ok) {
+    throw new Error(data.error || `Dashboard request failed (${response.status})`);
+  }
+  return data;
+}
+
+// Draw a month's expenses, budget and totals
+function showMonth(entry) {
+  expenses = entry.expenses;
+  updateExpenseList(expenses);
+  document.getElementById("expense-list").style.display = "";
+  showBudget(entry.budget, entry.month, entry.year);
+  refreshExpenseSummary();
+}
+
+// Show a month from the cache if it is there, otherwise from the server
+async function loadMonth(month, year) {
+  const key = monthKey(month, year);
+  const entry = monthCache.get(key);
+  if (!entry) {
+    await fetchDashboard(month, year);
+    return;
+  }
+  monthCache.delete(key);
+  monthCache.set(key, entry);
+  showMonth(entry);
+  prefetchAdjacentMonths(month, year);
+}
+
+// Fetch a month's expenses, budget and category totals in one request (GET /dashboard), cache and show them
+async function fetchDashboard(month = currentMonth, year = currentYear) {
+  try {
+    const data = await requestDashboard(month, year);
+    seedExpenseTotals(data.expenses, data.summary); // The server already summed the month
+    showMonth(cacheMonth(data));
+    // First paint with data: the tracker is usable from the frame after this one
+    if (!performance.getEntriesByName("tracker-ready").length) {
+      requestAnimationFrame(() => performance.mark("tracker-ready"));
+    }
+    prefetchAdjacentMonths(data.month, data.year);
+  } catch (error) {
+    console.error("Error fetching dashboard:", error);
+  }
+}
+
+// Once the month on screen is drawn, fetch the months before and after it in the background
+function prefetchAdjacentMonths(month, year) {
+  const whenIdle = window.requestIdleCallback || ((callback) => setTimeout(callback, 200));
+  whenIdle(() => {
+    [-1, 1].forEach((offset) => {
+      const date = new Date(year, month - 1 + offset, 1);
+      prefetchMonth(date.getMonth() + 1, date.getFullYear());
+    });
+  });
+}
+
+async function prefetchMonth(month, year) {
+  const key = monthKey(month, year);
+  if (monthCache.has(key) || monthPrefetches.has(key)) return;
+
+  const prefetch = { stale: false };
+  monthPrefetches.set(key, prefetch);
+  try {
+    const data = await requestDashboard(month, year);
+    // Keep it unless the month changed meanwhile or was loaded another way
+    if (!prefetch.stale && !monthCache.has(key)) {
+      cacheMonth(data);
+    }
+  } catch (error) {
+    console.error("Error prefetching month:", error);
+  } finally {
+    monthPrefetches.delete(key);
+  }
+}
+
 // Initialize Month Selector
 function initializeMonthSelector() {
   const monthInput = document.getElementById("view-month");
@@ -347,9 +749,8 @@ async function loadMonthData() {
     historyDiv.style.display = "none";
   }
 
-  // Fetch budget and expenses for selected month
-  await fetchBudget(currentMonth, currentYear);
-  await fetchExpensesByMonth(currentMonth, currentYear);
+  // Budget and expenses for selected month, from the cache when it has them
+  await loadMonth(currentMonth, currentYear);
 }
 
 // Fetch Expenses for Specific Month
@@ -369,11 +770,11 @@ async function fetchExpensesByMonth(month, year) {
 
     if (response.ok && data.expenses) {
       expenses = data.expenses;
+      const entry = monthCache.get(monthKey(month, year));
+      if (entry) entry.expenses = expenses; // Fresher than what was cached
       updateExpenseList(expenses);
-      updateTotalExpense(expenses);
-      updateChart();
-      updateBudgetStatus();
-      document.getElementById("expense-list").style.display = "block";
+      refreshExpenseSummary();
+      document.getElementById("expense-list").style.display = "";
     }
   } catch (error) {
     console.error("Error fetching expenses:", error);
@@ -427,7 +828,7 @@ async function fetch6MonthsExpenses() {
 
       // Update the global expenses array and chart for 6-month view
       expenses = last6MonthsExpenses;
-      updateChart();
+      scheduleSummaryUpdate({ chart: true });
     }
   } catch (error) {
     console.error("Error fetching 6 months expenses:", error);
@@ -478,11 +879,8 @@ function updateBudgetStatus() {
 
   if (budget === 0) return; // Don't update if budget is not set
 
-  // Calculate total expenses
-  const totalExpense = expenses.reduce(
-    (sum, expense) => sum + expense.amount,
-    0
-  );
+  // Total expenses, from the running totals
+  const totalExpense = currentExpenseTotals().total / 100;
   const remaining = budget - totalExpense;
   const usagePercentage = (totalExpense / budget) * 100;
 
@@ -0,0 +1,118 @@
+// Admission control for the authenticated routes
+// At most maxInFlight requests run at once; a few more wait in a short queue and the rest are
+// turned away with 503 + Retry-After, so a spike fails fast for some instead of slowing everyone.
+// Waiting requests are queued per user and admitted round-robin, so one busy client can't
+// starve the others.
+
+const BUSY_MESSAGE = "Server is busy. Please retry shortly.";
+
+function createLimiter({
+  maxInFlight = 32,
+  maxQueue = 64,
+  maxQueuePerUser = 8,
+  queueTimeoutMs = 2000,
+  retryAfterSeconds = 1,
+  keyOf = (req) => (req.user && req.user.id) || req.ip,
+} = {}) {
+  let inFlight = 0;
+  let queued = 0;
+  // user key -> FIFO of waiting entries; Map iteration order gives the round-robin order
+  const queues = new Map();
+  const rejected = { queue_full: 0, user_queue_full: 0, queue_timeout: 0 };
+
+  function reject(res, reason) {
+    rejected[reason]++;
+    res.set("Retry-After", String(retryAfterSeconds));
+    res.status(503).json({ error: BUSY_MESSAGE });
+  }
+
+  function admit(req, res, next) {
+    inFlight++;
+    let released = false;
+    const release = () => {
+      if (released) return;
+      released = true;
+      inFlight--;
+      admitNext();
+    };
+    res.on("finish", release);
+    res.on("close", release);
+    next();
+  }
+
+  // Take the head of the next user's queue and move that user to the back of the rotation
+  function admitNext() {
+    while (inFlight < maxInFlight && queues.size > 0) {
+      const [key, queue] = queues.entries().next().value;
+      const entry = queue.shift();
+      queues.delete(key);
+      if (queue.length > 0) queues.set(key, queue);
+      queued--;
+      clearTimeout(entry.timer);
+      if (entry.res.writableEnded || entry.req.socket.destroyed) continue;
+      admit(entry.req, entry.res, entry.next);
+    }
+  }
+
+  function removeEntry(key, entry) {
+    const queue = queues.get(key);
+    if (!queue) return false;
+    const index = queue.indexOf(entry);
+    if (index < 0) return false;
+    queue.splice(index, 1);
+    if (queue.length === 0) queues.delete(key);
+    queued--;
+    return true;
+  }
+
+  function middleware(req, res, next) {
+    if (inFlight < maxInFlight && queued === 0) {
+      return admit(req, res, next);
+    }
+    if (queued >= maxQueue) {
+      return reject(res, "queue_full");
+    }
+    const key = String(keyOf(req));
+    const queue = queues.get(key) || [];
+    if (queue.length >= maxQueuePerUser) {
+      return reject(res, "user_queue_full");
+    }
+
+    const entry = { req, res, next };
+    entry.timer = setTimeout(() => {
+      if (removeEntry(key, entry)) reject(res, "queue_timeout");
+    }, queueTimeoutMs);
+    // Client gave up while waiting
+    res.on("close", () => {
+      if (removeEntry(key, entry)) clearTimeout(entry.timer);
+    });
+    queue.push(entry);
+    if (!queues.has(key)) queues.set(key, queue);
+    queued++;
+  }
+
+  middleware.stats = () => ({
+    inFlight,
+    queued,
+    users: queues.size,
+    rejected: { ...rejected },
+  });
+
+  // Prometheus lines for metrics.addCollector()
+  middleware.render = () => [
+    "# HELP admission_in_flight Authenticated requests currently running",
+    "# TYPE admission_in_flight gauge",
+    `admission_in_flight ${inFlight}`,
+    "# HELP admission_queued Authenticated requests waiting for a slot",
+    "# TYPE admission_queued gauge",
+    `admission_queued ${queued}`,
+    "# HELP admission_rejected_total Requests shed with 503, by reason",
+    "# TYPE admission_rejected_total counter",
+    ...Object.entries(rejected).map(
+      ([reason, count]) => `admission_rejected_total{reason="${reason}"} ${count}`
+    ),
+  ];
+  return middleware;
+}
+
+module.exports = { createLimiter };
@@ -0,0 +1,269 @@
+// Request, MongoDB and runtime metrics in the Prometheus text exposition format
+// Usage (server.js):
+//   app.use(metrics.middleware);            // before any route or static handler
+//   userSchema.plugin(metrics.mongoosePlugin); // before mongoose.model()
+//   app.get("/metrics", metrics.handler);
+//   metrics.addCollector(() => [...lines]); // extra series owned by other modules
+const { monitorEventLoopDelay } = require("perf_hooks");
+
+// Histogram bucket upper bounds, in seconds
+const LATENCY_BUCKETS = [
+  0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10,
+];
+
+// Mongoose operations timed by the plugin
+const QUERY_OPERATIONS = [
+  "countDocuments",
+  "deleteMany",
+  "deleteOne",
+  "find",
+  "findOne",
+  "findOneAndDelete",
+  "findOneAndUpdate",
+  "replaceOne",
+  "updateMany",
+  "updateOne",
+];
+
+class Counter {
+  constructor(name, help, labelNames) {
+    this.name = name;
+    this.help = help;
+    this.labelNames = labelNames;
+    this.values = new Map();
+  }
+
+  inc(labels, amount = 1) {
+    const key = labelKey(this.labelNames, labels);
+    this.values.set(key, (this.values.get(key) || 0) + amount);
+  }
+
+  render() {
+    const lines = [
+      `# HELP ${this.name} ${this.help}`,
+      `# TYPE ${this.name} counter`,
+    ];
+    for (const [key, value] of this.values) {
+      lines.push(`${this.name}${key} ${value}`);
+    }
+    return lines;
+  }
+}
+
+class Histogram {
+  constructor(name, help, labelNames, buckets = LATENCY_BUCKETS) {
+    this.name = name;
+    this.help = help;
+    this.labelNames = labelNames;
+    this.buckets = buckets;
+    this.series = new Map();
+  }
+
+  observe(labels, seconds) {
+    const key = labelKey(this.labelNames, labels);
+    let series = this.series.get(key);
+    if (!series) {
+      series = {
+        labels,
+        counts: new Array(this.buckets.length).fill(0),
+        sum: 0,
+        count: 0,
+      };
+      this.series.set(key, series);
+    }
+    for (let i = 0; i < this.buckets.length; i++) {
+      if (seconds <= this.buckets[i]) {
+        series.counts[i]++;
+      }
+    }
+    series.sum += seconds;
+    series.count++;
+  }
+
+  render() {
+    const lines = [
+      `# HELP ${this.name} ${this.help}`,
+      `# TYPE ${this.name} histogram`,
+    ];
+    for (const [key, series] of this.series) {
+      this.buckets.forEach((bound, i) => {
+        const bucketKey = labelKey(
+          [...this.labelNames, "le"],
+          { ...series.labels, le: String(bound) }
+        );
+        lines.push(`${this.name}_bucket${bucketKey} ${series.counts[i]}`);
+      });
+      const infKey = labelKey([...this.labelNames, "le"], {
+        ...series.labels,
+        le: "+Inf",
+      });
+      lines.push(`${this.name}_bucket${infKey} ${series.count}`);
+      lines.push(`${this.name}_sum${key} ${series.sum}`);
+      lines.push(`${this.name}_count${key} ${series.count}`);
+    }
+    return lines;
+  }
+}
+
+function labelKey(labelNames, labels) {
+  if (labelNames.length === 0) return "";
+  const pairs = labelNames.map((name) => {
+    const value = String(labels[name] === undefined ? "" : labels[name])
+      .replace(/\\/g, "\\\\")
+      .replace(/"/g, '\\"')
+      .replace(/\n/g, "\\n");
+    return `${name}="${value}"`;
+  });
+  return `{${pairs.join(",")}}`;
+}
+
+function gauge(name, help, value) {
+  return [`# HELP ${name} ${help}`, `# TYPE ${name} gauge`, `${name} ${value}`];
+}
+
+function secondsSince(start) {
+  return Number(process.hrtime.bigint() - start) / 1e9;
+}
+
+const httpRequests = new Counter(
+  "http_requests_total",
+  "HTTP requests by route and status code",
+  ["method", "route", "status"]
+);
+const httpDuration = new Histogram(
+  "http_request_duration_seconds",
+  "Time from request received to response finished",
+  ["method", "route"]
+);
+const mongoDuration = new Histogram(
+  "mongodb_operation_duration_seconds",
+  "Duration of Mongoose queries, saves and aggregations",
+  ["model", "operation"]
+);
+const mongoErrors = new Counter(
+  "mongodb_operation_errors_total",
+  "Mongoose operations that failed",
+  ["model", "operation"]
+);
+
+// Event loop delay, sampled every 10ms; reset on every scrape so each scrape covers its own interval
+const LOOP_RESOLUTION_MS = 10;
+const eventLoopDelay = monitorEventLoopDelay({ resolution: LOOP_RESOLUTION_MS });
+eventLoopDelay.enable();
+
+// Recorded delays include the sampling timer itself; lag is what comes on top of it
+function lagSeconds(nanos) {
+  if (eventLoopDelay.count === 0) return 0;
+  return Math.max(0, nanos / 1e6 - LOOP_RESOLUTION_MS) / 1e3;
+}
+
+// Route template ("/delete-expense/:expenseId") rather than the raw URL, to keep label cardinality bounded
+function routeLabel(req, res) {
+  if (req.route && req.route.path) {
+    return (req.baseUrl || "") + req.route.path;
+  }
+  if (res.statusCode === 404) return "unmatched";
+  return "static";
+}
+
+function middleware(req, res, next) {
+  const start = process.hrtime.bigint();
+  res.on("finish", () => {
+    const route = routeLabel(req, res);
+    const seconds = secondsSince(start);
+    httpRequests.inc({ method: req.method, route, status: res.statusCode });
+    httpDuration.observe({ method: req.method, route }, seconds);
+  });
+  next();
+}
+
+function mongoosePlugin(schema) {
+  schema.pre(QUERY_OPERATIONS, function () {
+    this._metricsStart = process.hrtime.bigint();
+  });
+  schema.post(QUERY_OPERATIONS, function () {
+    if (this._metricsStart) {
+      mongoDuration.observe(
+        { model: this.model.modelName, operation: this.op },
+        secondsSince(this._metricsStart)
+      );
+    }
+  });
+  schema.post(QUERY_OPERATIONS, function (error, result, next) {
+    mongoErrors.inc({ model: this.model.modelName, operation: this.op });
+    next(error);
+  });
+
+  schema.pre("save", function () {
+    this.$locals.metricsStart = process.hrtime.bigint();
+  });
+  schema.post("save", function () {
+    if (this.$locals.metricsStart) {
+      mongoDuration.observe(
+        { model: this.constructor.modelName, operation: "save" },
+        secondsSince(this.$locals.metricsStart)
+      );
+    }
+  });
+
+  schema.pre("aggregate", function () {
+    this._metricsStart = process.hrtime.bigint();
+  });
+  schema.post("aggregate", function () {
+    if (this._metricsStart) {
+      mongoDuration.observe(
+        { model: this._model.modelName, operation: "aggregate" },
+        secondsSince(this._metricsStart)
+      );
+    }
+  });
+}
+
+// Functions returning extra exposition lines, appended on every scrape
+const collectors = [];
+
+function addCollector(collect) {
+  collectors.push(collect);
+}
+
+function render() {
+  const memory = process.memoryUsage();
+  const lines = [
+    ...httpRequests.render(),
+    ...httpDuration.render(),
+    ...mongoDuration.render(),
+    ...mongoErrors.render(),
+    ...gauge(
+      "nodejs_eventloop_lag_seconds",
+      "Mean event loop delay since the last scrape",
+      lagSeconds(eventLoopDelay.mean)
+    ),
+    ...gauge(
+      "nodejs_eventloop_lag_p99_seconds",
+      "99th percentile event loop delay since the last scrape",
+      lagSeconds(eventLoopDelay.percentile(99))
+    ),
+    ...gauge(
+      "nodejs_eventloop_lag_max_seconds",
+      "Maximum event loop delay since the last scrape",
+      lagSeconds(eventLoopDelay.max)
+    ),
+    ...gauge("nodejs_heap_used_bytes", "V8 heap in use", memory.heapUsed),
+    ...gauge("nodejs_heap_total_bytes", "V8 heap allocated", memory.heapTotal),
+    ...gauge(
+      "process_resident_memory_bytes",
+      "Resident set size",
+      memory.rss
+    ),
+    ...collectors.flatMap((collect) => collect()),
+  ];
+  eventLoopDelay.reset();
+  return lines.join("\n") + "\n";
+}
+
+function handler(req, res) {
+  res.set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+  res.send(render());
+}
+
+module.exports = { middleware, mongoosePlugin, handler, render, addCollector };
@@ -4,11 +4,15 @@ const bodyParser = require("body-parser");
 const mongoose = require("mongoose");
 const path = require("path");
 const jwt = require("jsonwebtoken"); // For token-based authentication
+const crypto = require("crypto"); // For comparing the admin token
 const cookieParser = require("cookie-parser"); // For parsing cookies
+const metrics = require("./metrics"); // Request, MongoDB and runtime metrics
+const { createLimiter } = require("./admission"); // Load shedding for authenticated routes
 
 const app = express();
 
 // Middleware
+app.use(metrics.middleware); // First, so it times everything below
 app.use(bodyParser.urlencoded({ extended: true }));
 app.use(bodyParser.json());
 app.use(cookieParser());
@@ -45,11 +49,146 @@ const userSchema = new mongoose.Schema({
       date: { type: Date, default: Date.now },
     },
   ],
+  // Set on users registered by a test suite (X-Test-Run header), see testRunOf
+  testRun: { type: String },
+  expiresAt: { type: Date },
 });
 
+// Test users are removed by MongoDB once expiresAt passes, or all of a run's at once by the admin route
+userSchema.index({ expiresAt: 1 }, { expireAfterSeconds: 0 });
+userSchema.index({ testRun: 1 }, { sparse: true });
+
+// Time every query, save and aggregation on the model
+userSchema.plugin(metrics.mongoosePlugin);
+
 // Create Mongoose Model
 const User = mongoose.model("User", userSchema);
 
+// Ready once MongoDB is connected and the model's indexes (unique email) are built
+let indexesReady = false;
+User.init()
+  .then(() => {
+    indexesReady = true;
+    console.log("MongoDB indexes ready");
+  })
+  .catch((err) => console.error("Error building MongoDB indexes:", err));
+
+// Whether a requested month can be looked up: month 1-12 of a 4-digit year. Date.UTC would roll anything
+// else over (month 13 into next January, years 0-99 into the 1900s), so such months match no expenses.
+function isValidMonth(year, month) {
+  return (
+    Number.isInteger(year) && year >= 1000 && year <= 9999 &&
+    Number.isInteger(month) && month >= 1 && month <= 12
+  );
+}
+
+// UTC bounds [start, end) of a calendar month, matching how expense dates are stored; check isValidMonth first
+function monthRange(year, month) {
+  return {
+    start: new Date(Date.UTC(year, month - 1, 1)),
+    end: new Date(Date.UTC(year, month, 1)),
+  };
+}
+
+// Budget, spending and remaining amount for each of the last N months, newest first
+// user needs monthlyBudgets and expenses (amount and date only)
+function budgetHistory(user, numberOfMonths) {
+  const currentDate = new Date();
+  const history = [];
+
+  // Generate last N months
+  for (let i = 0; i < numberOfMonths; i++) {
+    const date = new Date(
+      currentDate.getFullYear(),
+      currentDate.getMonth() - i,
+      1
+    );
+    const month = date.getMonth() + 1;
+    const year = date.getFullYear();
+
+    // Find budget for this month
+    const monthlyBudget = user.monthlyBudgets.find(
+      (b) => b.year === year && b.month === month
+    );
+
+    // Calculate expenses for this month
+    const monthExpenses = user.expenses.filter((expense) => {
+      const expenseDate = new Date(expense.date);
+      // Extract month and year using UTC methods to avoid timezone issues
+      const expenseMonth = expenseDate.getUTCMonth() + 1;
+      const expenseYear = expenseDate.getUTCFullYear();
+      return expenseMonth === month && expenseYear === year;
+    });
+
+    const totalExpenses = monthExpenses.reduce(
+      (sum, expense) => sum + expense.amount,
+      0
+    );
+
+    const budgetAmount = monthlyBudget ? monthlyBudget.amount : 0;
+
+    history.push({
+      month: month,
+      year: year,
+      monthName: date.toLocaleString("default", { month: "long" }),
+      budget: budgetAmount,
+      expenses: totalExpenses,
+      remaining: budgetAmount - totalExpenses,
+    });
+  }
+
+  return history;
+}
+
+// Per-category and overall sums of a list of expenses
+function categorySummary(expenses) {
+  const byCategory = {};
+  let total = 0;
+  for (const expense of expenses) {
+    byCategory[expense.type] = (byCategory[expense.type] || 0) + expense.amount;
+    total += expense.amount;
+  }
+  return { total, byCategory };
+}
+
+// Admission control: bounded concurrency, short per-user fair queue, 503 + Retry-After beyond that
+const admission = createLimiter({
+  maxInFlight: Number(process.env.MAX_IN_FLIGHT) || 32,
+  maxQueue: Number(process.env.MAX_QUEUE) || 64,
+  maxQueuePerUser: Number(process.env.MAX_QUEUE_PER_USER) || 8,
+  queueTimeoutMs: Number(process.env.QUEUE_TIMEOUT_MS) || 2000,
+});
+metrics.addCollector(admission.render);
+
+// Test runs tag the users they register so they can be cleaned up; a tag is 1-64 letters, digits, ".", "_" or "-"
+// A tagged user expires after TEST_USER_TTL_MS, so the tag is only honored when TEST_RUNS_ENABLED=true;
+// otherwise any client could send X-Test-Run and have its account deleted
+const TEST_RUNS_ENABLED = process.env.TEST_RUNS_ENABLED === "true";
+const TEST_RUN_PATTERN = /^[\w.-]{1,64}$/;
+const TEST_USER_TTL_MS = (Number(process.env.TEST_USER_TTL_HOURS) || 24) * 60 * 60 * 1000;
+
+function testRunOf(req) {
+  if (!TEST_RUNS_ENABLED) {
+    return null;
+  }
+  const testRun = req.get("X-Test-Run");
+  return testRun && TEST_RUN_PATTERN.test(testRun) ? testRun : null;
+}
+
+// Admin routes need "Authorization: Bearer <ADMIN_TOKEN>" and are off when ADMIN_TOKEN is not set
+function authenticateAdmin(req, res, next) {
+  const adminToken = process.env.ADMIN_TOKEN;
+  if (!adminToken) {
+    return res.status(404).json({ error: "Admin routes are disabled." });
+  }
+  const given = Buffer.from((req.get("Authorization") || "").replace(/^Bearer /, ""));
+  const expected = Buffer.from(adminToken);
+  if (given.length !== expected.length || !crypto.timingSafeEqual(given, expected)) {
+    return res.status(401).json({ error: "Invalid admin token." });
+  }
+  next();
+}
+
 // Middleware to authenticate users
 function authenticateUser(req, res, next) {
   const token = req.cookies.authToken; // Token stored in cookies
@@ -62,7 +201,7 @@ function authenticateUser(req, res, next) {
   try {
     const user = jwt.verify(token, process.env.JWT_SECRET || "secretKey"); // Verify token
     req.user = user; // Attach user info to the request object
-    next(); // Proceed to the next middleware/route handler
+    admission(req, res, next); // Proceed once a slot is free (or shed with 503)
   } catch (error) {
     res
       .status(401)
@@ -70,6 +209,25 @@ function authenticateUser(req, res, next) {
   }
 }
 
+// Liveness: the process is up and serving requests
+app.get("/healthz", (req, res) => {
+  res.status(200).json({ status: "ok", uptime: process.uptime() });
+});
+
+// Readiness: requests that need the database will succeed
+app.get("/readyz", (req, res) => {
+  const mongo = mongoose.STATES[mongoose.connection.readyState];
+  if (mongo === "connected" && indexesReady) {
+    return res.status(200).json({ status: "ready", mongo, indexes: true });
+  }
+  res.set("Retry-After", "1");
+  res.status(503).json({ status: "not ready", mongo, indexes: indexesReady });
+});
+
+// Metrics in Prometheus text format; an admin route, since they show traffic and internals and each
+// scrape resets the event-loop lag histogram
+app.get("/metrics", authenticateAdmin, metrics.handler);
+
 // Register Route
 app.post("/register", async (req, res) => {
   const { name, email, password } = req.body;
@@ -80,7 +238,7 @@ app.post("/register", async (req, res) => {
     const trimmedPassword = password ? password.trim() : "";
     const trimmedName = name ? name.trim() : "";
 
-    const existingUser = await User.findOne({ email: trimmedEmail });
+    const existingUser = await User.exists({ email: trimmedEmail });
     if (existingUser) {
       return res.status(400).json({ error: "Email already registered." });
     }
@@ -90,6 +248,11 @@ app.post("/register", async (req, res) => {
       email: trimmedEmail,
       password: trimmedPassword,
     });
+    const testRun = testRunOf(req);
+    if (testRun) {
+      newUser.testRun = testRun;
+      newUser.expiresAt = new Date(Date.now() + TEST_USER_TTL_MS);
+    }
     await newUser.save();
 
     res.status(201).json({
@@ -113,7 +276,10 @@ app.post("/login", async (req, res) => {
     const trimmedEmail = email ? email.trim() : "";
     const trimmedPassword = password ? password.trim() : "";
 
-    const user = await User.findOne({ email: trimmedEmail });
+    const user = await User.findOne(
+      { email: trimmedEmail },
+      { name: 1, email: 1, password: 1 }
+    ).lean();
     if (!user) {
       return res.status(400).json({ error: "Invalid email or password." });
     }
@@ -148,11 +314,6 @@ app.post("/add-expense", authenticateUser, async (req, res) => {
   const { description, amount, type, date } = req.body;
 
   try {
-    const user = await User.findById(req.user.id);
-    if (!user) {
-      return res.status(404).json({ error: "User not found" });
-    }
-
     // Parse the date properly - if a date string is provided, create a Date at UTC midnight
     let expenseDate;
     if (date) {
@@ -171,8 +332,16 @@ app.post("/add-expense", authenticateUser, async (req, res) => {
     }
 
     const newExpense = { description, amount, type, date: expenseDate };
-    user.expenses.push(newExpense);
-    await user.save();
+
+    // Push atomically and read back only the expenses array
+    const user = await User.findByIdAndUpdate(
+      req.user.id,
+      { $push: { expenses: newExpense } },
+      { new: true, runValidators: true, projection: { expenses: 1 } }
+    ).lean();
+    if (!user) {
+      return res.status(404).json({ error: "User not found" });
+    }
 
     res.status(200).json({
       message: "Expense added successfully!",
@@ -187,7 +356,7 @@ app.post("/add-expense", authenticateUser, async (req, res) => {
 // Get All Expenses Route
 app.get("/get-expenses", authenticateUser, async (req, res) => {
   try {
-    const user = await User.findById(req.user.id);
+    const user = await User.findById(req.user.id, { expenses: 1 }).lean();
     if (!user) {
       return res.status(404).json({ error: "User not found" });
     }
@@ -202,7 +371,10 @@ app.get("/get-expenses", authenticateUser, async (req, res) => {
 // Get Expense Summary by Type Route (For Pie Chart)
 app.get("/expense-summary", authenticateUser, async (req, res) => {
   try {
-    const user = await User.findById(req.user.id);
+    const user = await User.findById(req.user.id, {
+      "expenses.type": 1,
+      "expenses.amount": 1,
+    }).lean();
     if (!user) {
       return res.status(404).json({ error: "User not found" });
     }
@@ -224,24 +396,24 @@ app.delete("/delete-expense/:expenseId", authenticateUser, async (req, res) => {
   const { expenseId } = req.params;
 
   try {
-    const user = await User.findById(req.user.id);
-    if (!user) {
-      return res.status(404).json({ error: "User not found" });
-    }
+    // Hard delete - pull the matching entry and read back only the expenses array
+    const user = mongoose.isValidObjectId(expenseId)
+      ? await User.findOneAndUpdate(
+          { _id: req.user.id, "expenses._id": expenseId },
+          { $pull: { expenses: { _id: expenseId } } },
+          { new: true, projection: { expenses: 1 } }
+        ).lean()
+      : null;
 
-    // Find expense index
-    const expenseIndex = user.expenses.findIndex(
-      (expense) => expense._id.toString() === expenseId
-    );
-
-    if (expenseIndex === -1) {
+    if (!user) {
+      // Nothing was pulled: tell a missing user apart from a missing expense
+      const userExists = await User.exists({ _id: req.user.id });
+      if (!userExists) {
+        return res.status(404).json({ error: "User not found" });
+      }
       return res.status(404).json({ error: "Expense not found" });
     }
 
-    // Hard delete - remove from array
-    user.expenses.splice(expenseIndex, 1);
-    await user.save();
-
     res.status(200).json({
       message: "Expense deleted successfully!",
       expenses: user.expenses,
@@ -256,42 +428,61 @@ app.delete("/delete-expense/:expenseId", authenticateUser, async (req, res) => {
 app.post("/set-budget", authenticateUser, async (req, res) => {
   const { budget, month, year } = req.body;
 
-  try {
-    const user = await User.findById(req.user.id);
-    if (!user) {
-      return res.status(404).json({ error: "User not found" });
-    }
+  // A missing budget would be dropped from the update rather than fail validation
+  if (budget === undefined || budget === null || budget === "") {
+    return res.status(500).json({ error: "Failed to set budget." });
+  }
 
+  try {
     const currentDate = new Date();
     const targetMonth = month || currentDate.getMonth() + 1;
     const targetYear = year || currentDate.getFullYear();
-
-    // Check if budget already exists for this month
-    const existingBudgetIndex = user.monthlyBudgets.findIndex(
-      (b) => b.year === targetYear && b.month === targetMonth
-    );
-
-    if (existingBudgetIndex !== -1) {
-      // Update existing budget
-      user.monthlyBudgets[existingBudgetIndex].amount = budget;
-    } else {
-      // Add new monthly budget
-      user.monthlyBudgets.push({
-        year: targetYear,
-        month: targetMonth,
-        amount: budget,
-      });
-    }
+    const monthMatch = { year: targetYear, month: targetMonth };
 
     // Keep legacy field updated for current month
-    if (
+    const isCurrentMonth =
       targetMonth === currentDate.getMonth() + 1 &&
-      targetYear === currentDate.getFullYear()
-    ) {
-      user.monthlyBudget = budget;
+      targetYear === currentDate.getFullYear();
+    const legacyUpdate = isCurrentMonth ? { monthlyBudget: budget } : {};
+
+    // Update existing budget for this month in place
+    const updateExisting = () =>
+      User.updateOne(
+        { _id: req.user.id, monthlyBudgets: { $elemMatch: monthMatch } },
+        { $set: { "monthlyBudgets.$.amount": budget, ...legacyUpdate } },
+        { runValidators: true }
+      );
+    let result = await updateExisting();
+
+    if (result.matchedCount === 0) {
+      // Add new monthly budget (guarded so a concurrent insert can't duplicate it)
+      const pushUpdate = {
+        $push: { monthlyBudgets: { ...monthMatch, amount: budget } },
+      };
+      if (isCurrentMonth) {
+        pushUpdate.$set = legacyUpdate;
+      }
+      result = await User.updateOne(
+        {
+          _id: req.user.id,
+          monthlyBudgets: { $not: { $elemMatch: monthMatch } },
+        },
+        pushUpdate,
+        { runValidators: true }
+      );
     }
 
-    await user.save();
+    if (result.matchedCount === 0) {
+      // A concurrent request added this month first: update that entry instead
+      result = await updateExisting();
+    }
+
+    if (result.matchedCount === 0) {
+      if (!(await User.exists({ _id: req.user.id }))) {
+        return res.status(404).json({ error: "User not found" });
+      }
+      throw new Error("Monthly budget neither updated nor added");
+    }
 
     res.status(200).json({
       message: "Budget set successfully!",
@@ -308,20 +499,22 @@ app.post("/set-budget", authenticateUser, async (req, res) => {
 // Get Budget Route
 app.get("/get-budget", authenticateUser, async (req, res) => {
   try {
-    const user = await User.findById(req.user.id);
-    if (!user) {
-      return res.status(404).json({ error: "User not found" });
-    }
-
     const { month, year } = req.query;
     const currentDate = new Date();
     const targetMonth = month ? parseInt(month) : currentDate.getMonth() + 1;
     const targetYear = year ? parseInt(year) : currentDate.getFullYear();
 
-    // Find budget for specified month
-    const monthlyBudget = user.monthlyBudgets.find(
-      (b) => b.year === targetYear && b.month === targetMonth
-    );
+    // Fetch only the budget entry for the specified month
+    const user = await User.findById(req.user.id, {
+      monthlyBudgets: {
+        $elemMatch: { year: targetYear, month: targetMonth },
+      },
+    }).lean();
+    if (!user) {
+      return res.status(404).json({ error: "User not found" });
+    }
+
+    const monthlyBudget = user.monthlyBudgets && user.monthlyBudgets[0];
 
     res.status(200).json({
       budget: monthlyBudget ? monthlyBudget.amount : 0,
@@ -337,57 +530,18 @@ app.get("/get-budget", authenticateUser, async (req, res) => {
 // Get Budget History Route
 app.get("/get-budget-history", authenticateUser, async (req, res) => {
   try {
-    const user = await User.findById(req.user.id);
+    const user = await User.findById(req.user.id, {
+      monthlyBudgets: 1,
+      "expenses.amount": 1,
+      "expenses.date": 1,
+    }).lean();
     if (!user) {
       return res.status(404).json({ error: "User not found" });
     }
 
     const { months } = req.query;
     const numberOfMonths = months ? parseInt(months) : 6;
-
-    const currentDate = new Date();
-    const history = [];
-
-    // Generate last N months
-    for (let i = 0; i < numberOfMonths; i++) {
-      const date = new Date(
-        currentDate.getFullYear(),
-        currentDate.getMonth() - i,
-        1
-      );
-      const month = date.getMonth() + 1;
-      const year = date.getFullYear();
-
-      // Find budget for this month
-      const monthlyBudget = user.monthlyBudgets.find(
-        (b) => b.year === year && b.month === month
-      );
-
-      // Calculate expenses for this month
-      const monthExpenses = user.expenses.filter((expense) => {
-        const expenseDate = new Date(expense.date);
-        // Extract month and year using UTC methods to avoid timezone issues
-        const expenseMonth = expenseDate.getUTCMonth() + 1;
-        const expenseYear = expenseDate.getUTCFullYear();
-        return expenseMonth === month && expenseYear === year;
-      });
-
-      const totalExpenses = monthExpenses.reduce(
-        (sum, expense) => sum + expense.amount,
-        0
-      );
-
-      const budgetAmount = monthlyBudget ? monthlyBudget.amount : 0;
-
-      history.push({
-        month: month,
-        year: year,
-        monthName: date.toLocaleString("default", { month: "long" }),
-        budget: budgetAmount,
-        expenses: totalExpenses,
-        remaining: budgetAmount - totalExpenses,
-      });
-    }
+    const history = budgetHistory(user, numberOfMonths);
 
     res.status(200).json({ history });
   } catch (error) {
@@ -399,27 +553,39 @@ app.get("/get-budget-history", authenticateUser, async (req, res) => {
 // Get Expenses for Specific Month
 app.get("/get-expenses-by-month", authenticateUser, async (req, res) => {
   try {
-    const user = await User.findById(req.user.id);
-    if (!user) {
-      return res.status(404).json({ error: "User not found" });
-    }
-
     const { month, year } = req.query;
     const currentDate = new Date();
     const targetMonth = month ? parseInt(month) : currentDate.getMonth() + 1;
     const targetYear = year ? parseInt(year) : currentDate.getFullYear();
+    const { start, end } = monthRange(targetYear, targetMonth);
 
-    // Filter expenses for the specified month
-    const monthExpenses = user.expenses.filter((expense) => {
-      const expenseDate = new Date(expense.date);
-      // Extract month and year using UTC methods to avoid timezone issues
-      const expenseMonth = expenseDate.getUTCMonth() + 1;
-      const expenseYear = expenseDate.getUTCFullYear();
-      return expenseMonth === targetMonth && expenseYear === targetYear;
-    });
+    // Filter expenses for the specified month inside MongoDB (UTC month bounds); none for an invalid month
+    const [user] = await User.aggregate([
+      { $match: { _id: new mongoose.Types.ObjectId(String(req.user.id)) } },
+      {
+        $project: {
+          expenses: {
+            $filter: {
+              input: "$expenses",
+              cond: !isValidMonth(targetYear, targetMonth)
+                ? false
+                : {
+                    $and: [
+                      { $gte: ["$$this.date", start] },
+                      { $lt: ["$$this.date", end] },
+                    ],
+                  },
+            },
+          },
+        },
+      },
+    ]);
+    if (!user) {
+      return res.status(404).json({ error: "User not found" });
+    }
 
     res.status(200).json({
-      expenses: monthExpenses,
+      expenses: user.expenses,
       month: targetMonth,
       year: targetYear,
     });
@@ -429,6 +595,101 @@ app.get("/get-expenses-by-month", authenticateUser, async (req, res) => {
   }
 });
 
+// Dashboard Route: the month's expenses, budget and category summary, plus the budget history
+// when ?history=N is given, from a single read of the user document. Used for the tracker's first paint.
+app.get("/dashboard", authenticateUser, async (req, res) => {
+  try {
+    const { month, year, history } = req.query;
+    const currentDate = new Date();
+    const targetMonth = month ? parseInt(month) : currentDate.getMonth() + 1;
+    const targetYear = year ? parseInt(year) : currentDate.getFullYear();
+    const historyMonths = history ? parseInt(history) || 0 : 0;
+    const { start, end } = monthRange(targetYear, targetMonth);
+    // An out-of-range month has no expenses and no budget, rather than another month's expenses under its label
+    const validMonth = isValidMonth(targetYear, targetMonth);
+
+    const projection = {
+      expenses: {
+        $filter: {
+          input: "$expenses",
+          cond: validMonth
+            ? {
+                $and: [
+                  { $gte: ["$$this.date", start] },
+                  { $lt: ["$$this.date", end] },
+                ],
+              }
+            : false,
+        },
+      },
+      budget: {
+        $filter: {
+          input: "$monthlyBudgets",
+          cond: validMonth
+            ? {
+                $and: [
+                  { $eq: ["$$this.year", targetYear] },
+                  { $eq: ["$$this.month", targetMonth] },
+                ],
+              }
+            : false,
+        },
+      },
+    };
+    if (historyMonths > 0) {
+      // The history needs every budget and the amount and date of every expense
+      projection.monthlyBudgets = 1;
+      projection.history = {
+        $map: {
+          input: "$expenses",
+          in: { amount: "$$this.amount", date: "$$this.date" },
+        },
+      };
+    }
+
+    const [user] = await User.aggregate([
+      { $match: { _id: new mongoose.Types.ObjectId(String(req.user.id)) } },
+      { $project: projection },
+    ]);
+    if (!user) {
+      return res.status(404).json({ error: "User not found" });
+    }
+
+    const body = {
+      month: targetMonth,
+      year: targetYear,
+      expenses: user.expenses,
+      budget: user.budget && user.budget.length > 0 ? user.budget[0].amount : 0,
+      summary: categorySummary(user.expenses),
+    };
+    if (historyMonths > 0) {
+      body.history = budgetHistory(
+        { monthlyBudgets: user.monthlyBudgets, expenses: user.history },
+        historyMonths
+      );
+    }
+    res.status(200).json(body);
+  } catch (error) {
+    console.error("Error fetching dashboard:", error);
+    res.status(500).json({ error: "Failed to fetch dashboard." });
+  }
+});
+
+// Delete every user a test run registered, in one operation
+app.delete("/admin/test-runs/:testRun", authenticateAdmin, async (req, res) => {
+  try {
+    const result = await User.deleteMany({ testRun: req.params.testRun });
+    res.status(200).json({
+      message: "Test users deleted.",
+      testRun: req.params.testRun,
+      deleted: result.deletedCount,
+    });
+  } catch (error) {
+    console.error("Error deleting test users:", error);
+    res.status(500).json({ error: "Failed to delete test users." });
+  }
+});
+
 // Logout Route
 app.post("/logout", (req, res) => {
   res.clearCookie("authToken"); // Clear the authentication token
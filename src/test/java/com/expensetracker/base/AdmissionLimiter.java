@@ -0,0 +1,178 @@
+package com.expensetracker.base;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Admission control for InMemoryExpenseServer, mirroring admission.js
+ * At most maxInFlight authenticated requests run at once; others wait in a short queue, per user
+ * and admitted round-robin, and are shed once the queue is full or their wait times out.
+ */
+class AdmissionLimiter {
+
+    private final int maxInFlight;
+    private final int maxQueue;
+    private final int maxQueuePerUser;
+    private final long queueTimeoutNanos;
+    private final int retryAfterSeconds;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    // User key -> waiting requests; insertion order gives the round-robin order
+    private final Map<String, Deque<Waiter>> queues = new LinkedHashMap<>();
+    private final Map<String, Long> rejected = new LinkedHashMap<>();
+    private int inFlight;
+    private int queued;
+
+    /**
+     * Configured like server.js, from the same names as system properties:
+     * -Dadmission.maxInFlight, -Dadmission.maxQueue, -Dadmission.maxQueuePerUser, -Dadmission.queueTimeoutMs
+     */
+    static AdmissionLimiter fromSystemProperties() {
+        return new AdmissionLimiter(Integer.getInteger("admission.maxInFlight", 32),
+                Integer.getInteger("admission.maxQueue", 64),
+                Integer.getInteger("admission.maxQueuePerUser", 8),
+                Long.getLong("admission.queueTimeoutMs", 2000), 1);
+    }
+
+    AdmissionLimiter(int maxInFlight, int maxQueue, int maxQueuePerUser, long queueTimeoutMs, int retryAfterSeconds) {
+        this.maxInFlight = maxInFlight;
+        this.maxQueue = maxQueue;
+        this.maxQueuePerUser = maxQueuePerUser;
+        this.queueTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(queueTimeoutMs);
+        this.retryAfterSeconds = retryAfterSeconds;
+        rejected.put("queue_full", 0L);
+        rejected.put("user_queue_full", 0L);
+        rejected.put("queue_timeout", 0L);
+    }
+
+    int retryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    /**
+     * Wait for a slot
+     * @param key User the request belongs to
+     * @return true once admitted - the caller must then call release() - or false if the request was shed
+     */
+    boolean acquire(String key) {
+        lock.lock();
+        try {
+            if (inFlight < maxInFlight && queued == 0) {
+                inFlight++;
+                return true;
+            }
+            if (queued >= maxQueue) {
+                return reject("queue_full");
+            }
+            Deque<Waiter> queue = queues.get(key);
+            if (queue != null && queue.size() >= maxQueuePerUser) {
+                return reject("user_queue_full");
+            }
+            Waiter waiter = new Waiter(lock.newCondition());
+            queues.computeIfAbsent(key, k -> new ArrayDeque<>()).add(waiter);
+            queued++;
+
+            long remaining = queueTimeoutNanos;
+            try {
+                while (!waiter.admitted) {
+                    if (remaining <= 0) {
+                        remove(key, waiter);
+                        return reject("queue_timeout");
+                    }
+                    remaining = waiter.ready.awaitNanos(remaining);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                if (waiter.admitted) {
+                    release();
+                } else {
+                    remove(key, waiter);
+                }
+                return false;
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void release() {
+        lock.lock();
+        try {
+            inFlight--;
+            admitNext();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Prometheus lines, same names as admission.js
+     */
+    String render() {
+        lock.lock();
+        try {
+            StringBuilder out = new StringBuilder();
+            out.append("# HELP admission_in_flight Authenticated requests currently running\n");
+            out.append("# TYPE admission_in_flight gauge\n");
+            out.append("admission_in_flight ").append(inFlight).append('\n');
+            out.append("# HELP admission_queued Authenticated requests waiting for a slot\n");
+            out.append("# TYPE admission_queued gauge\n");
+            out.append("admission_queued ").append(queued).append('\n');
+            out.append("# HELP admission_rejected_total Requests shed with 503, by reason\n");
+            out.append("# TYPE admission_rejected_total counter\n");
+            rejected.forEach((reason, count) ->
+                    out.append("admission_rejected_total{reason=\"").append(reason).append("\"} ").append(count).append('\n'));
+            return out.toString();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Head of the next user's queue; that user moves to the back of the rotation
+    private void admitNext() {
+        while (inFlight < maxInFlight && !queues.isEmpty()) {
+            Iterator<Map.Entry<String, Deque<Waiter>>> next = queues.entrySet().iterator();
+            Map.Entry<String, Deque<Waiter>> entry = next.next();
+            next.remove();
+            Waiter waiter = entry.getValue().poll();
+            if (!entry.getValue().isEmpty()) {
+                queues.put(entry.getKey(), entry.getValue());
+            }
+            queued--;
+            inFlight++;
+            waiter.admitted = true;
+            waiter.ready.signal();
+        }
+    }
+
+    private void remove(String key, Waiter waiter) {
+        Deque<Waiter> queue = queues.get(key);
+        if (queue != null && queue.remove(waiter)) {
+            queued--;
+            if (queue.isEmpty()) {
+                queues.remove(key);
+            }
+        }
+    }
+
+    private boolean reject(String reason) {
+        rejected.merge(reason, 1L, Long::sum);
+        return false;
+    }
+
+    private static final class Waiter {
+        private final Condition ready;
+        private boolean admitted;
+
+        Waiter(Condition ready) {
+            this.ready = ready;
+        }
+    }
+}
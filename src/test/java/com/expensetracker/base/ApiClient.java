@@ -0,0 +1,220 @@
+package com.expensetracker.base;
+
+import org.openqa.selenium.json.Json;
+
+import java.io.IOException;
+import java.net.CookieManager;
+import java.net.CookiePolicy;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Plain HTTP client for the Expense Tracker JSON API
+ * Keeps the authToken cookie between calls, like the browser does after login
+ */
+public class ApiClient {
+    
+    private static final Json JSON = new Json();
+    
+    // Header server.js tags registered users with, see TestConfig.TEST_RUN
+    public static final String TEST_RUN_HEADER = "X-Test-Run";
+    
+    private final String baseUrl;
+    private final HttpClient http;
+    private String testRun = TestConfig.TEST_RUN;
+    
+    public ApiClient(String baseUrl) {
+        this(baseUrl, HttpClient.newBuilder());
+    }
+    
+    /**
+     * @param baseUrl Application URL, e.g. http://localhost:3000
+     * @param builder Pre-configured builder (executor, version, ...); cookies and timeouts are added here
+     */
+    public ApiClient(String baseUrl, HttpClient.Builder builder) {
+        this.baseUrl = baseUrl;
+        this.http = builder
+                .cookieHandler(new CookieManager(null, CookiePolicy.ACCEPT_ALL))
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+    
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+    
+    /**
+     * Tag users registered through this client with another test run, or with none (null)
+     */
+    public void setTestRun(String testRun) {
+        this.testRun = testRun;
+    }
+    
+    public ApiResponse register(String name, String email, String password) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("name", name);
+        body.put("email", email);
+        body.put("password", password);
+        return post("/register", body);
+    }
+    
+    public ApiResponse login(String email, String password) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("email", email);
+        body.put("password", password);
+        return post("/login", body);
+    }
+    
+    /**
+     * Add an expense the same way the tracker form does
+     * @param date Date in YYYY-MM-DD format, or null for "now"
+     */
+    public ApiResponse addExpense(String description, Object amount, String type, String date) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("description", description);
+        body.put("amount", amount);
+        body.put("type", type);
+        if (date != null) {
+            body.put("date", date);
+        }
+        return post("/add-expense", body);
+    }
+    
+    public ApiResponse setBudget(Object budget, int month, int year) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("budget", budget);
+        body.put("month", month);
+        body.put("year", year);
+        return post("/set-budget", body);
+    }
+    
+    public ApiResponse get(String path) {
+        return send(HttpRequest.newBuilder(uri(path)).GET());
+    }
+    
+    public ApiResponse post(String path, Map<String, Object> body) {
+        return send(HttpRequest.newBuilder(uri(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(JSON.toJson(body))));
+    }
+    
+    public ApiResponse delete(String path) {
+        return send(HttpRequest.newBuilder(uri(path)).DELETE());
+    }
+    
+    /**
+     * Delete every user registered with a test run tag (admin route)
+     * @param adminToken The server's ADMIN_TOKEN
+     */
+    public ApiResponse deleteTestRun(String testRun, String adminToken) {
+        return send(HttpRequest.newBuilder(uri("/admin/test-runs/" + testRun))
+                .header("Authorization", "Bearer " + adminToken)
+                .DELETE());
+    }
+    
+    /**
+     * Scrape the server's metrics (admin route)
+     * @param adminToken The server's ADMIN_TOKEN
+     */
+    public ApiResponse metrics(String adminToken) {
+        return send(HttpRequest.newBuilder(uri("/metrics"))
+                .header("Authorization", "Bearer " + adminToken)
+                .GET());
+    }
+    
+    private URI uri(String path) {
+        return URI.create(baseUrl + path);
+    }
+    
+    private ApiResponse send(HttpRequest.Builder request) {
+        if (testRun != null) {
+            request.header(TEST_RUN_HEADER, testRun);
+        }
+        long start = System.nanoTime();
+        try {
+            HttpResponse<String> response = http.send(
+                    request.timeout(Duration.ofSeconds(30)).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            return new ApiResponse(response.statusCode(), response.body(),
+                    response.headers().map(), System.nanoTime() - start);
+        } catch (IOException e) {
+            throw new IllegalStateException("Request to " + baseUrl + " failed: " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Request interrupted", e);
+        }
+    }
+    
+    /**
+     * Status, body and timing of a single API call
+     */
+    public static class ApiResponse {
+        
+        private final int status;
+        private final String body;
+        private final Map<String, List<String>> headers;
+        private final long elapsedNanos;
+        private Map<String, Object> json;
+        
+        ApiResponse(int status, String body, Map<String, List<String>> headers, long elapsedNanos) {
+            this.status = status;
+            this.body = body;
+            this.headers = headers;
+            this.elapsedNanos = elapsedNanos;
+        }
+        
+        public int status() {
+            return status;
+        }
+        
+        public String body() {
+            return body;
+        }
+        
+        public long elapsedNanos() {
+            return elapsedNanos;
+        }
+        
+        /**
+         * @return First value of a response header, or null if absent
+         */
+        public String header(String name) {
+            for (Map.Entry<String, List<String>> entry : headers.entrySet()) {
+                if (entry.getKey().equalsIgnoreCase(name) && !entry.getValue().isEmpty()) {
+                    return entry.getValue().get(0);
+                }
+            }
+            return null;
+        }
+        
+        /**
+         * @return Body parsed as a JSON object (numbers come back as Long or Double)
+         */
+        public Map<String, Object> json() {
+            if (json == null) {
+                json = JSON.toType(body, Json.MAP_TYPE);
+            }
+            return json;
+        }
+        
+        @SuppressWarnings("unchecked")
+        public List<Map<String, Object>> jsonList(String field) {
+            return (List<Map<String, Object>>) json().get(field);
+        }
+        
+        public double number(String field) {
+            return ((Number) json().get(field)).doubleValue();
+        }
+        
+        @Override
+        public String toString() {
+            return status + " " + body;
+        }
+    }
+}
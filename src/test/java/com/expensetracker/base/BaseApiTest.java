@@ -0,0 +1,289 @@
+package com.expensetracker.base;
+
+import com.aventstack.extentreports.Status;
+import org.testng.SkipException;
+import org.testng.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Base Class for tests that talk to the application without a browser
+ * Handles the application URL and reporting; BaseTest adds the WebDriver on top
+ */
+@Listeners(PerformanceRecorder.class)
+public class BaseApiTest {
+    
+    // Shared by all test classes; written to disk as the run goes, see StreamingReport
+    protected static StreamingReport extent;
+    
+    // Per test class instance, so classes running on different threads don't overwrite each other's entry
+    protected ReportTest test;
+    
+    // Application URL - per fork in sharded runs, see TestConfig
+    protected static final String BASE_URL = TestConfig.BASE_URL;
+    
+    // Backend under test - "node", "managed" or "inmemory", see TestConfig
+    protected static final String BACKEND = TestConfig.BACKEND;
+    
+    private static InMemoryExpenseServer inMemoryServer;
+    private static NodeServerProcess nodeServer;
+    private static TestEnvironment environment;
+    
+    // Server metrics when the suite started, so the trend only counts this run's requests
+    private static ServerMetrics metricsAtStart;
+    
+    // Why server.js can't be checked in this run, "" when it can; null until first asked
+    private static String nodeServerUnavailable;
+    
+    @BeforeSuite
+    public void setupReport() throws IOException {
+        extent = new StreamingReport(Paths.get(TestConfig.REPORT_STREAM_PATH), TestConfig.REPORT_QUEUE_SIZE);
+        extent.setSystemInfo("Application", "Expense Tracker");
+        extent.setSystemInfo("Environment", "Test");
+        extent.setSystemInfo("Browser", System.getProperty("browser", "chrome"));
+        extent.setSystemInfo("OS", System.getProperty("os.name"));
+        extent.setSystemInfo("Tester", "SE - Web Technology Team");
+    }
+    
+    // After setupReport, so a managed environment can log into the report
+    @BeforeSuite(dependsOnMethods = "setupReport")
+    public void startBackend() throws IOException {
+        // Browser drivers etc. resolve while the backend comes up
+        CompletableFuture<Void> warmUp = CompletableFuture.runAsync(this::warmUp);
+        try {
+            startServer();
+        } finally {
+            warmUp.join();
+        }
+        metricsAtStart = scrapeMetrics();
+    }
+    
+    /**
+     * Suite-wide preparation that can run in parallel with backend startup
+     * Nothing for API tests; BaseTest resolves the browser driver.
+     */
+    protected void warmUp() {
+    }
+    
+    private void startServer() throws IOException {
+        if (TestConfig.isManaged()) {
+            environment = new TestEnvironment(URI.create(BASE_URL).getPort(),
+                    extent.createTest("Test Environment", "mongod and server.js started for this run"));
+            long start = System.nanoTime();
+            environment.start(TestConfig.READY_TIMEOUT);
+            System.out.println("✓ Managed backend ready at " + BASE_URL + " in "
+                    + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + "ms");
+        }
+        else if (BACKEND.equalsIgnoreCase("inmemory")) {
+            inMemoryServer = new InMemoryExpenseServer();
+            inMemoryServer.start(URI.create(BASE_URL).getPort());
+            System.out.println("✓ In-memory backend started at " + BASE_URL);
+        }
+        else if (TestConfig.isSharded()) {
+            // Each fork gets its own server.js and database; unsharded runs use the one started by hand
+            String mongoUri = System.getProperty("mongo.uri", "mongodb://127.0.0.1:27017") + "/" + TestConfig.DATABASE_NAME;
+            nodeServer = new NodeServerProcess(URI.create(BASE_URL).getPort(), mongoUri,
+                    new File("test-output/server-fork" + TestConfig.FORK_NUMBER + ".log"));
+            nodeServer.start(Duration.ofSeconds(30));
+            System.out.println("✓ server.js started at " + BASE_URL + " on database " + TestConfig.DATABASE_NAME);
+        }
+    }
+    
+    /**
+     * Append this run's test, step and server timings to the trend history and report how they
+     * compare with earlier runs of the suite, see PerformanceTrend
+     * Shards skip this; their coordinator records the run. -Dtrend.failOnRegression=true fails the
+     * suite when a regression is found.
+     */
+    @AfterSuite
+    public void recordPerformanceTrend() throws IOException {
+        if (TestConfig.isSharded() || extent == null) {
+            return;
+        }
+        Map<String, Double> metrics = new LinkedHashMap<>();
+        metrics.put("suite wall time", (double) PerformanceRecorder.suiteMillis());
+        metrics.putAll(PerformanceRecorder.meanMillis());
+        metrics.putAll(serverLatency(metricsAtStart, scrapeMetrics()));
+        
+        String suite = PerformanceRecorder.getSuiteName();
+        String commit = null;
+        try {
+            commit = TestImpactSelector.git("rev-parse", "--short", "HEAD");
+        } catch (IOException e) {
+            // Not a git checkout; the run is stored without a commit
+        }
+        PerformanceTrend trend = new PerformanceTrend(Paths.get(System.getProperty("trend.file",
+                PerformanceTrend.DEFAULT_FILE.toString())));
+        List<PerformanceTrend.Run> history = trend.history(suite);
+        PerformanceTrend.Run run = new PerformanceTrend.Run(System.currentTimeMillis(),
+                commit == null ? null : commit.trim(), suite, metrics);
+        List<PerformanceTrend.Regression> regressions = trend.regressions(run, history);
+        trend.append(run);
+        
+        ReportTest report = extent.createTest("Performance Trend",
+                metrics.size() + " timings of this run against the last " + trend.getWindow() + " runs of " + suite);
+        report.log(Status.INFO, trend.chart("suite wall time", history, run));
+        if (history.size() < trend.getMinRuns()) {
+            report.log(Status.INFO, "Baseline has " + history.size() + " of " + trend.getMinRuns()
+                    + " runs needed before regressions are flagged");
+        }
+        for (PerformanceTrend.Regression regression : regressions) {
+            System.out.println("⚠ Performance regression " + regression);
+            report.log(Status.WARNING, regression + "<br>" + trend.chart(regression.getMetric(), history, run));
+        }
+        if (regressions.isEmpty()) {
+            report.log(Status.PASS, "No timing regressed against the baseline");
+        }
+        System.out.println("✓ Performance trend appended to " + trend.getFile() + ", " + regressions.size() + " regressions");
+        if (!regressions.isEmpty() && Boolean.getBoolean("trend.failOnRegression")) {
+            throw new IllegalStateException(regressions.size() + " timings regressed: " + regressions);
+        }
+    }
+    
+    // Null if the server has no /metrics endpoint or can't be reached
+    private ServerMetrics scrapeMetrics() {
+        try {
+            return ServerMetrics.scrape(newApiClient());
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+    
+    /**
+     * Mean server-side latency per route over the requests made between the two scrapes
+     */
+    private static Map<String, Double> serverLatency(ServerMetrics before, ServerMetrics after) {
+        Map<String, Double> latency = new LinkedHashMap<>();
+        if (before == null || after == null) {
+            return latency;
+        }
+        List<String> series = new ArrayList<>();
+        for (String method : after.labelValues("http_request_duration_seconds_count", "method")) {
+            for (String route : after.labelValues("http_request_duration_seconds_count", "route")) {
+                series.add(method + " " + route);
+            }
+        }
+        for (String name : series) {
+            String[] labels = {"method", name.substring(0, name.indexOf(' ')), "route", name.substring(name.indexOf(' ') + 1)};
+            double count = after.value("http_request_duration_seconds_count", labels)
+                    - before.value("http_request_duration_seconds_count", labels);
+            if (count > 0) {
+                double seconds = after.value("http_request_duration_seconds_sum", labels)
+                        - before.value("http_request_duration_seconds_sum", labels);
+                latency.put(String.format(Locale.ROOT, "server %s mean", name), seconds * 1000 / count);
+            }
+        }
+        return latency;
+    }
+    
+    /**
+     * Delete the users this run registered (tagged with TestConfig.TEST_RUN) through the admin route
+     * Users the server can't be asked to delete, e.g. when it was started without the same ADMIN_TOKEN,
+     * expire on their own. -Dkeep.testUsers=true keeps them for debugging.
+     */
+    // After the trend, so the admin request isn't counted in this run's server latency
+    @AfterSuite(dependsOnMethods = "recordPerformanceTrend", alwaysRun = true)
+    public void purgeTestUsers() {
+        if (Boolean.getBoolean("keep.testUsers")) {
+            System.out.println("Keeping the users of test run " + TestConfig.TEST_RUN);
+            return;
+        }
+        if (!TestConfig.serverKnowsAdminToken()) {
+            System.out.println("No ADMIN_TOKEN given - users of test run " + TestConfig.TEST_RUN + " are left to expire");
+            return;
+        }
+        try {
+            ApiClient.ApiResponse response = newApiClient().deleteTestRun(TestConfig.TEST_RUN, TestConfig.ADMIN_TOKEN);
+            if (response.status() == 200) {
+                System.out.println("✓ Deleted " + response.json().get("deleted") + " users of test run " + TestConfig.TEST_RUN);
+            } else {
+                System.out.println("Could not delete users of test run " + TestConfig.TEST_RUN + ": " + response);
+            }
+        } catch (IllegalStateException e) {
+            System.out.println("Could not delete users of test run " + TestConfig.TEST_RUN + ": " + e.getMessage());
+        }
+    }
+    
+    // After the trend, which still scrapes the server, and the purge; also when either failed
+    @AfterSuite(dependsOnMethods = {"recordPerformanceTrend", "purgeTestUsers"}, alwaysRun = true)
+    public void stopBackend() {
+        if (environment != null) {
+            environment.stop();
+            environment = null;
+            System.out.println("✓ Managed backend stopped");
+        }
+        if (inMemoryServer != null) {
+            inMemoryServer.stop();
+            inMemoryServer = null;
+            System.out.println("✓ In-memory backend stopped");
+        }
+        if (nodeServer != null) {
+            nodeServer.stop();
+            nodeServer = null;
+            System.out.println("✓ server.js stopped");
+        }
+    }
+    
+    // After stopBackend, so the managed processes' last log lines make it into the report
+    @AfterSuite(dependsOnMethods = "stopBackend", alwaysRun = true)
+    public void tearDownReport() throws IOException {
+        if (extent != null) {
+            extent.close();
+            StreamingReport.render(extent.getStreamFile(), TestConfig.REPORT_PATH);
+            extent = null;
+            System.out.println("✓ Test report generated successfully");
+            System.out.println("Report location: " + TestConfig.REPORT_PATH);
+        }
+    }
+    
+    /**
+     * Skip the calling check unless BASE_URL is server.js and ready
+     * Tests comparing server.js with the in-memory stand-in call this for their "node" rows: under
+     * -Dbackend=inmemory BASE_URL is the stand-in itself, and must not be reported as server.js.
+     */
+    protected static void requireNodeServer() {
+        String reason = nodeServerUnavailable();
+        if (!reason.isEmpty()) {
+            throw new SkipException(reason);
+        }
+    }
+    
+    private static synchronized String nodeServerUnavailable() {
+        if (nodeServerUnavailable == null) {
+            if (!TestConfig.isNodeBackend()) {
+                nodeServerUnavailable = "server.js is not under test: -Dbackend=" + BACKEND + " serves " + BASE_URL;
+            } else {
+                try {
+                    ApiClient.ApiResponse ready = new ApiClient(BASE_URL).get("/readyz");
+                    nodeServerUnavailable = ready.status() == 200 ? "" : "server.js is not ready at " + BASE_URL + ": " + ready;
+                } catch (IllegalStateException e) {
+                    nodeServerUnavailable = "server.js is not running at " + BASE_URL;
+                }
+            }
+            if (!nodeServerUnavailable.isEmpty()) {
+                System.out.println(nodeServerUnavailable + " - server.js checks will be skipped");
+            }
+        }
+        return nodeServerUnavailable;
+    }
+    
+    /**
+     * Create an API client bound to the application URL
+     * Each client keeps its own cookies, so it behaves like a separate user session
+     * @return New API client
+     */
+    protected ApiClient newApiClient() {
+        return new ApiClient(BASE_URL);
+    }
+}
@@ -1,50 +1,161 @@
 package com.expensetracker.base;
 
 import io.github.bonigarcia.wdm.WebDriverManager;
+import org.openqa.selenium.Capabilities;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.chrome.ChromeDriver;
 import org.openqa.selenium.chrome.ChromeOptions;
 import org.openqa.selenium.firefox.FirefoxDriver;
 import org.openqa.selenium.firefox.FirefoxOptions;
+import org.openqa.selenium.json.Json;
+import org.openqa.selenium.logging.LogEntry;
+import org.openqa.selenium.logging.LogType;
+import org.openqa.selenium.remote.Augmenter;
+import org.openqa.selenium.remote.RemoteWebDriver;
+import org.testng.ITestResult;
 import org.testng.annotations.*;
-import com.aventstack.extentreports.ExtentReports;
-import com.aventstack.extentreports.ExtentTest;
-import com.aventstack.extentreports.reporter.ExtentSparkReporter;
-import com.aventstack.extentreports.reporter.configuration.Theme;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URL;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Base Test Class for Selenium WebDriver Tests
- * Handles browser initialization, configuration, and reporting
+ * Handles browser initialization and configuration; reporting comes from BaseApiTest
  */
-public class BaseTest {
+public class BaseTest extends BaseApiTest {
     
     protected WebDriver driver;
-    protected static ExtentReports extent;
-    protected static ExtentTest test;
     
-    // Application URL
-    protected static final String BASE_URL = "http://localhost:3000";
+    // In-flight request tracking over Chrome DevTools; null on browsers without CDP
+    protected NetworkMonitor network;
     
     // Browser configuration - Change this to switch browsers
     // Options: "chrome", "firefox"
     protected String browser = System.getProperty("browser", "chrome");
     
+    // Test impact recording (-Dimpact=record): which files and routes each test touches
+    private static final boolean RECORD_IMPACT = "record".equalsIgnoreCase(System.getProperty("impact"));
+    private static TestImpactMap impactMap;
+    private static List<TestImpactMap.Route> serverRoutes;
+    
+    // API traffic recording (-Dtraffic=record): one replayable scenario per test, see TrafficRecorder
+    private static final boolean RECORD_TRAFFIC = "record".equalsIgnoreCase(System.getProperty("traffic"));
+    private static final Path SCENARIO_DIR = Paths.get("test-output", "scenarios");
+    private TrafficRecorder traffic;
+    
+    // Network/CPU conditions for the whole run (-Demulation=slow-3g), see EmulationProfile
+    private static final EmulationProfile EMULATION = EmulationProfile.fromName(System.getProperty("emulation", "none"));
+    
+    // Selenium Grid sessions are created on (-Dgrid), null for local drivers; see TestConfig.GRID
+    private static volatile URL gridUrl;
+    private static LocalGrid localGrid;
+    
+    private static final Duration NETWORK_QUIET_PERIOD = Duration.ofMillis(500);
+    private static final Duration NETWORK_TIMEOUT = Duration.ofSeconds(30);
+    
+    /**
+     * Resolve (and if needed download) the driver for -Dbrowser while the backend starts,
+     * so the first test doesn't pay for it; suites mixing browsers resolve the others in setup()
+     */
+    @Override
+    protected void warmUp() {
+        if (!TestConfig.GRID.isEmpty()) {
+            startGrid();
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            if (browser.equalsIgnoreCase("chrome")) {
+                WebDriverManager.chromedriver().setup();
+            } else if (browser.equalsIgnoreCase("firefox")) {
+                WebDriverManager.firefoxdriver().setup();
+            } else {
+                return;
+            }
+            System.out.println("✓ " + browser + " driver resolved in "
+                    + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + "ms");
+        } catch (RuntimeException e) {
+            // setup() retries for each test and fails there with the real error
+            System.out.println("Could not resolve " + browser + " driver during warm-up: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Use the grid given by -Dgrid, starting it in this JVM for -Dgrid=local
+     * A local grid drives both browsers, so both drivers are resolved first; if that fails the node
+     * looks for the driver itself (PATH, Selenium Manager) when the first session of that browser starts.
+     */
+    private static void startGrid() {
+        try {
+            if (!TestConfig.isLocalGrid()) {
+                gridUrl = URI.create(TestConfig.GRID).toURL();
+                System.out.println("✓ Using Selenium Grid at " + gridUrl);
+                return;
+            }
+            resolveDriver("chrome");
+            resolveDriver("firefox");
+            Map<String, Integer> slots = new LinkedHashMap<>();
+            slots.put("chrome", TestConfig.GRID_CHROME_SLOTS);
+            slots.put("firefox", TestConfig.GRID_FIREFOX_SLOTS);
+            long start = System.nanoTime();
+            localGrid = new LocalGrid(TestConfig.freePort(), slots);
+            gridUrl = localGrid.start(Duration.ofSeconds(60));
+            System.out.println("✓ Local Selenium Grid at " + gridUrl + " with slots " + slots + " in "
+                    + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + "ms");
+        } catch (IOException e) {
+            throw new UncheckedIOException("Selenium Grid not available: " + e.getMessage(), e);
+        }
+    }
+    
+    private static void resolveDriver(String browserName) {
+        try {
+            if (browserName.equals("chrome")) {
+                WebDriverManager.chromedriver().setup();
+            } else {
+                WebDriverManager.firefoxdriver().setup();
+            }
+        } catch (RuntimeException e) {
+            System.out.println("Could not resolve " + browserName + " driver for the grid: " + e.getMessage());
+        }
+    }
+    
+    @AfterSuite
+    public void stopGrid() {
+        if (localGrid != null) {
+            localGrid.stop();
+            localGrid = null;
+            System.out.println("✓ Local Selenium Grid stopped");
+        }
+        gridUrl = null;
+    }
+    
+    /**
+     * Wait until the server reports ready (MongoDB connected, indexes built) before any browser opens
+     * Runs after BaseApiTest has started the backend, if this JVM starts one.
+     */
     @BeforeSuite
-    public void setupReport() {
-        ExtentSparkReporter sparkReporter = new ExtentSparkReporter("test-output/ExtentReport.html");
-        sparkReporter.config().setTheme(Theme.STANDARD);
-        sparkReporter.config().setDocumentTitle("Expense Tracker Test Report");
-        sparkReporter.config().setReportName("Selenium Automation Test Results");
-        
-        extent = new ExtentReports();
-        extent.attachReporter(sparkReporter);
-        extent.setSystemInfo("Application", "Expense Tracker");
-        extent.setSystemInfo("Environment", "Test");
-        extent.setSystemInfo("Browser", browser);
-        extent.setSystemInfo("OS", System.getProperty("os.name"));
-        extent.setSystemInfo("Tester", "SE - Web Technology Team");
+    public void waitForServerReady() {
+        Duration waited = new ReadinessProbe(BASE_URL).await(TestConfig.READY_TIMEOUT, TestConfig.READY_POLL_INTERVAL);
+        System.out.println("✓ Server ready at " + BASE_URL + " after " + waited.toMillis() + "ms");
+    }
+    
+    // -Demulation applies to every UI test, so it is reported once for the run rather than per test
+    @BeforeSuite(dependsOnMethods = "setupReport")
+    public void reportEmulation() {
+        extent.setSystemInfo("Emulation", EMULATION.toString());
     }
     
     @BeforeMethod
@@ -54,21 +165,33 @@ public class BaseTest {
         
         // Initialize WebDriver based on browser parameter
         if (browser.equalsIgnoreCase("chrome")) {
-            WebDriverManager.chromedriver().setup();
             ChromeOptions options = new ChromeOptions();
             options.addArguments("--start-maximized");
             options.addArguments("--disable-notifications");
             options.addArguments("--remote-allow-origins=*");
-            driver = new ChromeDriver(options);
-            System.out.println("✓ Chrome Driver initialized successfully");
+            if (RECORD_IMPACT) {
+                // Network events end up in the performance log, read back in tearDown
+                options.setCapability("goog:loggingPrefs", Collections.singletonMap(LogType.PERFORMANCE, "ALL"));
+            }
+            if (gridUrl == null) {
+                WebDriverManager.chromedriver().setup();
+                driver = new ChromeDriver(options);
+            } else {
+                driver = remoteDriver(options);
+            }
+            System.out.println("✓ Chrome Driver initialized successfully" + (gridUrl == null ? "" : " on " + gridUrl));
         } 
         else if (browser.equalsIgnoreCase("firefox")) {
-            WebDriverManager.firefoxdriver().setup();
             FirefoxOptions options = new FirefoxOptions();
             options.addArguments("--width=1920");
             options.addArguments("--height=1080");
-            driver = new FirefoxDriver(options);
-            System.out.println("✓ Firefox Driver initialized successfully");
+            if (gridUrl == null) {
+                WebDriverManager.firefoxdriver().setup();
+                driver = new FirefoxDriver(options);
+            } else {
+                driver = remoteDriver(options);
+            }
+            System.out.println("✓ Firefox Driver initialized successfully" + (gridUrl == null ? "" : " on " + gridUrl));
         } 
         else {
             throw new IllegalArgumentException("Browser not supported: " + browser);
@@ -78,23 +201,106 @@ public class BaseTest {
         driver.manage().timeouts().implicitlyWait(Duration.ofSeconds(10));
         driver.manage().timeouts().pageLoadTimeout(Duration.ofSeconds(30));
         
+        if (NetworkMonitor.isSupported(driver)) {
+            network = NetworkMonitor.attach(driver);
+            // Users registered through the UI are tagged like API ones; Firefox has no way to add the header
+            network.setExtraHeaders(Collections.singletonMap(ApiClient.TEST_RUN_HEADER, TestConfig.TEST_RUN));
+            if (EMULATION != EmulationProfile.NONE) {
+                network.emulate(EMULATION);
+            }
+            if (RECORD_TRAFFIC) {
+                traffic = TrafficRecorder.attach(driver, BASE_URL);
+            }
+        }
+        
         System.out.println("✓ Navigating to: " + BASE_URL);
     }
     
+    /**
+     * Open a grid session; augmented so Chrome sessions still offer DevTools (NetworkMonitor, PageMetrics)
+     * through the grid's CDP proxy
+     */
+    private static WebDriver remoteDriver(Capabilities options) {
+        return new Augmenter().augment(new RemoteWebDriver(gridUrl, options));
+    }
+    
     @AfterMethod
-    public void tearDown() {
+    public void tearDown(ITestResult result) {
+        if (traffic != null) {
+            saveScenario(result);
+            traffic = null;
+        }
+        if (network != null) {
+            network.close();
+            network = null;
+        }
         if (driver != null) {
+            if (RECORD_IMPACT) {
+                recordImpact(result);
+            }
             driver.quit();
             System.out.println("✓ Browser closed successfully");
         }
     }
     
     @AfterSuite
-    public void tearDownReport() {
-        if (extent != null) {
-            extent.flush();
-            System.out.println("✓ Test report generated successfully");
-            System.out.println("Report location: test-output/ExtentReport.html");
+    public void saveImpactMap() throws IOException {
+        if (impactMap != null) {
+            impactMap.setCommit(TestImpactSelector.git("rev-parse", "HEAD").trim());
+            impactMap.save(TestImpactMap.DEFAULT_FILE);
+            System.out.println("✓ Test impact map saved to " + TestImpactMap.DEFAULT_FILE);
+        }
+    }
+    
+    /**
+     * Write the API calls of this test as test-output/scenarios/Class.method.json, for ScenarioReplayTest
+     */
+    private void saveScenario(ITestResult result) {
+        String name = result.getTestClass().getRealClass().getSimpleName() + "." + result.getMethod().getMethodName();
+        try {
+            Scenario scenario = traffic.toScenario(name);
+            if (scenario.getSteps().isEmpty()) {
+                return;
+            }
+            Path file = SCENARIO_DIR.resolve(name + ".json");
+            scenario.save(file);
+            System.out.println("✓ " + scenario.getSteps().size() + " API calls recorded to " + file);
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Could not record traffic of " + name + ": " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Store every URL the browser requested during this test in the impact map
+     * Only Chrome exposes network events through the performance log; other browsers are skipped.
+     */
+    @SuppressWarnings("unchecked")
+    private void recordImpact(ITestResult result) {
+        if (!browser.equalsIgnoreCase("chrome")) {
+            return;
+        }
+        try {
+            synchronized (BaseTest.class) {
+                if (impactMap == null) {
+                    impactMap = TestImpactMap.load(TestImpactMap.DEFAULT_FILE);
+                    serverRoutes = TestImpactMap.readRoutes(Paths.get(TestImpactMap.SERVER_FILE));
+                }
+            }
+            Json json = new Json();
+            Set<String> urls = new LinkedHashSet<>();
+            for (LogEntry entry : driver.manage().logs().get(LogType.PERFORMANCE)) {
+                Map<String, Object> log = json.toType(entry.getMessage(), Json.MAP_TYPE);
+                Map<String, Object> message = (Map<String, Object>) log.get("message");
+                if ("Network.requestWillBeSent".equals(message.get("method"))) {
+                    Map<String, Object> params = (Map<String, Object>) message.get("params");
+                    Map<String, Object> request = (Map<String, Object>) params.get("request");
+                    urls.add(request.get("method") + " " + request.get("url"));
+                }
+            }
+            String testId = result.getTestClass().getRealClass().getName() + "#" + result.getMethod().getMethodName();
+            impactMap.record(testId, urls, serverRoutes);
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Could not record test impact: " + e.getMessage());
         }
     }
     
@@ -119,6 +325,54 @@ public class BaseTest {
         }
     }
     
+    /**
+     * Wait until the browser has had no request in flight for a short quiet period
+     * Falls back to a fixed wait on browsers without DevTools.
+     */
+    protected void waitForNetworkIdle() {
+        if (network == null) {
+            waitFor(2);
+            return;
+        }
+        network.waitForNetworkIdle(NETWORK_QUIET_PERIOD, NETWORK_TIMEOUT);
+    }
+    
+    /**
+     * Perform an action and wait for the API response it triggers
+     * Falls back to a fixed wait on browsers without DevTools.
+     * @param method HTTP method, e.g. "POST"
+     * @param path API path, e.g. "/add-expense"
+     * @param action Step that sends the request, e.g. clicking the submit button
+     * @return The response, or null if it could not be observed
+     */
+    protected NetworkMonitor.Response awaitResponse(String method, String path, Runnable action) {
+        if (network == null) {
+            action.run();
+            waitFor(3);
+            return null;
+        }
+        CompletableFuture<NetworkMonitor.Response> expected = network.expectResponse(method, path);
+        action.run();
+        NetworkMonitor.Response response = NetworkMonitor.await(expected, NETWORK_TIMEOUT);
+        System.out.println("✓ " + response);
+        return response;
+    }
+    
+    /**
+     * Log in through the login page and wait for the tracker to load
+     * @param email Registered email
+     * @param password Password
+     */
+    protected void loginThroughUi(String email, String password) {
+        navigateTo(BASE_URL + "/login-register.html");
+        driver.findElement(org.openqa.selenium.By.id("email")).sendKeys(email);
+        driver.findElement(org.openqa.selenium.By.id("password")).sendKeys(password);
+        triggerLoginValidation();
+        awaitResponse("POST", "/login", () -> driver.findElement(org.openqa.selenium.By.id("loginBtn")).click());
+        handleAlert();
+        waitForNetworkIdle();
+    }
+    
     /**
      * Click element using JavaScript (for elements that are not directly interactable)
      * @param element WebElement to click
@@ -181,4 +435,12 @@ public class BaseTest {
             return false;
         }
     }
+    
+    /**
+     * Read the expense tracker page state in one round trip
+     * @return Expense rows, total, selected filter and budget status
+     */
+    protected TrackerSnapshot snapshot() {
+        return TrackerSnapshot.capture(driver);
+    }
 }
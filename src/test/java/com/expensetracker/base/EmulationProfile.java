@@ -0,0 +1,58 @@
+package com.expensetracker.base;
+
+/**
+ * Named network and CPU conditions applied through Chrome DevTools, see NetworkMonitor#emulate
+ * Network figures follow the Chrome DevTools presets (throughput in bytes per second).
+ * Select one for a whole run with -Demulation=slow-3g (names are case-insensitive).
+ */
+public enum EmulationProfile {
+
+    NONE(0, -1, -1, 1),
+    SLOW_3G(2000, 500 * 1000 / 8 * 0.8, 500 * 1000 / 8 * 0.8, 1),
+    FAST_3G(562.5, 1.6 * 1000 * 1000 / 8 * 0.9, 750 * 1000 / 8 * 0.9, 1),
+    CPU_4X(0, -1, -1, 4),
+    // Low-end phone on a poor connection
+    SLOW_3G_CPU_4X(2000, 500 * 1000 / 8 * 0.8, 500 * 1000 / 8 * 0.8, 4);
+
+    private final double latencyMs;
+    private final double downloadBytesPerSecond;
+    private final double uploadBytesPerSecond;
+    private final double cpuSlowdown;
+
+    EmulationProfile(double latencyMs, double downloadBytesPerSecond, double uploadBytesPerSecond, double cpuSlowdown) {
+        this.latencyMs = latencyMs;
+        this.downloadBytesPerSecond = downloadBytesPerSecond;
+        this.uploadBytesPerSecond = uploadBytesPerSecond;
+        this.cpuSlowdown = cpuSlowdown;
+    }
+
+    /**
+     * Parse a profile name such as "slow-3g", "SLOW_3G" or "cpu-4x"
+     */
+    public static EmulationProfile fromName(String name) {
+        return valueOf(name.trim().toUpperCase().replace('-', '_'));
+    }
+
+    public double getLatencyMs() {
+        return latencyMs;
+    }
+
+    // -1 = unthrottled
+    public double getDownloadBytesPerSecond() {
+        return downloadBytesPerSecond;
+    }
+
+    // -1 = unthrottled
+    public double getUploadBytesPerSecond() {
+        return uploadBytesPerSecond;
+    }
+
+    // 1 = no slowdown
+    public double getCpuSlowdown() {
+        return cpuSlowdown;
+    }
+
+    public boolean throttlesNetwork() {
+        return latencyMs > 0 || downloadBytesPerSecond > 0 || uploadBytesPerSecond > 0;
+    }
+}
@@ -0,0 +1,847 @@
+package com.expensetracker.base;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.openqa.selenium.json.Json;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.TextStyle;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * In-process stand-in for server.js, used to run the UI suite without Node or MongoDB
+ * Serves Public/ and implements the same JSON routes, status codes, messages and authToken
+ * cookie as server.js, backed by a concurrent in-memory store.
+ *
+ * Keep this class in step with server.js; ApiContractTest runs the same checks against both.
+ */
+public class InMemoryExpenseServer {
+
+    private static final Json JSON = new Json();
+    private static final DateTimeFormatter ISO_MILLIS =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'").withZone(ZoneOffset.UTC);
+    private static final long TOKEN_TTL_MS = 60 * 60 * 1000L; // Same 1h expiry as the JWT
+    // Always honors X-Test-Run, like server.js with TEST_RUNS_ENABLED=true: this server only runs under the suite
+    private static final Pattern TEST_RUN_PATTERN = Pattern.compile("[\\w.-]{1,64}");
+    private static final long TEST_USER_TTL_MS = Long.getLong("testUser.ttlHours", 24) * 60 * 60 * 1000L;
+    private static final long EXPIRY_SWEEP_INTERVAL_MS = 60 * 1000L; // How often MongoDB's TTL monitor runs
+    private static final Map<String, String> CONTENT_TYPES = new HashMap<>();
+
+    static {
+        // Without TCP_NODELAY every response waits ~40ms on delayed ACKs (headers and body go out separately);
+        // read once when the JDK server classes load
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        CONTENT_TYPES.put("html", "text/html; charset=UTF-8");
+        CONTENT_TYPES.put("css", "text/css; charset=UTF-8");
+        CONTENT_TYPES.put("js", "application/javascript; charset=UTF-8");
+        CONTENT_TYPES.put("png", "image/png");
+        CONTENT_TYPES.put("jpg", "image/jpeg");
+        CONTENT_TYPES.put("webp", "image/webp");
+        CONTENT_TYPES.put("svg", "image/svg+xml");
+        CONTENT_TYPES.put("avif", "image/avif");
+    }
+
+    private final Path publicDir;
+    private final Map<String, User> usersByEmail = new ConcurrentHashMap<>();
+    private final Map<String, User> usersById = new ConcurrentHashMap<>();
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    private final SecureRandom random = new SecureRandom();
+    private final AtomicInteger idCounter = new AtomicInteger(random.nextInt());
+
+    private final RequestMetrics metrics = new RequestMetrics();
+    private final AdmissionLimiter admission = AdmissionLimiter.fromSystemProperties();
+    private final String adminToken = TestConfig.ADMIN_TOKEN;
+    private final AtomicLong lastExpirySweep = new AtomicLong();
+    
+    private HttpServer server;
+    private ExecutorService executor;
+    private long startedAt;
+
+    public InMemoryExpenseServer() {
+        this(Paths.get(System.getProperty("public.dir", "Public")));
+    }
+
+    public InMemoryExpenseServer(Path publicDir) {
+        this.publicDir = publicDir.toAbsolutePath().normalize();
+    }
+
+    /**
+     * Start listening on localhost
+     * @param port Port to bind, or 0 for any free port
+     * @return Base URL of the running server, e.g. http://localhost:3000
+     */
+    public synchronized String start(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+        executor = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "inmemory-server");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+        startedAt = System.nanoTime();
+        return getBaseUrl();
+    }
+
+    public synchronized void stop() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+            server = null;
+        }
+    }
+
+    public String getBaseUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    // ------------------------------------------------------------------
+    // Dispatch
+    // ------------------------------------------------------------------
+
+    private void handle(HttpExchange exchange) throws IOException {
+        long start = System.nanoTime();
+        String method = exchange.getRequestMethod();
+        String path = exchange.getRequestURI().getPath();
+        String route = "unmatched";
+        try {
+            Request request = new Request(exchange);
+
+            // express.static is mounted first, so files win over routes for GET
+            if ("GET".equals(method) && serveStatic(exchange, path)) {
+                route = "static";
+                return;
+            }
+            route = path.startsWith("/delete-expense/") ? "/delete-expense/:expenseId"
+                    : path.startsWith("/admin/test-runs/") ? "/admin/test-runs/:testRun"
+                    : path;
+
+            Reply reply;
+            if ("GET".equals(method) && "/metrics".equals(path)) {
+                reply = adminDenied(exchange);
+                if (reply == null) {
+                    send(exchange, 200, "text/plain; version=0.0.4; charset=utf-8",
+                            (metrics.render() + admission.render()).getBytes(StandardCharsets.UTF_8));
+                    return;
+                }
+            } else if ("GET".equals(method) && "/healthz".equals(path)) {
+                Map<String, Object> body = new LinkedHashMap<>();
+                body.put("status", "ok");
+                body.put("uptime", (System.nanoTime() - startedAt) / 1e9);
+                reply = Reply.ok(body);
+            } else if ("GET".equals(method) && "/readyz".equals(path)) {
+                // No database to wait for: ready as soon as it listens
+                Map<String, Object> body = new LinkedHashMap<>();
+                body.put("status", "ready");
+                body.put("mongo", "connected");
+                body.put("indexes", true);
+                reply = Reply.ok(body);
+            } else if ("POST".equals(method) && "/register".equals(path)) {
+                reply = register(request, exchange);
+            } else if ("POST".equals(method) && "/login".equals(path)) {
+                reply = login(request, exchange);
+            } else if ("POST".equals(method) && "/logout".equals(path)) {
+                exchange.getResponseHeaders().add("Set-Cookie",
+                        "authToken=; Path=/; Expires=Thu, 01 Jan 1970 00:00:00 GMT");
+                reply = Reply.ok(message("Logout successful!"));
+            } else if ("POST".equals(method) && "/add-expense".equals(path)) {
+                reply = authenticated(request, this::addExpense);
+            } else if ("GET".equals(method) && "/get-expenses".equals(path)) {
+                reply = authenticated(request, this::getExpenses);
+            } else if ("GET".equals(method) && "/expense-summary".equals(path)) {
+                reply = authenticated(request, this::expenseSummary);
+            } else if ("DELETE".equals(method) && path.startsWith("/delete-expense/")) {
+                reply = authenticated(request, this::deleteExpense);
+            } else if ("POST".equals(method) && "/set-budget".equals(path)) {
+                reply = authenticated(request, this::setBudget);
+            } else if ("GET".equals(method) && "/get-budget".equals(path)) {
+                reply = authenticated(request, this::getBudget);
+            } else if ("GET".equals(method) && "/get-budget-history".equals(path)) {
+                reply = authenticated(request, this::getBudgetHistory);
+            } else if ("GET".equals(method) && "/get-expenses-by-month".equals(path)) {
+                reply = authenticated(request, this::getExpensesByMonth);
+            } else if ("GET".equals(method) && "/dashboard".equals(path)) {
+                reply = authenticated(request, this::dashboard);
+            } else if ("DELETE".equals(method) && path.startsWith("/admin/test-runs/")) {
+                reply = deleteTestRun(request, exchange);
+            } else {
+                route = "unmatched";
+                send(exchange, 404, "text/html; charset=utf-8",
+                        ("Cannot " + method + " " + path).getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+            if (reply.status == 503) {
+                exchange.getResponseHeaders().set("Retry-After", String.valueOf(admission.retryAfterSeconds()));
+            }
+            send(exchange, reply.status, "application/json; charset=utf-8",
+                    JSON.toJson(reply.body).getBytes(StandardCharsets.UTF_8));
+        } catch (RuntimeException e) {
+            System.err.println("In-memory server error: " + e);
+            send(exchange, 500, "application/json; charset=utf-8",
+                    JSON.toJson(error("Internal server error")).getBytes(StandardCharsets.UTF_8));
+        } finally {
+            exchange.close();
+            metrics.observe(method, route, exchange.getResponseCode(), System.nanoTime() - start);
+        }
+    }
+
+    private Reply authenticated(Request request, Route route) {
+        String token = request.cookies.get("authToken");
+        if (token == null || token.isEmpty()) {
+            return new Reply(401, error("Unauthorized access. Please log in."));
+        }
+        Session session = sessions.get(token);
+        if (session == null || session.expiresAt < System.currentTimeMillis()) {
+            return new Reply(401, error("Invalid or expired token. Please log in again."));
+        }
+        // Like server.js, admission comes after the token check and before the route handler
+        if (!admission.acquire(session.userId)) {
+            return new Reply(503, error("Server is busy. Please retry shortly."));
+        }
+        try {
+            User user = usersById.get(session.userId);
+            if (user == null) {
+                return new Reply(404, error("User not found"));
+            }
+            synchronized (user) {
+                return route.handle(request, user);
+            }
+        } finally {
+            admission.release();
+        }
+    }
+
+    // ------------------------------------------------------------------
+    // Routes (mirroring server.js)
+    // ------------------------------------------------------------------
+
+    private Reply register(Request request, HttpExchange exchange) {
+        removeExpiredUsers();
+        String name = trimmed(request.body.get("name"));
+        String email = trimmed(request.body.get("email"));
+        String password = trimmed(request.body.get("password"));
+
+        if (usersByEmail.containsKey(email)) {
+            return new Reply(400, error("Email already registered."));
+        }
+        // Mongoose "required" rejects empty strings
+        if (name.isEmpty() || email.isEmpty() || password.isEmpty()) {
+            return new Reply(500, error("Error registering user. Please try again."));
+        }
+        User user = new User(newObjectId(), name, email, password);
+        String testRun = exchange.getRequestHeaders().getFirst("X-Test-Run");
+        if (testRun != null && TEST_RUN_PATTERN.matcher(testRun).matches()) {
+            user.testRun = testRun;
+            user.expiresAt = System.currentTimeMillis() + TEST_USER_TTL_MS;
+        }
+        if (usersByEmail.putIfAbsent(email, user) != null) {
+            return new Reply(400, error("Email already registered."));
+        }
+        usersById.put(user.id, user);
+
+        Map<String, Object> body = message("User registered successfully!");
+        body.put("user", user.publicView());
+        return new Reply(201, body);
+    }
+
+    private Reply deleteTestRun(Request request, HttpExchange exchange) {
+        Reply denied = adminDenied(exchange);
+        if (denied != null) {
+            return denied;
+        }
+        String testRun = URLDecoder.decode(request.path.substring("/admin/test-runs/".length()), StandardCharsets.UTF_8);
+        int deleted = 0;
+        for (User user : usersById.values()) {
+            if (testRun.equals(user.testRun) && removeUser(user)) {
+                deleted++;
+            }
+        }
+        Map<String, Object> body = message("Test users deleted.");
+        body.put("testRun", testRun);
+        body.put("deleted", deleted);
+        return Reply.ok(body);
+    }
+
+    // Like MongoDB's TTL monitor: expired test users go away at most a minute late
+    private void removeExpiredUsers() {
+        long now = System.currentTimeMillis();
+        long last = lastExpirySweep.get();
+        if (now - last < EXPIRY_SWEEP_INTERVAL_MS || !lastExpirySweep.compareAndSet(last, now)) {
+            return;
+        }
+        for (User user : usersById.values()) {
+            if (user.expiresAt > 0 && user.expiresAt <= now) {
+                removeUser(user);
+            }
+        }
+    }
+
+    private boolean removeUser(User user) {
+        usersByEmail.remove(user.email, user);
+        return usersById.remove(user.id, user);
+    }
+
+    private Reply login(Request request, HttpExchange exchange) {
+        String email = trimmed(request.body.get("email"));
+        String password = trimmed(request.body.get("password"));
+
+        User user = usersByEmail.get(email);
+        if (user == null || !user.password.trim().equals(password)) {
+            return new Reply(400, error("Invalid email or password."));
+        }
+
+        byte[] bytes = new byte[24];
+        random.nextBytes(bytes);
+        StringBuilder token = new StringBuilder();
+        for (byte b : bytes) {
+            token.append(String.format("%02x", b));
+        }
+        sessions.put(token.toString(), new Session(user.id, System.currentTimeMillis() + TOKEN_TTL_MS));
+        exchange.getResponseHeaders().add("Set-Cookie", "authToken=" + token + "; Path=/; HttpOnly");
+
+        Map<String, Object> body = message("Login successful!");
+        body.put("user", user.publicView());
+        return Reply.ok(body);
+    }
+
+    private Reply addExpense(Request request, User user) {
+        Object description = request.body.get("description");
+        Object type = request.body.get("type");
+        Double amount = toNumber(request.body.get("amount"));
+        Object date = request.body.get("date");
+
+        Instant expenseDate;
+        if (date != null && !String.valueOf(date).isEmpty()) {
+            // date comes as YYYY-MM-DD from the date input, stored at UTC midnight
+            String[] parts = String.valueOf(date).split("-");
+            Integer year = parseInt(parts[0]);
+            Integer month = parts.length > 1 ? parseInt(parts[1]) : null;
+            Integer day = parts.length > 2 ? parseInt(parts[2]) : null;
+            if (year == null || month == null || day == null) {
+                return new Reply(500, error("Failed to add expense."));
+            }
+            // Date.UTC rolls over out-of-range months and days instead of rejecting them
+            expenseDate = LocalDate.of(year, 1, 1).plusMonths(month - 1L).plusDays(day - 1L)
+                    .atStartOfDay(ZoneOffset.UTC).toInstant();
+        } else {
+            expenseDate = Instant.now();
+        }
+
+        if (isBlank(description) || isBlank(type) || amount == null) {
+            return new Reply(500, error("Failed to add expense."));
+        }
+
+        user.expenses.add(new Expense(newObjectId(), String.valueOf(description), amount,
+                String.valueOf(type), expenseDate));
+
+        Map<String, Object> body = message("Expense added successfully!");
+        body.put("expenses", expensesView(user.expenses));
+        return Reply.ok(body);
+    }
+
+    private Reply getExpenses(Request request, User user) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("expenses", expensesView(user.expenses));
+        return Reply.ok(body);
+    }
+
+    private Reply expenseSummary(Request request, User user) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        Map<String, Double> sums = new LinkedHashMap<>();
+        for (Expense expense : user.expenses) {
+            sums.merge(expense.type, expense.amount, Double::sum);
+        }
+        sums.forEach((type, sum) -> summary.put(type, jsonNumber(sum)));
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("summary", summary);
+        return Reply.ok(body);
+    }
+
+    private Reply deleteExpense(Request request, User user) {
+        String expenseId = request.path.substring("/delete-expense/".length());
+        boolean removed = user.expenses.removeIf(expense -> expense.id.equals(expenseId));
+        if (!removed) {
+            return new Reply(404, error("Expense not found"));
+        }
+        Map<String, Object> body = message("Expense deleted successfully!");
+        body.put("expenses", expensesView(user.expenses));
+        return Reply.ok(body);
+    }
+
+    private Reply setBudget(Request request, User user) {
+        Object budget = request.body.get("budget");
+        Object month = request.body.get("month");
+        Object year = request.body.get("year");
+
+        LocalDate today = LocalDate.now();
+        Object targetMonth = isFalsy(month) ? Integer.valueOf(today.getMonthValue()) : month;
+        Object targetYear = isFalsy(year) ? Integer.valueOf(today.getYear()) : year;
+        Double amount = toNumber(budget);
+        Double monthValue = toNumber(targetMonth);
+        Double yearValue = toNumber(targetYear);
+        if (amount == null || monthValue == null || yearValue == null) {
+            return new Reply(500, error("Failed to set budget."));
+        }
+
+        int m = monthValue.intValue();
+        int y = yearValue.intValue();
+        Budget existing = user.findBudget(y, m);
+        if (existing != null) {
+            existing.amount = amount;
+        } else {
+            user.budgets.add(new Budget(y, m, amount));
+        }
+        // Keep legacy field updated for current month
+        if (m == today.getMonthValue() && y == today.getYear()) {
+            user.monthlyBudget = amount;
+        }
+
+        Map<String, Object> body = message("Budget set successfully!");
+        body.put("budget", budget);
+        body.put("month", targetMonth);
+        body.put("year", targetYear);
+        return Reply.ok(body);
+    }
+
+    private Reply getBudget(Request request, User user) {
+        LocalDate today = LocalDate.now();
+        Integer month = queryInt(request, "month", today.getMonthValue());
+        Integer year = queryInt(request, "year", today.getYear());
+        Budget budget = month == null || year == null ? null : user.findBudget(year, month);
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("budget", budget != null ? jsonNumber(budget.amount) : 0);
+        body.put("month", month);
+        body.put("year", year);
+        return Reply.ok(body);
+    }
+
+    private Reply getBudgetHistory(Request request, User user) {
+        Integer months = queryInt(request, "months", 6);
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("history", budgetHistory(user, months));
+        return Reply.ok(body);
+    }
+
+    private static List<Map<String, Object>> budgetHistory(User user, Integer months) {
+        LocalDate firstOfMonth = LocalDate.now().withDayOfMonth(1);
+        List<Map<String, Object>> history = new ArrayList<>();
+
+        for (int i = 0; months != null && i < months; i++) {
+            LocalDate date = firstOfMonth.minusMonths(i);
+            int month = date.getMonthValue();
+            int year = date.getYear();
+
+            Budget budget = user.findBudget(year, month);
+            double totalExpenses = 0;
+            for (Expense expense : user.expenses) {
+                if (expense.isInMonth(year, month)) {
+                    totalExpenses += expense.amount;
+                }
+            }
+            double budgetAmount = budget != null ? budget.amount : 0;
+
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("month", month);
+            entry.put("year", year);
+            entry.put("monthName", date.getMonth().getDisplayName(TextStyle.FULL, Locale.US));
+            entry.put("budget", jsonNumber(budgetAmount));
+            entry.put("expenses", jsonNumber(totalExpenses));
+            entry.put("remaining", jsonNumber(budgetAmount - totalExpenses));
+            history.add(entry);
+        }
+        return history;
+    }
+
+    // Like server.js's authenticateAdmin: the refusal for a request without the admin token, or null
+    private Reply adminDenied(HttpExchange exchange) {
+        if (adminToken == null || adminToken.isEmpty()) {
+            return new Reply(404, error("Admin routes are disabled."));
+        }
+        String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+        String given = authorization == null ? "" : authorization.replaceFirst("^Bearer ", "");
+        if (!MessageDigest.isEqual(given.getBytes(StandardCharsets.UTF_8), adminToken.getBytes(StandardCharsets.UTF_8))) {
+            return new Reply(401, error("Invalid admin token."));
+        }
+        return null;
+    }
+
+    private Reply getExpensesByMonth(Request request, User user) {
+        LocalDate today = LocalDate.now();
+        Integer month = queryInt(request, "month", today.getMonthValue());
+        Integer year = queryInt(request, "year", today.getYear());
+
+        List<Expense> monthExpenses = new ArrayList<>();
+        for (Expense expense : user.expenses) {
+            if (isValidMonth(year, month) && expense.isInMonth(year, month)) {
+                monthExpenses.add(expense);
+            }
+        }
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("expenses", expensesView(monthExpenses));
+        body.put("month", month);
+        body.put("year", year);
+        return Reply.ok(body);
+    }
+
+    private Reply dashboard(Request request, User user) {
+        LocalDate today = LocalDate.now();
+        Integer month = queryInt(request, "month", today.getMonthValue());
+        Integer year = queryInt(request, "year", today.getYear());
+        Integer historyMonths = queryInt(request, "history", 0);
+        boolean validMonth = isValidMonth(year, month);
+
+        List<Expense> monthExpenses = new ArrayList<>();
+        Map<String, Double> byCategory = new LinkedHashMap<>();
+        double total = 0;
+        for (Expense expense : user.expenses) {
+            if (validMonth && expense.isInMonth(year, month)) {
+                monthExpenses.add(expense);
+                byCategory.merge(expense.type, expense.amount, Double::sum);
+                total += expense.amount;
+            }
+        }
+        Budget budget = validMonth ? user.findBudget(year, month) : null;
+
+        Map<String, Object> categories = new LinkedHashMap<>();
+        byCategory.forEach((type, sum) -> categories.put(type, jsonNumber(sum)));
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("total", jsonNumber(total));
+        summary.put("byCategory", categories);
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("month", month);
+        body.put("year", year);
+        body.put("expenses", expensesView(monthExpenses));
+        body.put("budget", budget != null ? jsonNumber(budget.amount) : 0);
+        body.put("summary", summary);
+        // Like server.js, an unparsable ?history= means no history
+        if (historyMonths != null && historyMonths > 0) {
+            body.put("history", budgetHistory(user, historyMonths));
+        }
+        return Reply.ok(body);
+    }
+
+    // ------------------------------------------------------------------
+    // Static files
+    // ------------------------------------------------------------------
+
+    private boolean serveStatic(HttpExchange exchange, String path) throws IOException {
+        String relative = "/".equals(path) ? "index.html" : path.substring(1);
+        Path file = publicDir.resolve(URLDecoder.decode(relative, StandardCharsets.UTF_8)).normalize();
+        if (!file.startsWith(publicDir) || !Files.isRegularFile(file)) {
+            return false;
+        }
+        String name = file.getFileName().toString();
+        String extension = name.substring(name.lastIndexOf('.') + 1).toLowerCase(Locale.ROOT);
+        send(exchange, 200, CONTENT_TYPES.getOrDefault(extension, "application/octet-stream"),
+                Files.readAllBytes(file));
+        return true;
+    }
+
+    private static void send(HttpExchange exchange, int status, String contentType, byte[] body)
+            throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        if (body.length > 0) {
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    // ------------------------------------------------------------------
+    // Helpers
+    // ------------------------------------------------------------------
+
+    /**
+     * 24-hex id shaped like a MongoDB ObjectId (seconds timestamp + counter)
+     */
+    private String newObjectId() {
+        return String.format("%08x%016x", System.currentTimeMillis() / 1000,
+                (random.nextLong() & 0xffffffff00000000L) | (idCounter.incrementAndGet() & 0xffffffffL));
+    }
+
+    private static List<Map<String, Object>> expensesView(List<Expense> expenses) {
+        List<Map<String, Object>> view = new ArrayList<>(expenses.size());
+        for (Expense expense : expenses) {
+            view.add(expense.view());
+        }
+        return view;
+    }
+
+    private static Map<String, Object> message(String text) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("message", text);
+        return body;
+    }
+
+    private static Map<String, Object> error(String text) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("error", text);
+        return body;
+    }
+
+    /**
+     * Doubles with no fraction are written as integers, like JSON.stringify does
+     */
+    static Object jsonNumber(double value) {
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return (long) value;
+        }
+        return value;
+    }
+
+    private static String trimmed(Object value) {
+        return value == null ? "" : String.valueOf(value).trim();
+    }
+
+    private static boolean isBlank(Object value) {
+        return value == null || String.valueOf(value).isEmpty();
+    }
+
+    private static boolean isFalsy(Object value) {
+        return value == null || "".equals(value)
+                || (value instanceof Number && ((Number) value).doubleValue() == 0)
+                || Boolean.FALSE.equals(value);
+    }
+
+    /**
+     * Mongoose Number casting: numbers and numeric strings, anything else is a cast error
+     */
+    private static Double toNumber(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        if (value instanceof String && !((String) value).trim().isEmpty()) {
+            try {
+                return Double.parseDouble(((String) value).trim());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Same as server.js: month 1-12 of a 4-digit year, anything else matches no expenses
+     */
+    private static boolean isValidMonth(Integer year, Integer month) {
+        return year != null && year >= 1000 && year <= 9999 && month != null && month >= 1 && month <= 12;
+    }
+
+    /**
+     * JavaScript parseInt: leading sign and digits, null where JS would give NaN
+     */
+    private static Integer parseInt(String value) {
+        String s = value.trim();
+        int end = 0;
+        if (end < s.length() && (s.charAt(end) == '-' || s.charAt(end) == '+')) {
+            end++;
+        }
+        int digitsStart = end;
+        while (end < s.length() && Character.isDigit(s.charAt(end))) {
+            end++;
+        }
+        if (end == digitsStart) {
+            return null;
+        }
+        return Integer.valueOf(s.substring(0, end));
+    }
+
+    private static Integer queryInt(Request request, String name, int defaultValue) {
+        String value = request.query.get(name);
+        return value == null || value.isEmpty() ? Integer.valueOf(defaultValue) : parseInt(value);
+    }
+
+    // ------------------------------------------------------------------
+    // Model
+    // ------------------------------------------------------------------
+
+    @FunctionalInterface
+    private interface Route {
+        Reply handle(Request request, User user);
+    }
+
+    private static class Reply {
+        final int status;
+        final Map<String, Object> body;
+
+        Reply(int status, Map<String, Object> body) {
+            this.status = status;
+            this.body = body;
+        }
+
+        static Reply ok(Map<String, Object> body) {
+            return new Reply(200, body);
+        }
+    }
+
+    private static class Request {
+        final String path;
+        final Map<String, String> query = new HashMap<>();
+        final Map<String, String> cookies = new HashMap<>();
+        final Map<String, Object> body;
+
+        Request(HttpExchange exchange) throws IOException {
+            path = exchange.getRequestURI().getPath();
+            parseForm(exchange.getRequestURI().getRawQuery(), query);
+
+            String cookieHeader = exchange.getRequestHeaders().getFirst("Cookie");
+            if (cookieHeader != null) {
+                for (String pair : cookieHeader.split(";")) {
+                    int eq = pair.indexOf('=');
+                    if (eq > 0) {
+                        cookies.put(pair.substring(0, eq).trim(), pair.substring(eq + 1).trim());
+                    }
+                }
+            }
+
+            String raw;
+            try (InputStream in = exchange.getRequestBody()) {
+                raw = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            }
+            String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+            if (raw.isEmpty()) {
+                body = new HashMap<>();
+            } else if (contentType != null && contentType.startsWith("application/x-www-form-urlencoded")) {
+                Map<String, String> form = new HashMap<>();
+                parseForm(raw, form);
+                body = new HashMap<>(form);
+            } else {
+                body = JSON.toType(raw, Json.MAP_TYPE);
+            }
+        }
+
+        private static void parseForm(String raw, Map<String, String> target) {
+            if (raw == null || raw.isEmpty()) {
+                return;
+            }
+            for (String pair : raw.split("&")) {
+                int eq = pair.indexOf('=');
+                String key = eq >= 0 ? pair.substring(0, eq) : pair;
+                String value = eq >= 0 ? pair.substring(eq + 1) : "";
+                target.put(URLDecoder.decode(key, StandardCharsets.UTF_8),
+                        URLDecoder.decode(value, StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    private static class Session {
+        final String userId;
+        final long expiresAt;
+
+        Session(String userId, long expiresAt) {
+            this.userId = userId;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private static class User {
+        final String id;
+        final String name;
+        final String email;
+        final String password;
+        double monthlyBudget; // Legacy field, mirrors server.js
+        String testRun; // Set for users registered by a test run (X-Test-Run)
+        long expiresAt; // Epoch millis, 0 for users that don't expire
+        final List<Budget> budgets = new ArrayList<>();
+        final List<Expense> expenses = new ArrayList<>();
+
+        User(String id, String name, String email, String password) {
+            this.id = id;
+            this.name = name;
+            this.email = email;
+            this.password = password;
+        }
+
+        Budget findBudget(int year, int month) {
+            for (Budget budget : budgets) {
+                if (budget.year == year && budget.month == month) {
+                    return budget;
+                }
+            }
+            return null;
+        }
+
+        Map<String, Object> publicView() {
+            Map<String, Object> view = new LinkedHashMap<>();
+            view.put("id", id);
+            view.put("name", name);
+            view.put("email", email);
+            return view;
+        }
+    }
+
+    private static class Budget {
+        final int year;
+        final int month;
+        double amount;
+
+        Budget(int year, int month, double amount) {
+            this.year = year;
+            this.month = month;
+            this.amount = amount;
+        }
+    }
+
+    private static class Expense {
+        final String id;
+        final String description;
+        final double amount;
+        final String type;
+        final Instant date;
+
+        Expense(String id, String description, double amount, String type, Instant date) {
+            this.id = id;
+            this.description = description;
+            this.amount = amount;
+            this.type = type;
+            this.date = date;
+        }
+
+        boolean isInMonth(int year, int month) {
+            LocalDate utc = date.atZone(ZoneOffset.UTC).toLocalDate();
+            return utc.getYear() == year && utc.getMonthValue() == month;
+        }
+
+        Map<String, Object> view() {
+            Map<String, Object> view = new LinkedHashMap<>();
+            view.put("description", description);
+            view.put("amount", jsonNumber(amount));
+            view.put("type", type);
+            view.put("date", ISO_MILLIS.format(date));
+            view.put("_id", id);
+            return view;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.expensetracker.base;
+
+import java.util.Arrays;
+
+/**
+ * Thread-safe recorder for request latencies
+ * Keeps every sample so exact percentiles and a distribution can be reported
+ */
+public class LatencyStats {
+    
+    // Upper bounds (ms) of the distribution buckets printed in reports
+    private static final double[] BUCKETS_MS = {1, 2, 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000};
+    
+    private final String name;
+    private long[] samples = new long[256];
+    private int count;
+    private long errors;
+    
+    public LatencyStats(String name) {
+        this.name = name;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    /**
+     * Record one successful sample
+     * @param nanos Duration in nanoseconds
+     */
+    public synchronized void record(long nanos) {
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, count * 2);
+        }
+        samples[count++] = nanos;
+    }
+    
+    public synchronized void recordError() {
+        errors++;
+    }
+    
+    public synchronized int count() {
+        return count;
+    }
+    
+    public synchronized long errors() {
+        return errors;
+    }
+    
+    /**
+     * @param percentile Percentile between 0 and 100
+     * @return Latency in milliseconds at that percentile (nearest-rank), 0 when empty
+     */
+    public synchronized double percentileMs(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100.0 * count);
+        return toMs(sorted[Math.max(0, Math.min(count - 1, rank - 1))]);
+    }
+    
+    public synchronized double meanMs() {
+        if (count == 0) {
+            return 0;
+        }
+        double sum = 0;
+        for (int i = 0; i < count; i++) {
+            sum += samples[i];
+        }
+        return toMs(sum / count);
+    }
+    
+    public synchronized double maxMs() {
+        long max = 0;
+        for (int i = 0; i < count; i++) {
+            max = Math.max(max, samples[i]);
+        }
+        return toMs(max);
+    }
+    
+    /**
+     * @return Response-time distribution as "<=Nms: count" pairs, skipping empty buckets
+     */
+    public synchronized String distribution() {
+        int[] buckets = new int[BUCKETS_MS.length + 1];
+        for (int i = 0; i < count; i++) {
+            double ms = toMs(samples[i]);
+            int b = 0;
+            while (b < BUCKETS_MS.length && ms > BUCKETS_MS[b]) {
+                b++;
+            }
+            buckets[b]++;
+        }
+        StringBuilder sb = new StringBuilder();
+        for (int b = 0; b < buckets.length; b++) {
+            if (buckets[b] == 0) {
+                continue;
+            }
+            if (sb.length() > 0) {
+                sb.append(", ");
+            }
+            sb.append(b < BUCKETS_MS.length ? "<=" + (int) BUCKETS_MS[b] + "ms" : ">" + (int) BUCKETS_MS[b - 1] + "ms")
+              .append(": ").append(buckets[b]);
+        }
+        return sb.toString();
+    }
+    
+    /**
+     * @return One-line summary, e.g. "GET /get-budget n=200 mean=3.1ms p50=2.9ms p95=4.8ms p99=7.0ms max=9.2ms"
+     */
+    public String summary() {
+        return String.format("%s n=%d errors=%d mean=%.1fms p50=%.1fms p95=%.1fms p99=%.1fms max=%.1fms",
+                name, count(), errors(), meanMs(), percentileMs(50), percentileMs(95), percentileMs(99), maxMs());
+    }
+    
+    private static double toMs(double nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
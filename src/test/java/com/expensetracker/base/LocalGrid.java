@@ -0,0 +1,112 @@
+package com.expensetracker.base;
+
+import org.openqa.selenium.grid.commands.Standalone;
+import org.openqa.selenium.grid.config.CompoundConfig;
+import org.openqa.selenium.grid.config.Config;
+import org.openqa.selenium.grid.config.TomlConfig;
+import org.openqa.selenium.grid.server.Server;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.net.URI;
+import java.net.URL;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Selenium Grid standalone (router, distributor and one node) running inside the test JVM (-Dgrid=local)
+ * The node starts browsers through the drivers WebDriverManager resolved, with a fixed number of
+ * session slots per browser; sessions beyond that wait in the grid's queue until a slot frees up.
+ */
+public class LocalGrid {
+
+    private static final Duration POLL_INTERVAL = Duration.ofMillis(200);
+
+    private final int port;
+    private final Map<String, Integer> slots;
+    private Server<?> server;
+
+    /**
+     * @param port Port for the grid
+     * @param slots Concurrent sessions per browser name, e.g. chrome=2, firefox=2
+     */
+    public LocalGrid(int port, Map<String, Integer> slots) {
+        this.port = port;
+        this.slots = new LinkedHashMap<>(slots);
+    }
+
+    /**
+     * Start the grid and wait until its node accepts sessions
+     * @param timeout Maximum time to wait for /status to report ready
+     * @return Grid URL for RemoteWebDriver
+     */
+    public URL start(Duration timeout) throws IOException {
+        if (slots.values().stream().noneMatch(count -> count > 0)) {
+            throw new IOException("No session slots configured for " + slots.keySet());
+        }
+        server = new StandaloneServer().start(new TomlConfig(new StringReader(toml())));
+        URI status = URI.create("http://localhost:" + port + "/status");
+        HttpClient http = HttpClient.newHttpClient();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        String lastState = "not checked";
+        while (System.nanoTime() < deadline && !Thread.currentThread().isInterrupted()) {
+            try {
+                HttpResponse<String> response = http.send(HttpRequest.newBuilder(status).GET().build(),
+                        HttpResponse.BodyHandlers.ofString());
+                lastState = response.statusCode() + " " + response.body();
+                if (response.statusCode() == 200 && response.body().replace(" ", "").contains("\"ready\":true")) {
+                    return getUrl();
+                }
+            } catch (IOException e) {
+                lastState = "unreachable (" + e.getClass().getSimpleName() + ")";
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            LockSupport.parkNanos(POLL_INTERVAL.toNanos());
+        }
+        stop();
+        throw new IOException("Selenium Grid at " + status + " not ready after " + timeout.toSeconds() + "s: " + lastState);
+    }
+
+    public URL getUrl() throws IOException {
+        return URI.create("http://localhost:" + port).toURL();
+    }
+
+    public void stop() {
+        if (server != null) {
+            server.stop();
+            server = null;
+        }
+    }
+
+    // Only the configured browsers, each with its own slot count regardless of the number of CPUs
+    private String toml() {
+        int total = slots.values().stream().mapToInt(Integer::intValue).sum();
+        StringBuilder toml = new StringBuilder()
+                .append("[server]\nhost = \"localhost\"\nport = ").append(port).append('\n')
+                .append("[node]\ndetect-drivers = false\noverride-max-sessions = true\n")
+                .append("max-sessions = ").append(total).append('\n');
+        for (Map.Entry<String, Integer> browser : slots.entrySet()) {
+            if (browser.getValue() <= 0) {
+                continue;
+            }
+            toml.append("[[node.driver-configuration]]\n")
+                    .append("display-name = \"").append(browser.getKey()).append("\"\n")
+                    .append("max-sessions = ").append(browser.getValue()).append('\n')
+                    .append("stereotype = '{\"browserName\": \"").append(browser.getKey()).append("\"}'\n");
+        }
+        return toml.toString();
+    }
+
+    // Standalone's defaults are only reachable from a subclass
+    private static final class StandaloneServer extends Standalone {
+        Server<?> start(Config config) {
+            return asServer(new CompoundConfig(config, getDefaultConfig())).start();
+        }
+    }
+}
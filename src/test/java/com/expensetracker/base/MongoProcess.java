@@ -0,0 +1,121 @@
+package com.expensetracker.base;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Runs a throwaway mongod on a given port with its data in a fresh temp directory
+ * The directory is deleted on stop(), so every suite starts from an empty database.
+ */
+public class MongoProcess {
+
+    private final int port;
+    private final File logFile;
+    private final Consumer<String> logListener;
+    private Path dbPath;
+    private Process process;
+
+    /**
+     * @param port Port for mongod to listen on (localhost only)
+     * @param logFile File receiving mongod's output
+     * @param logListener Receives each output line as mongod writes it
+     */
+    public MongoProcess(int port, File logFile, Consumer<String> logListener) {
+        this.port = port;
+        this.logFile = logFile;
+        this.logListener = logListener;
+    }
+
+    /**
+     * Start mongod (-Dmongod.executable, default "mongod" on the PATH) and wait until it accepts connections
+     * @param timeout Maximum time to wait for the port to open
+     */
+    public void start(Duration timeout) throws IOException {
+        logFile.getParentFile().mkdirs();
+        dbPath = Files.createTempDirectory("expense-tracker-mongo-");
+        ProcessBuilder builder = new ProcessBuilder(System.getProperty("mongod.executable", "mongod"),
+                "--dbpath", dbPath.toString(),
+                "--port", String.valueOf(port),
+                "--bind_ip", "127.0.0.1",
+                "--quiet")
+                .redirectErrorStream(true);
+        try {
+            process = builder.start();
+        } catch (IOException e) {
+            deleteDbPath();
+            throw new IOException("Could not run mongod - install MongoDB or set -Dmongod.executable: " + e.getMessage(), e);
+        }
+        ProcessOutput.pump(process, "mongod-log", logFile, logListener);
+
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (!isListening()) {
+            if (!process.isAlive()) {
+                deleteDbPath();
+                throw new IOException("mongod exited with code " + process.exitValue() + " - see " + logFile);
+            }
+            if (System.nanoTime() > deadline) {
+                stop();
+                throw new IOException("mongod did not open port " + port + " within " + timeout);
+            }
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for mongod", e);
+            }
+        }
+    }
+
+    /**
+     * @return Connection string without a database name, e.g. mongodb://127.0.0.1:27123
+     */
+    public String getUri() {
+        return "mongodb://127.0.0.1:" + port;
+    }
+
+    public void stop() {
+        if (process != null && process.isAlive()) {
+            process.destroy();
+            try {
+                if (!process.waitFor(10, TimeUnit.SECONDS)) {
+                    process.destroyForcibly();
+                    process.waitFor(5, TimeUnit.SECONDS);
+                }
+            } catch (InterruptedException e) {
+                process.destroyForcibly();
+                Thread.currentThread().interrupt();
+            }
+        }
+        deleteDbPath();
+    }
+
+    private void deleteDbPath() {
+        if (dbPath == null) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(dbPath)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        } catch (IOException e) {
+            System.out.println("Could not delete " + dbPath + ": " + e.getMessage());
+        }
+        dbPath = null;
+    }
+
+    private boolean isListening() {
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress("127.0.0.1", port), 200);
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
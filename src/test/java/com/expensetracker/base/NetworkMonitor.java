@@ -0,0 +1,307 @@
+package com.expensetracker.base;
+
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.devtools.Command;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.Event;
+import org.openqa.selenium.devtools.HasDevTools;
+import org.openqa.selenium.json.Json;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tracks the browser's in-flight requests through Chrome DevTools
+ * Lets a step wait for the page to go quiet, or for one specific API response, instead of sleeping.
+ * Uses raw CDP method names rather than a versioned devtools package, so it keeps working when
+ * Chrome moves past the CDP versions bundled with Selenium.
+ *
+ * Chromium browsers only; see {@link #isSupported(WebDriver)}.
+ */
+public class NetworkMonitor implements AutoCloseable {
+
+    private static final Event<Map<String, Object>> REQUEST_WILL_BE_SENT = event("Network.requestWillBeSent");
+    private static final Event<Map<String, Object>> RESPONSE_RECEIVED = event("Network.responseReceived");
+    private static final Event<Map<String, Object>> LOADING_FINISHED = event("Network.loadingFinished");
+    private static final Event<Map<String, Object>> LOADING_FAILED = event("Network.loadingFailed");
+
+    private final DevTools devTools;
+    private final Object lock = new Object();
+    private final Map<String, Request> inFlight = new HashMap<>();
+    private final List<Expectation> expectations = new ArrayList<>();
+    private long lastActivityNanos = System.nanoTime();
+
+    private NetworkMonitor(DevTools devTools) {
+        this.devTools = devTools;
+    }
+
+    public static boolean isSupported(WebDriver driver) {
+        return driver instanceof HasDevTools;
+    }
+
+    /**
+     * Open a DevTools session on the driver and start tracking requests
+     * @param driver A Chromium-based driver
+     * @return Monitor bound to the driver's current tab
+     */
+    public static NetworkMonitor attach(WebDriver driver) {
+        if (!isSupported(driver)) {
+            throw new IllegalArgumentException("DevTools not available for " + driver.getClass().getSimpleName());
+        }
+        DevTools devTools = ((HasDevTools) driver).getDevTools();
+        devTools.createSessionIfThereIsNotOne();
+        NetworkMonitor monitor = new NetworkMonitor(devTools);
+        devTools.addListener(REQUEST_WILL_BE_SENT, monitor::onRequest);
+        devTools.addListener(RESPONSE_RECEIVED, monitor::onResponse);
+        devTools.addListener(LOADING_FINISHED, params -> monitor.onFinished(params, false));
+        devTools.addListener(LOADING_FAILED, params -> monitor.onFinished(params, true));
+        devTools.send(new Command<>("Network.enable", new HashMap<>()));
+        return monitor;
+    }
+
+    /**
+     * Apply network and CPU conditions to the tab; NONE lifts them again
+     */
+    public void emulate(EmulationProfile profile) {
+        Map<String, Object> network = new LinkedHashMap<>();
+        network.put("offline", false);
+        network.put("latency", profile.getLatencyMs());
+        network.put("downloadThroughput", profile.getDownloadBytesPerSecond());
+        network.put("uploadThroughput", profile.getUploadBytesPerSecond());
+        devTools.send(new Command<>("Network.emulateNetworkConditions", network));
+
+        Map<String, Object> cpu = new HashMap<>();
+        cpu.put("rate", profile.getCpuSlowdown());
+        devTools.send(new Command<>("Emulation.setCPUThrottlingRate", cpu));
+    }
+
+    /**
+     * Send these headers with every request from the tab, on top of the browser's own
+     */
+    public void setExtraHeaders(Map<String, String> headers) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("headers", headers);
+        devTools.send(new Command<>("Network.setExtraHTTPHeaders", params));
+    }
+
+    public int inFlightCount() {
+        synchronized (lock) {
+            return inFlight.size();
+        }
+    }
+
+    /**
+     * Wait until no request has been in flight for the quiet period
+     * @param quietPeriod How long the network has to stay idle, e.g. 500ms
+     * @param timeout Maximum total wait
+     * @throws TimeoutException If requests are still running after the timeout
+     */
+    public void waitForNetworkIdle(Duration quietPeriod, Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        synchronized (lock) {
+            while (true) {
+                long now = System.nanoTime();
+                long idleFor = now - lastActivityNanos;
+                if (inFlight.isEmpty() && idleFor >= quietPeriod.toNanos()) {
+                    return;
+                }
+                if (now >= deadline) {
+                    throw new TimeoutException("Network not idle after " + timeout.toMillis() + "ms, in flight: " + inFlight.values());
+                }
+                long waitNanos = inFlight.isEmpty()
+                        ? Math.min(quietPeriod.toNanos() - idleFor, deadline - now)
+                        : deadline - now;
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(lock, Math.max(waitNanos, 1));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new TimeoutException("Interrupted while waiting for network idle", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Register interest in a response before triggering it
+     * The future completes once the body has finished loading (or the request failed).
+     * @param method HTTP method, e.g. "POST"
+     * @param path URL path to match exactly, e.g. "/add-expense"
+     * @return Future completed with the matching response
+     */
+    public CompletableFuture<Response> expectResponse(String method, String path) {
+        Expectation expectation = new Expectation(method, path);
+        synchronized (lock) {
+            expectations.add(expectation);
+        }
+        return expectation.future;
+    }
+
+    /**
+     * Wait for a response registered with {@link #expectResponse(String, String)}
+     * @throws TimeoutException If it does not arrive in time
+     */
+    public static Response await(CompletableFuture<Response> expected, Duration timeout) {
+        try {
+            return expected.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (java.util.concurrent.TimeoutException e) {
+            throw new TimeoutException("No matching response within " + timeout.toMillis() + "ms");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TimeoutException("Interrupted while waiting for response", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        devTools.clearListeners();
+        synchronized (lock) {
+            for (Expectation expectation : expectations) {
+                expectation.future.cancel(false);
+            }
+            expectations.clear();
+            inFlight.clear();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void onRequest(Map<String, Object> params) {
+        Map<String, Object> request = (Map<String, Object>) params.get("request");
+        String url = (String) request.get("url");
+        // data: and blob: URLs never produce loadingFinished
+        if (url == null || url.startsWith("data:") || url.startsWith("blob:")) {
+            return;
+        }
+        synchronized (lock) {
+            // Redirects reuse the request id; the new entry replaces the old one
+            inFlight.put((String) params.get("requestId"), new Request((String) request.get("method"), url));
+            lastActivityNanos = System.nanoTime();
+            lock.notifyAll();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void onResponse(Map<String, Object> params) {
+        Map<String, Object> response = (Map<String, Object>) params.get("response");
+        synchronized (lock) {
+            Request request = inFlight.get((String) params.get("requestId"));
+            if (request != null) {
+                request.status = ((Number) response.get("status")).intValue();
+            }
+        }
+    }
+
+    private void onFinished(Map<String, Object> params, boolean failed) {
+        synchronized (lock) {
+            Request request = inFlight.remove((String) params.get("requestId"));
+            lastActivityNanos = System.nanoTime();
+            if (request != null) {
+                Response response = new Response(request.method, request.url, failed ? 0 : request.status,
+                        Duration.ofNanos(lastActivityNanos - request.startNanos));
+                for (Iterator<Expectation> it = expectations.iterator(); it.hasNext(); ) {
+                    Expectation expectation = it.next();
+                    if (expectation.matches(response)) {
+                        expectation.future.complete(response);
+                        it.remove();
+                    }
+                }
+            }
+            lock.notifyAll();
+        }
+    }
+
+    private static Event<Map<String, Object>> event(String method) {
+        return new Event<>(method, input -> input.read(Json.MAP_TYPE));
+    }
+
+    private static final class Request {
+        private final String method;
+        private final String url;
+        private final long startNanos = System.nanoTime();
+        private int status;
+
+        private Request(String method, String url) {
+            this.method = method;
+            this.url = url;
+        }
+
+        @Override
+        public String toString() {
+            return method + " " + url;
+        }
+    }
+
+    private static final class Expectation {
+        private final String method;
+        private final String path;
+        private final CompletableFuture<Response> future = new CompletableFuture<>();
+
+        private Expectation(String method, String path) {
+            this.method = method;
+            this.path = path;
+        }
+
+        private boolean matches(Response response) {
+            return method.equalsIgnoreCase(response.getMethod()) && path.equals(response.getPath());
+        }
+    }
+
+    /**
+     * A completed request as seen by the browser
+     */
+    public static final class Response {
+        private final String method;
+        private final String url;
+        private final int status;
+        private final Duration duration;
+
+        Response(String method, String url, int status, Duration duration) {
+            this.method = method;
+            this.url = url;
+            this.status = status;
+            this.duration = duration;
+        }
+
+        public String getMethod() {
+            return method;
+        }
+
+        public String getUrl() {
+            return url;
+        }
+
+        public String getPath() {
+            try {
+                return URI.create(url).getPath();
+            } catch (IllegalArgumentException e) {
+                return url;
+            }
+        }
+
+        // 0 if the request failed without a response
+        public int getStatus() {
+            return status;
+        }
+
+        // From request sent to body fully loaded
+        public Duration getDuration() {
+            return duration;
+        }
+
+        @Override
+        public String toString() {
+            return method + " " + getPath() + " -> " + status + " in " + duration.toMillis() + "ms";
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.expensetracker.base;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Runs server.js as a child process on a given port and MongoDB database
+ * Output goes to a log file next to the reports so a failing fork can be diagnosed,
+ * and optionally to a listener such as the report.
+ */
+public class NodeServerProcess {
+    
+    private final int port;
+    private final String mongoUri;
+    private final File logFile;
+    private final Consumer<String> logListener;
+    private Process process;
+    
+    /**
+     * @param port Port passed to server.js as PORT
+     * @param mongoUri Connection string passed as MONGO_URI, including the database name
+     * @param logFile File receiving stdout and stderr of the server
+     */
+    public NodeServerProcess(int port, String mongoUri, File logFile) {
+        this(port, mongoUri, logFile, line -> { });
+    }
+    
+    /**
+     * @param logListener Receives each output line as the server writes it
+     */
+    public NodeServerProcess(int port, String mongoUri, File logFile, Consumer<String> logListener) {
+        this.port = port;
+        this.mongoUri = mongoUri;
+        this.logFile = logFile;
+        this.logListener = logListener;
+    }
+    
+    /**
+     * Start server.js from the project directory and wait until /readyz reports MongoDB connected
+     * @param timeout Maximum time to wait for readiness
+     */
+    public void start(Duration timeout) throws IOException {
+        logFile.getParentFile().mkdirs();
+        ProcessBuilder builder = new ProcessBuilder(System.getProperty("node.executable", "node"), "server.js")
+                .directory(new File(System.getProperty("app.dir", ".")))
+                .redirectErrorStream(true);
+        builder.environment().put("PORT", String.valueOf(port));
+        builder.environment().put("MONGO_URI", mongoUri);
+        builder.environment().put("ADMIN_TOKEN", TestConfig.ADMIN_TOKEN);
+        builder.environment().put("TEST_RUNS_ENABLED", "true");
+        process = builder.start();
+        ProcessOutput.pump(process, "server.js-log", logFile, logListener);
+        
+        ReadinessProbe probe = new ReadinessProbe("http://localhost:" + port);
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (!probe.isReady()) {
+            if (!process.isAlive()) {
+                throw new IOException("server.js exited with code " + process.exitValue() + " - see " + logFile);
+            }
+            if (System.nanoTime() > deadline) {
+                stop();
+                throw new IOException("server.js on port " + port + " not ready within " + timeout
+                        + ": " + probe.getLastState() + " - see " + logFile);
+            }
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for server.js", e);
+            }
+        }
+    }
+    
+    public void stop() {
+        if (process != null && process.isAlive()) {
+            process.destroy();
+            try {
+                if (!process.waitFor(5, TimeUnit.SECONDS)) {
+                    process.destroyForcibly();
+                }
+            } catch (InterruptedException e) {
+                process.destroyForcibly();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
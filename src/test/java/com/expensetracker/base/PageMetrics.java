@@ -0,0 +1,122 @@
+package com.expensetracker.base;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.devtools.Command;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.HasDevTools;
+import org.openqa.selenium.json.Json;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Page-level memory, DOM and main-thread time counters read through Chrome DevTools (Performance.getMetrics)
+ * Used by soak tests to watch a long-lived tab for growth, and by benchmarks to attribute scripting time. Like NetworkMonitor it sends raw CDP
+ * commands, so it is independent of the CDP versions bundled with Selenium. Chromium only.
+ */
+public class PageMetrics {
+
+    private final DevTools devTools;
+
+    private PageMetrics(DevTools devTools) {
+        this.devTools = devTools;
+    }
+
+    /**
+     * @param driver A Chromium-based driver
+     */
+    public static PageMetrics attach(WebDriver driver) {
+        if (!(driver instanceof HasDevTools)) {
+            throw new IllegalArgumentException("DevTools not available for " + driver.getClass().getSimpleName());
+        }
+        DevTools devTools = ((HasDevTools) driver).getDevTools();
+        devTools.createSessionIfThereIsNotOne();
+        devTools.send(new Command<>("Performance.enable", new HashMap<>()));
+        return new PageMetrics(devTools);
+    }
+
+    /**
+     * Force a full garbage collection in the page, so samples show retained memory rather than garbage
+     */
+    public void collectGarbage() {
+        devTools.send(new Command<>("HeapProfiler.collectGarbage", new HashMap<>()));
+    }
+
+    /**
+     * Read the current counters
+     * @return Sample with JS heap, DOM node, event listener and document counts, and cumulative scripting,
+     *         layout and style time
+     */
+    @SuppressWarnings("unchecked")
+    public Sample sample() {
+        Map<String, Object> result = devTools.send(new Command<>("Performance.getMetrics", new HashMap<>(),
+                input -> input.<Map<String, Object>>read(Json.MAP_TYPE)));
+        Map<String, Double> metrics = new HashMap<>();
+        for (Object metric : (List<Object>) result.get("metrics")) {
+            Map<String, Object> entry = (Map<String, Object>) metric;
+            metrics.put((String) entry.get("name"), ((Number) entry.get("value")).doubleValue());
+        }
+        return new Sample(
+                metrics.getOrDefault("JSHeapUsedSize", 0.0).longValue(),
+                metrics.getOrDefault("Nodes", 0.0).longValue(),
+                metrics.getOrDefault("JSEventListeners", 0.0).longValue(),
+                metrics.getOrDefault("Documents", 0.0).longValue(),
+                metrics.getOrDefault("ScriptDuration", 0.0),
+                metrics.getOrDefault("LayoutDuration", 0.0) + metrics.getOrDefault("RecalcStyleDuration", 0.0));
+    }
+
+    /**
+     * One reading of the page counters
+     */
+    public static final class Sample {
+        private final long jsHeapUsedBytes;
+        private final long domNodes;
+        private final long eventListeners;
+        private final long documents;
+        private final double scriptSeconds;
+        private final double layoutSeconds;
+
+        Sample(long jsHeapUsedBytes, long domNodes, long eventListeners, long documents,
+               double scriptSeconds, double layoutSeconds) {
+            this.jsHeapUsedBytes = jsHeapUsedBytes;
+            this.domNodes = domNodes;
+            this.eventListeners = eventListeners;
+            this.documents = documents;
+            this.scriptSeconds = scriptSeconds;
+            this.layoutSeconds = layoutSeconds;
+        }
+
+        public long getJsHeapUsedBytes() {
+            return jsHeapUsedBytes;
+        }
+
+        public long getDomNodes() {
+            return domNodes;
+        }
+
+        public long getEventListeners() {
+            return eventListeners;
+        }
+
+        public long getDocuments() {
+            return documents;
+        }
+
+        // Main-thread time spent running JavaScript since the page was created
+        public double getScriptSeconds() {
+            return scriptSeconds;
+        }
+
+        // Main-thread time spent in layout and style recalculation since the page was created
+        public double getLayoutSeconds() {
+            return layoutSeconds;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("heap=%.1fKB nodes=%d listeners=%d documents=%d",
+                    jsHeapUsedBytes / 1024.0, domNodes, eventListeners, documents);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.expensetracker.base;
+
+import org.testng.IInvokedMethod;
+import org.testng.IInvokedMethodListener;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ITestNGMethod;
+import org.testng.ITestResult;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * TestNG listener that times every test method and every setup/teardown step of the run
+ * Invocations of the same method (data provider rows, one setup per test) are averaged, separately
+ * per browser. BaseApiTest hands the averages to PerformanceTrend when the suite ends.
+ */
+public class PerformanceRecorder implements IInvokedMethodListener, ISuiteListener {
+
+    // Metric name -> { invocations, total millis }
+    private static final Map<String, long[]> TIMINGS = new ConcurrentHashMap<>();
+    private static volatile String suiteName;
+    private static volatile long suiteStart;
+
+    @Override
+    public void onStart(ISuite suite) {
+        suiteName = suite.getName();
+        suiteStart = System.currentTimeMillis();
+    }
+
+    @Override
+    public void afterInvocation(IInvokedMethod method, ITestResult result) {
+        ITestNGMethod testMethod = method.getTestMethod();
+        String browser = result.getTestContext().getCurrentXmlTest().getParameter("browser");
+        String name = (method.isTestMethod() ? "test " : "step ")
+                + testMethod.getRealClass().getSimpleName() + "." + testMethod.getMethodName()
+                + (browser == null ? "" : " [" + browser + "]");
+        long millis = result.getEndMillis() - result.getStartMillis();
+        TIMINGS.compute(name, (key, timing) -> timing == null
+                ? new long[] {1, millis}
+                : new long[] {timing[0] + 1, timing[1] + millis});
+    }
+
+    public static String getSuiteName() {
+        return suiteName;
+    }
+
+    /**
+     * @return Milliseconds since the suite started, backend startup included
+     */
+    public static long suiteMillis() {
+        return System.currentTimeMillis() - suiteStart;
+    }
+
+    /**
+     * @return Mean milliseconds per invocation of each test method and setup/teardown step so far
+     */
+    public static Map<String, Double> meanMillis() {
+        Map<String, Double> means = new TreeMap<>();
+        TIMINGS.forEach((name, timing) -> means.put(name, (double) timing[1] / timing[0]));
+        return means;
+    }
+}
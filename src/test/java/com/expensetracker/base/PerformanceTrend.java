@@ -0,0 +1,318 @@
+package com.expensetracker.base;
+
+import org.openqa.selenium.json.Json;
+import org.openqa.selenium.json.JsonOutput;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Run-over-run history of test, step and server timings, with regression detection
+ * Every run appends one JSON line (time, commit, suite and its metrics in milliseconds) to an
+ * append-only file under test-output/, so the history survives the report being overwritten.
+ *
+ * A metric regressed when this run's value is above the mean of the same suite's last -Dtrend.window
+ * runs by more than -Dtrend.sigma standard deviations, and also by at least -Dtrend.minDeltaMs and
+ * -Dtrend.minIncrease (a fraction of the mean), so that metrics which barely vary don't flag jitter.
+ * Nothing is flagged until a metric has -Dtrend.minRuns runs of history.
+ */
+public class PerformanceTrend {
+
+    public static final Path DEFAULT_FILE = Paths.get("test-output", "perf-history.jsonl");
+
+    private static final Json JSON = new Json();
+
+    private final Path file;
+    private final int window = Integer.getInteger("trend.window", 10);
+    private final int minRuns = Integer.getInteger("trend.minRuns", 5);
+    private final double sigma = Double.parseDouble(System.getProperty("trend.sigma", "3"));
+    private final double minDeltaMs = Double.parseDouble(System.getProperty("trend.minDeltaMs", "50"));
+    private final double minIncrease = Double.parseDouble(System.getProperty("trend.minIncrease", "0.2"));
+
+    /**
+     * @param file History file, created on the first append
+     */
+    public PerformanceTrend(Path file) {
+        this.file = file;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public int getWindow() {
+        return window;
+    }
+
+    public int getMinRuns() {
+        return minRuns;
+    }
+
+    /**
+     * @param suite Suite name
+     * @return Earlier runs of that suite, oldest first; unreadable lines are skipped
+     */
+    public List<Run> history(String suite) throws IOException {
+        List<Run> runs = new ArrayList<>();
+        if (!Files.exists(file)) {
+            return runs;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    Run run = Run.fromJson(JSON.toType(line, Json.MAP_TYPE));
+                    if (run.suite.equals(suite)) {
+                        runs.add(run);
+                    }
+                } catch (RuntimeException e) {
+                    System.out.println("Skipping unreadable trend line: " + line);
+                }
+            }
+        }
+        return runs;
+    }
+
+    /**
+     * Append a run as one line
+     */
+    public void append(Run run) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        StringBuilder line = new StringBuilder();
+        try (JsonOutput out = JSON.newOutput(line)) {
+            out.setPrettyPrint(false).write(run.toJson());
+        }
+        line.append(System.lineSeparator());
+        Files.write(file, line.toString().getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * @param current This run
+     * @param history Earlier runs of the same suite, oldest first
+     * @return Metrics of this run that regressed against the rolling baseline, largest increase first
+     */
+    public List<Regression> regressions(Run current, List<Run> history) {
+        List<Regression> regressions = new ArrayList<>();
+        for (Map.Entry<String, Double> metric : current.metrics.entrySet()) {
+            List<Double> baseline = baseline(metric.getKey(), history);
+            if (baseline.size() < minRuns) {
+                continue;
+            }
+            double mean = mean(baseline);
+            double stddev = stddev(baseline, mean);
+            double value = metric.getValue();
+            double delta = value - mean;
+            if (delta > sigma * stddev && delta >= minDeltaMs && delta >= minIncrease * mean) {
+                regressions.add(new Regression(metric.getKey(), value, mean, stddev, baseline.size()));
+            }
+        }
+        regressions.sort((a, b) -> Double.compare(b.value - b.mean, a.value - a.mean));
+        return regressions;
+    }
+
+    /**
+     * Values of a metric in the last runs of the history that have it, oldest first
+     */
+    public List<Double> baseline(String metric, List<Run> history) {
+        List<Double> values = new ArrayList<>();
+        for (int i = history.size() - 1; i >= 0 && values.size() < window; i--) {
+            Double value = history.get(i).metrics.get(metric);
+            if (value != null) {
+                values.add(value);
+            }
+        }
+        Collections.reverse(values);
+        return values;
+    }
+
+    /**
+     * Line chart of a metric over the baseline runs and this one, as inline SVG for the report
+     * The shaded band is the baseline mean plus or minus -Dtrend.sigma standard deviations;
+     * this run's point is red when it regressed.
+     */
+    public String chart(String metric, List<Run> history, Run current) {
+        List<Double> values = new ArrayList<>(baseline(metric, history));
+        Double latest = current.metrics.get(metric);
+        if (latest == null) {
+            return "";
+        }
+        values.add(latest);
+        List<Double> previous = values.subList(0, values.size() - 1);
+        double mean = previous.isEmpty() ? latest : mean(previous);
+        double stddev = previous.isEmpty() ? 0 : stddev(previous, mean);
+        boolean regressed = regressions(current, history).stream().anyMatch(r -> r.metric.equals(metric));
+
+        int width = 560;
+        int height = 140;
+        int left = 50;
+        int right = 15;
+        int top = 22;
+        int bottom = 20;
+        double max = Math.max(mean + sigma * stddev, Collections.max(values)) * 1.1;
+        if (max <= 0) {
+            max = 1;
+        }
+        double plotWidth = width - left - right;
+        double plotHeight = height - top - bottom;
+        double step = values.size() > 1 ? plotWidth / (values.size() - 1) : 0;
+
+        StringBuilder svg = new StringBuilder(String.format(Locale.ROOT,
+                "<svg xmlns='http://www.w3.org/2000/svg' width='%d' height='%d' style='font:11px sans-serif'>", width, height));
+        svg.append(String.format(Locale.ROOT, "<text x='%d' y='14'>%s</text>", left, escape(metric)));
+        svg.append(String.format(Locale.ROOT, "<text x='2' y='%d'>%.0f ms</text><text x='2' y='%d'>0</text>",
+                top + 4, max, height - bottom));
+        svg.append(String.format(Locale.ROOT, "<line x1='%d' y1='%d' x2='%d' y2='%d' stroke='#999'/>",
+                left, height - bottom, width - right, height - bottom));
+        if (!previous.isEmpty()) {
+            double bandTop = y(Math.min(max, mean + sigma * stddev), max, top, plotHeight);
+            double bandBottom = y(Math.max(0, mean - sigma * stddev), max, top, plotHeight);
+            svg.append(String.format(Locale.ROOT, "<rect x='%d' y='%.1f' width='%.1f' height='%.1f' fill='#dbe9f6'/>",
+                    left, bandTop, plotWidth, Math.max(1, bandBottom - bandTop)));
+            double meanY = y(mean, max, top, plotHeight);
+            svg.append(String.format(Locale.ROOT, "<line x1='%d' y1='%.1f' x2='%d' y2='%.1f' stroke='#6a9fd4' stroke-dasharray='4 3'/>",
+                    left, meanY, width - right, meanY));
+        }
+        StringBuilder points = new StringBuilder();
+        for (int i = 0; i < values.size(); i++) {
+            points.append(String.format(Locale.ROOT, "%.1f,%.1f ", left + i * step, y(values.get(i), max, top, plotHeight)));
+        }
+        svg.append("<polyline fill='none' stroke='#333' stroke-width='1.5' points='").append(points.toString().trim()).append("'/>");
+        for (int i = 0; i < values.size(); i++) {
+            boolean last = i == values.size() - 1;
+            String color = !last ? "#333" : regressed ? "#d9534f" : "#5cb85c";
+            svg.append(String.format(Locale.ROOT, "<circle cx='%.1f' cy='%.1f' r='%d' fill='%s'><title>%.1f ms</title></circle>",
+                    left + i * step, y(values.get(i), max, top, plotHeight), last ? 4 : 2, color, values.get(i)));
+        }
+        svg.append(String.format(Locale.ROOT, "<text x='%d' y='%d' text-anchor='end'>%d earlier runs, this run %.1f ms</text>",
+                width - right, height - 4, previous.size(), latest));
+        return svg.append("</svg>").toString();
+    }
+
+    private static double y(double value, double max, int top, double plotHeight) {
+        return top + plotHeight - value / max * plotHeight;
+    }
+
+    private static double mean(List<Double> values) {
+        double sum = 0;
+        for (double value : values) {
+            sum += value;
+        }
+        return sum / values.size();
+    }
+
+    private static double stddev(List<Double> values, double mean) {
+        if (values.size() < 2) {
+            return 0;
+        }
+        double squares = 0;
+        for (double value : values) {
+            squares += (value - mean) * (value - mean);
+        }
+        return Math.sqrt(squares / (values.size() - 1));
+    }
+
+    private static String escape(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("'", "&#39;");
+    }
+
+    /**
+     * One suite run: when, on which commit, and its metrics in milliseconds
+     */
+    public static class Run {
+
+        private final long time;
+        private final String commit;
+        private final String suite;
+        private final Map<String, Double> metrics;
+
+        public Run(long time, String commit, String suite, Map<String, Double> metrics) {
+            this.time = time;
+            this.commit = commit;
+            this.suite = suite;
+            this.metrics = Collections.unmodifiableMap(new LinkedHashMap<>(metrics));
+        }
+
+        public long getTime() {
+            return time;
+        }
+
+        public String getCommit() {
+            return commit;
+        }
+
+        public String getSuite() {
+            return suite;
+        }
+
+        public Map<String, Double> getMetrics() {
+            return metrics;
+        }
+
+        Map<String, Object> toJson() {
+            Map<String, Object> json = new LinkedHashMap<>();
+            json.put("time", time);
+            json.put("commit", commit);
+            json.put("suite", suite);
+            json.put("metrics", metrics);
+            return json;
+        }
+
+        @SuppressWarnings("unchecked")
+        static Run fromJson(Map<String, Object> json) {
+            Map<String, Double> metrics = new LinkedHashMap<>();
+            ((Map<String, Object>) json.get("metrics")).forEach((name, value) ->
+                    metrics.put(name, ((Number) value).doubleValue()));
+            return new Run(((Number) json.get("time")).longValue(), (String) json.get("commit"),
+                    (String) json.get("suite"), metrics);
+        }
+    }
+
+    /**
+     * A metric whose value in this run is significantly above its rolling baseline
+     */
+    public static class Regression {
+
+        private final String metric;
+        private final double value;
+        private final double mean;
+        private final double stddev;
+        private final int runs;
+
+        Regression(String metric, double value, double mean, double stddev, int runs) {
+            this.metric = metric;
+            this.value = value;
+            this.mean = mean;
+            this.stddev = stddev;
+            this.runs = runs;
+        }
+
+        public String getMetric() {
+            return metric;
+        }
+
+        @Override
+        public String toString() {
+            String increase = mean > 0 ? String.format(Locale.ROOT, "+%.0f%%", (value - mean) / mean * 100) : "new";
+            String sigmas = stddev > 0 ? String.format(Locale.ROOT, "%.1fσ", (value - mean) / stddev) : "no spread";
+            return String.format(Locale.ROOT, "%s: %.1f ms vs %.1f ± %.1f ms over %d runs (%s, %s)",
+                    metric, value, mean, stddev, runs, increase, sigmas);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.expensetracker.base;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/**
+ * Copies a child process's combined output to a log file, line by line, and hands each line to a listener
+ * Runs on a daemon thread until the process closes its output.
+ */
+final class ProcessOutput {
+
+    private ProcessOutput() {
+    }
+
+    /**
+     * @param process Process started with redirectErrorStream(true)
+     * @param name Thread name, e.g. "mongod-log"
+     * @param logFile File the lines are appended to
+     * @param listener Receives every line as it arrives, e.g. to log it in the report
+     */
+    static Thread pump(Process process, String name, File logFile, Consumer<String> listener) {
+        Thread thread = new Thread(() -> {
+            try (BufferedReader in = new BufferedReader(
+                         new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+                 Writer out = new OutputStreamWriter(new FileOutputStream(logFile, true), StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    out.write(line);
+                    out.write(System.lineSeparator());
+                    out.flush();
+                    listener.accept(line);
+                }
+            } catch (IOException e) {
+                System.out.println(name + " stopped: " + e.getMessage());
+            }
+        }, name);
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+}
@@ -0,0 +1,81 @@
+package com.expensetracker.base;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+/**
+ * Polls the server's /readyz endpoint until it reports ready
+ * server.js accepts connections before MongoDB is connected and its indexes are built; /readyz only
+ * returns 200 once requests that need the database will succeed, so tests can start right then.
+ */
+public class ReadinessProbe {
+
+    private final URI readyUri;
+    private final HttpClient http = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofMillis(500))
+            .build();
+    private volatile String lastState = "not checked";
+
+    /**
+     * @param baseUrl Application URL, e.g. http://localhost:3000
+     */
+    public ReadinessProbe(String baseUrl) {
+        this.readyUri = URI.create(baseUrl + "/readyz");
+    }
+
+    /**
+     * Check /readyz once
+     * @return true if it answered 200
+     */
+    public boolean isReady() {
+        try {
+            HttpResponse<String> response = http.send(
+                    HttpRequest.newBuilder(readyUri).timeout(Duration.ofSeconds(2)).GET().build(),
+                    HttpResponse.BodyHandlers.ofString());
+            lastState = response.statusCode() + " " + response.body();
+            return response.statusCode() == 200;
+        } catch (IOException e) {
+            lastState = "unreachable (" + e.getClass().getSimpleName() + ")";
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            lastState = "interrupted";
+            return false;
+        }
+    }
+
+    /**
+     * @return Status and body of the last check, or why it failed
+     */
+    public String getLastState() {
+        return lastState;
+    }
+
+    /**
+     * Poll until ready
+     * @param timeout Maximum time to wait
+     * @param interval Pause between checks
+     * @return How long it took
+     * @throws IllegalStateException If the server is not ready within the timeout
+     */
+    public Duration await(Duration timeout, Duration interval) {
+        long start = System.nanoTime();
+        long deadline = start + timeout.toNanos();
+        while (!isReady()) {
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException(readyUri + " not ready after " + timeout.toSeconds() + "s: " + lastState);
+            }
+            try {
+                Thread.sleep(interval.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for " + readyUri, e);
+            }
+        }
+        return Duration.ofNanos(System.nanoTime() - start);
+    }
+}
@@ -0,0 +1,29 @@
+package com.expensetracker.base;
+
+import com.aventstack.extentreports.Status;
+
+/**
+ * One test entry in a StreamingReport
+ * Holds only the test's id; each log call goes straight to the report's writer queue.
+ */
+public class ReportTest {
+
+    private final StreamingReport report;
+    private final long id;
+
+    ReportTest(StreamingReport report, long id) {
+        this.report = report;
+        this.id = id;
+    }
+
+    /**
+     * Log a step
+     * @param status Step outcome
+     * @param details Message shown in the report
+     * @return This test, for chaining
+     */
+    public ReportTest log(Status status, String details) {
+        report.log(id, status, details);
+        return this;
+    }
+}
@@ -0,0 +1,84 @@
+package com.expensetracker.base;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Per-route request counters and latency histograms for InMemoryExpenseServer
+ * Rendered in the same Prometheus text format and with the same metric names and buckets
+ * as metrics.js, so load tests can scrape either backend.
+ */
+class RequestMetrics {
+
+    // Same bucket bounds as metrics.js, in seconds
+    private static final double[] BUCKETS = {0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10};
+
+    private final Map<String, Long> requests = new TreeMap<>();
+    private final Map<String, Histogram> durations = new TreeMap<>();
+
+    synchronized void observe(String method, String route, int status, long nanos) {
+        requests.merge(labels("method", method, "route", route, "status", String.valueOf(status)), 1L, Long::sum);
+        durations.computeIfAbsent(labels("method", method, "route", route), key -> new Histogram())
+                .observe(nanos / 1e9);
+    }
+
+    synchronized String render() {
+        StringBuilder out = new StringBuilder();
+        out.append("# HELP http_requests_total HTTP requests by route and status code\n");
+        out.append("# TYPE http_requests_total counter\n");
+        requests.forEach((key, count) -> out.append("http_requests_total").append(key).append(' ').append(count).append('\n'));
+
+        out.append("# HELP http_request_duration_seconds Time from request received to response finished\n");
+        out.append("# TYPE http_request_duration_seconds histogram\n");
+        durations.forEach((key, histogram) -> {
+            String open = key.substring(0, key.length() - 1);
+            for (int i = 0; i < BUCKETS.length; i++) {
+                out.append("http_request_duration_seconds_bucket").append(open)
+                   .append(",le=\"").append(format(BUCKETS[i])).append("\"} ").append(histogram.counts[i]).append('\n');
+            }
+            out.append("http_request_duration_seconds_bucket").append(open).append(",le=\"+Inf\"} ")
+               .append(histogram.count).append('\n');
+            out.append("http_request_duration_seconds_sum").append(key).append(' ').append(format(histogram.sum)).append('\n');
+            out.append("http_request_duration_seconds_count").append(key).append(' ').append(histogram.count).append('\n');
+        });
+
+        Runtime runtime = Runtime.getRuntime();
+        out.append("# HELP jvm_heap_used_bytes JVM heap in use\n");
+        out.append("# TYPE jvm_heap_used_bytes gauge\n");
+        out.append("jvm_heap_used_bytes ").append(runtime.totalMemory() - runtime.freeMemory()).append('\n');
+        return out.toString();
+    }
+
+    private static String labels(String... namesAndValues) {
+        StringBuilder key = new StringBuilder("{");
+        for (int i = 0; i < namesAndValues.length; i += 2) {
+            if (i > 0) {
+                key.append(',');
+            }
+            String value = namesAndValues[i + 1].replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+            key.append(namesAndValues[i]).append("=\"").append(value).append('"');
+        }
+        return key.append('}').toString();
+    }
+
+    private static String format(double value) {
+        return value == Math.rint(value) ? String.valueOf((long) value) : String.format(Locale.ROOT, "%s", value);
+    }
+
+    private static final class Histogram {
+        private final long[] counts = new long[BUCKETS.length];
+        private double sum;
+        private long count;
+
+        void observe(double seconds) {
+            for (int i = 0; i < BUCKETS.length; i++) {
+                if (seconds <= BUCKETS[i]) {
+                    counts[i]++;
+                }
+            }
+            sum += seconds;
+            count++;
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package com.expensetracker.base;
+
+import org.openqa.selenium.json.Json;
+import org.openqa.selenium.json.JsonOutput;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * API traffic of one test, recorded by TrafficRecorder and replayed at scale by ScenarioReplayer
+ * Steps are templates: ${email} and ${password} stand for the user, ${idN} for ids taken from an
+ * earlier response (see {@link Step#getExtract()}) and ${cookie.NAME} for cookies the server set.
+ */
+public class Scenario {
+
+    private static final Json JSON = new Json();
+    private static final Pattern VARIABLE = Pattern.compile("\\$\\{([^}]+)}");
+    // Variable with its counter split off, so ${id1} and ${id2} report under the same route
+    private static final Pattern ROUTE_PARAMETER = Pattern.compile("\\$\\{([^}]*?)\\d*}");
+
+    private final String name;
+    private final List<Step> steps;
+
+    public Scenario(String name, List<Step> steps) {
+        this.name = name;
+        this.steps = Collections.unmodifiableList(new ArrayList<>(steps));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<Step> getSteps() {
+        return steps;
+    }
+
+    /**
+     * @return Whether the scenario logs in as ${email} without registering it first
+     */
+    public boolean needsAccount() {
+        for (Step step : steps) {
+            if ("POST".equals(step.method) && "/register".equals(step.getRoute())) {
+                return false;
+            }
+        }
+        return steps.stream().anyMatch(step -> step.body != null && step.body.contains("${email}"));
+    }
+
+    /**
+     * Replace every ${name} in a template
+     * @throws IllegalStateException If a variable has no value
+     */
+    public static String substitute(String template, Map<String, String> variables) {
+        Matcher matcher = VARIABLE.matcher(template);
+        StringBuilder result = new StringBuilder();
+        while (matcher.find()) {
+            String value = variables.get(matcher.group(1));
+            if (value == null) {
+                throw new IllegalStateException("No value for ${" + matcher.group(1) + "} in " + template);
+            }
+            matcher.appendReplacement(result, Matcher.quoteReplacement(value));
+        }
+        return matcher.appendTail(result).toString();
+    }
+
+    public void save(Path file) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        List<Map<String, Object>> stepsJson = new ArrayList<>();
+        for (Step step : steps) {
+            stepsJson.add(step.toJson());
+        }
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("name", name);
+        json.put("steps", stepsJson);
+        StringBuilder text = new StringBuilder();
+        try (JsonOutput out = JSON.newOutput(text)) {
+            out.write(json);
+        }
+        Files.write(file, text.append('\n').toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    @SuppressWarnings("unchecked")
+    public static Scenario load(Path file) throws IOException {
+        Map<String, Object> json = JSON.toType(new String(Files.readAllBytes(file), StandardCharsets.UTF_8), Json.MAP_TYPE);
+        List<Step> steps = new ArrayList<>();
+        for (Map<String, Object> step : (List<Map<String, Object>>) json.get("steps")) {
+            steps.add(Step.fromJson(step));
+        }
+        return new Scenario((String) json.get("name"), steps);
+    }
+
+    /**
+     * @return Every *.json scenario in a directory, by file name; empty if the directory does not exist
+     */
+    public static List<Scenario> loadAll(Path directory) throws IOException {
+        List<Scenario> scenarios = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return scenarios;
+        }
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(file -> file.getFileName().toString().endsWith(".json")).sorted()
+                    .collect(Collectors.toList());
+        }
+        for (Path file : files) {
+            scenarios.add(load(file));
+        }
+        return scenarios;
+    }
+
+    /**
+     * One request, the status it got when recorded, and how long the user paused before sending it
+     */
+    public static class Step {
+
+        private final String method;
+        private final String path;
+        private final Map<String, String> headers;
+        private final String body;
+        private final int status;
+        private final long thinkMs;
+        private final Map<String, String> extract;
+
+        /**
+         * @param path Path and query, may contain ${variables}
+         * @param headers Request headers to send (Content-Type, Cookie), may contain ${variables}
+         * @param body Request body, or null
+         * @param status Status the request got when recorded
+         * @param thinkMs Pause between the end of the previous response and this request
+         * @param extract Variable name -> dotted path into this step's JSON response, e.g. id1 -> expenses.0._id
+         */
+        public Step(String method, String path, Map<String, String> headers, String body, int status,
+                    long thinkMs, Map<String, String> extract) {
+            this.method = method;
+            this.path = path;
+            this.headers = new LinkedHashMap<>(headers);
+            this.body = body;
+            this.status = status;
+            this.thinkMs = thinkMs;
+            this.extract = new LinkedHashMap<>(extract);
+        }
+
+        public String getMethod() {
+            return method;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public Map<String, String> getHeaders() {
+            return headers;
+        }
+
+        public String getBody() {
+            return body;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+
+        public long getThinkMs() {
+            return thinkMs;
+        }
+
+        public Map<String, String> getExtract() {
+            return extract;
+        }
+
+        void addExtract(String variable, String jsonPath) {
+            extract.put(variable, jsonPath);
+        }
+
+        /**
+         * @return Path without query, variables shown as route parameters, e.g. /delete-expense/:id
+         */
+        public String getRoute() {
+            int query = path.indexOf('?');
+            return ROUTE_PARAMETER.matcher(query < 0 ? path : path.substring(0, query)).replaceAll(":$1");
+        }
+
+        /**
+         * @return Method and route, the key latencies are reported under
+         */
+        public String getName() {
+            return method + " " + getRoute();
+        }
+
+        Map<String, Object> toJson() {
+            Map<String, Object> json = new LinkedHashMap<>();
+            json.put("method", method);
+            json.put("path", path);
+            json.put("headers", headers);
+            if (body != null) {
+                json.put("body", body);
+            }
+            json.put("status", status);
+            json.put("thinkMs", thinkMs);
+            if (!extract.isEmpty()) {
+                json.put("extract", extract);
+            }
+            return json;
+        }
+
+        @SuppressWarnings("unchecked")
+        static Step fromJson(Map<String, Object> json) {
+            Map<String, String> headers = new LinkedHashMap<>();
+            Map<String, String> extract = new LinkedHashMap<>();
+            if (json.get("headers") != null) {
+                ((Map<String, Object>) json.get("headers")).forEach((name, value) -> headers.put(name, String.valueOf(value)));
+            }
+            if (json.get("extract") != null) {
+                ((Map<String, Object>) json.get("extract")).forEach((name, value) -> extract.put(name, String.valueOf(value)));
+            }
+            return new Step((String) json.get("method"), (String) json.get("path"), headers, (String) json.get("body"),
+                    ((Number) json.get("status")).intValue(), ((Number) json.getOrDefault("thinkMs", 0)).longValue(), extract);
+        }
+
+        @Override
+        public String toString() {
+            return getName();
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package com.expensetracker.base;
+
+import org.openqa.selenium.json.Json;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Replays recorded scenarios as many concurrent users, each with its own account and cookies
+ * Every scenario runs as usersPerScenario virtual users, started evenly over the ramp-up. A user sends
+ * the scenario's requests one after another, pausing for the recorded think time (times thinkScale),
+ * and starts over as a new account for each iteration. A request that fails, or gets a different status
+ * than when it was recorded, counts as an error and ends that iteration, since later steps may depend on it.
+ *
+ * Users run on virtual threads when the JVM has them (Java 21+), otherwise on one platform thread each.
+ */
+public class ScenarioReplayer {
+
+    private static final Json JSON = new Json();
+    private static final String PASSWORD = "ReplayPass123";
+
+    private final String baseUrl;
+    private final int usersPerScenario;
+    private final Duration rampUp;
+    private final double thinkScale;
+    private final int iterations;
+    private final HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+    private final Map<String, LatencyStats> stats = new ConcurrentHashMap<>();
+    private final AtomicInteger completedIterations = new AtomicInteger();
+    private final AtomicInteger failedIterations = new AtomicInteger();
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+
+    /**
+     * @param baseUrl Application URL
+     * @param usersPerScenario Concurrent users replaying each scenario
+     * @param rampUp Time over which the users are started
+     * @param thinkScale Multiplier for recorded think times, 0 for none
+     * @param iterations Times each user runs its scenario
+     */
+    public ScenarioReplayer(String baseUrl, int usersPerScenario, Duration rampUp, double thinkScale, int iterations) {
+        this.baseUrl = baseUrl;
+        this.usersPerScenario = usersPerScenario;
+        this.rampUp = rampUp;
+        this.thinkScale = thinkScale;
+        this.iterations = iterations;
+    }
+
+    /**
+     * Replay the scenarios together and wait for every user to finish
+     * @return Latency per request ("METHOD /route"), ordered by name
+     */
+    public Map<String, LatencyStats> replay(List<Scenario> scenarios) throws Exception {
+        int users = scenarios.size() * usersPerScenario;
+        long rampUpNanos = rampUp.toNanos();
+        long start = System.nanoTime();
+        List<Future<?>> running = new ArrayList<>();
+        ExecutorService executor = newExecutor(users);
+        try {
+            int user = 0;
+            for (int i = 0; i < usersPerScenario; i++) {
+                for (Scenario scenario : scenarios) {
+                    long startAt = start + (users > 1 ? rampUpNanos * user / (users - 1) : 0);
+                    int userNumber = user++;
+                    running.add(executor.submit(() -> runUser(scenario, userNumber, startAt)));
+                }
+            }
+            for (Future<?> future : running) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return new TreeMap<>(stats);
+    }
+
+    public int getCompletedIterations() {
+        return completedIterations.get();
+    }
+
+    public int getFailedIterations() {
+        return failedIterations.get();
+    }
+
+    /**
+     * @return "virtual" or "platform", the kind of thread users run on in this JVM
+     */
+    public static String threadKind() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return "virtual";
+        } catch (NoSuchMethodException e) {
+            return "platform";
+        }
+    }
+
+    // The build targets Java 11, so virtual threads can only be looked up at run time
+    private static ExecutorService newExecutor(int users) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(Math.max(1, users));
+        }
+    }
+
+    private void runUser(Scenario scenario, int user, long startAt) {
+        if (!pauseNanos(startAt - System.nanoTime())) {
+            return;
+        }
+        for (int iteration = 0; iteration < iterations && !Thread.currentThread().isInterrupted(); iteration++) {
+            Map<String, String> variables = new HashMap<>();
+            variables.put("email", "replay-" + runId + "-" + user + "-" + iteration + "@example.com");
+            variables.put("password", PASSWORD);
+            if (runIteration(scenario, variables)) {
+                completedIterations.incrementAndGet();
+            } else {
+                failedIterations.incrementAndGet();
+            }
+        }
+    }
+
+    private boolean runIteration(Scenario scenario, Map<String, String> variables) {
+        if (scenario.needsAccount() && !register(variables)) {
+            return false;
+        }
+        for (Scenario.Step step : scenario.getSteps()) {
+            if (!pauseNanos(TimeUnit.MILLISECONDS.toNanos(Math.round(step.getThinkMs() * thinkScale)))) {
+                return false;
+            }
+            LatencyStats requestStats = stats.computeIfAbsent(step.getName(), LatencyStats::new);
+            try {
+                HttpRequest request = request(step, variables);
+                long sent = System.nanoTime();
+                HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+                long elapsed = System.nanoTime() - sent;
+                if (response.statusCode() != step.getStatus()) {
+                    requestStats.recordError();
+                    return false;
+                }
+                requestStats.record(elapsed);
+                keepCookies(response, variables);
+                extract(step, response.body(), variables);
+            } catch (IOException | RuntimeException e) {
+                requestStats.recordError();
+                return false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Scenarios recorded after the test user registered need the account to exist first; not measured
+    private boolean register(Map<String, String> variables) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("name", "Replay User");
+        body.put("email", variables.get("email"));
+        body.put("password", variables.get("password"));
+        try {
+            HttpResponse<String> response = http.send(HttpRequest.newBuilder(URI.create(baseUrl + "/register"))
+                    .timeout(Duration.ofSeconds(30))
+                    .header("Content-Type", "application/json")
+                    .header(ApiClient.TEST_RUN_HEADER, TestConfig.TEST_RUN)
+                    .POST(HttpRequest.BodyPublishers.ofString(JSON.toJson(body))).build(), HttpResponse.BodyHandlers.ofString());
+            return response.statusCode() < 400;
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private HttpRequest request(Scenario.Step step, Map<String, String> variables) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + Scenario.substitute(step.getPath(), variables)))
+                .timeout(Duration.ofSeconds(30))
+                .header(ApiClient.TEST_RUN_HEADER, TestConfig.TEST_RUN);
+        for (Map.Entry<String, String> header : step.getHeaders().entrySet()) {
+            String value = header.getKey().equalsIgnoreCase("Cookie")
+                    ? cookieHeader(header.getValue(), variables)
+                    : Scenario.substitute(header.getValue(), variables);
+            if (!value.isEmpty()) {
+                request.header(header.getKey(), value);
+            }
+        }
+        HttpRequest.BodyPublisher body = step.getBody() == null
+                ? HttpRequest.BodyPublishers.noBody()
+                : HttpRequest.BodyPublishers.ofString(Scenario.substitute(step.getBody(), variables));
+        return request.method(step.getMethod(), body).build();
+    }
+
+    // Cookies the server has not set for this user are left out, as the browser would
+    private static String cookieHeader(String template, Map<String, String> variables) {
+        StringBuilder cookies = new StringBuilder();
+        for (String pair : template.split(";")) {
+            try {
+                String cookie = Scenario.substitute(pair.trim(), variables);
+                cookies.append(cookies.length() == 0 ? "" : "; ").append(cookie);
+            } catch (IllegalStateException e) {
+                // Not set yet
+            }
+        }
+        return cookies.toString();
+    }
+
+    private static void keepCookies(HttpResponse<String> response, Map<String, String> variables) {
+        for (String setCookie : response.headers().allValues("Set-Cookie")) {
+            String pair = setCookie.split(";", 2)[0];
+            int equals = pair.indexOf('=');
+            if (equals > 0) {
+                variables.put("cookie." + pair.substring(0, equals).trim(), pair.substring(equals + 1).trim());
+            }
+        }
+    }
+
+    private static void extract(Scenario.Step step, String body, Map<String, String> variables) {
+        if (step.getExtract().isEmpty()) {
+            return;
+        }
+        Object json = JSON.toType(body, Object.class);
+        for (Map.Entry<String, String> rule : step.getExtract().entrySet()) {
+            Object value = json;
+            for (String part : rule.getValue().split("\\.")) {
+                if (value instanceof Map) {
+                    value = ((Map<?, ?>) value).get(part);
+                } else if (value instanceof List && part.chars().allMatch(Character::isDigit)
+                        && Integer.parseInt(part) < ((List<?>) value).size()) {
+                    value = ((List<?>) value).get(Integer.parseInt(part));
+                } else {
+                    value = null;
+                }
+            }
+            if (value == null) {
+                throw new IllegalStateException("No " + rule.getValue() + " in the response to " + step);
+            }
+            variables.put(rule.getKey(), String.valueOf(value));
+        }
+    }
+
+    // Sleep, cheap on a virtual thread; false if interrupted
+    private static boolean pauseNanos(long nanos) {
+        if (nanos <= 0) {
+            return true;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.expensetracker.base;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * One scrape of the server's /metrics endpoint (Prometheus text format, see metrics.js)
+ * Parses every sample line into name, labels and value; HELP/TYPE comments are ignored.
+ */
+public class ServerMetrics {
+
+    private final List<Sample> samples;
+
+    private ServerMetrics(List<Sample> samples) {
+        this.samples = samples;
+    }
+
+    /**
+     * Scrape /metrics through the client, with the suite's admin token
+     * @throws IllegalStateException If the server has no metrics endpoint or doesn't accept the token
+     */
+    public static ServerMetrics scrape(ApiClient client) {
+        ApiClient.ApiResponse response = client.metrics(TestConfig.ADMIN_TOKEN);
+        if (response.status() != 200) {
+            throw new IllegalStateException("GET /metrics returned " + response.status()
+                    + (TestConfig.serverKnowsAdminToken() ? "" : " (ADMIN_TOKEN of server.js not given, -Dadmin.token)"));
+        }
+        return parse(response.body());
+    }
+
+    public static ServerMetrics parse(String text) {
+        List<Sample> samples = new ArrayList<>();
+        for (String line : text.split("\n")) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            samples.add(parseLine(line));
+        }
+        return new ServerMetrics(samples);
+    }
+
+    public boolean has(String name) {
+        for (Sample sample : samples) {
+            if (sample.name.equals(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Sum of all series of a metric whose labels include the given ones
+     * @param name Metric name, e.g. "http_request_duration_seconds_count"
+     * @param labelPairs Label names and values, e.g. "route", "/add-expense"
+     * @return The sum, 0 if no series matches
+     */
+    public double value(String name, String... labelPairs) {
+        double total = 0;
+        for (Sample sample : samples) {
+            if (sample.name.equals(name) && sample.matches(labelPairs)) {
+                total += sample.value;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Distinct values of one label across the series of a metric, e.g. every route seen
+     */
+    public Set<String> labelValues(String name, String label) {
+        Set<String> values = new LinkedHashSet<>();
+        for (Sample sample : samples) {
+            if (sample.name.equals(name) && sample.labels.containsKey(label)) {
+                values.add(sample.labels.get(label));
+            }
+        }
+        return values;
+    }
+
+    private static Sample parseLine(String line) {
+        Map<String, String> labels = new LinkedHashMap<>();
+        int brace = line.indexOf('{');
+        int space = line.indexOf(' ');
+        String name;
+        int rest;
+        if (brace >= 0 && brace < space) {
+            name = line.substring(0, brace);
+            rest = parseLabels(line, brace + 1, labels);
+        } else {
+            name = line.substring(0, space);
+            rest = space;
+        }
+        // A timestamp may follow the value
+        String[] valueAndTimestamp = line.substring(rest).trim().split("\\s+");
+        return new Sample(name, Collections.unmodifiableMap(labels), parseValue(valueAndTimestamp[0]));
+    }
+
+    /**
+     * @return Index just after the closing brace
+     */
+    private static int parseLabels(String line, int index, Map<String, String> labels) {
+        while (line.charAt(index) != '}') {
+            int eq = line.indexOf('=', index);
+            String label = line.substring(index, eq).trim();
+            StringBuilder value = new StringBuilder();
+            int i = eq + 2; // skip ="
+            while (line.charAt(i) != '"') {
+                char c = line.charAt(i);
+                if (c == '\\') {
+                    char escaped = line.charAt(++i);
+                    value.append(escaped == 'n' ? '\n' : escaped);
+                } else {
+                    value.append(c);
+                }
+                i++;
+            }
+            labels.put(label, value.toString());
+            index = i + 1;
+            if (line.charAt(index) == ',') {
+                index++;
+            }
+        }
+        return index + 1;
+    }
+
+    private static double parseValue(String text) {
+        switch (text) {
+            case "+Inf":
+                return Double.POSITIVE_INFINITY;
+            case "-Inf":
+                return Double.NEGATIVE_INFINITY;
+            case "NaN":
+                return Double.NaN;
+            default:
+                return Double.parseDouble(text);
+        }
+    }
+
+    private static final class Sample {
+        private final String name;
+        private final Map<String, String> labels;
+        private final double value;
+
+        Sample(String name, Map<String, String> labels, double value) {
+            this.name = name;
+            this.labels = labels;
+            this.value = value;
+        }
+
+        boolean matches(String... labelPairs) {
+            for (int i = 0; i < labelPairs.length; i += 2) {
+                if (!labelPairs[i + 1].equals(labels.get(labelPairs[i]))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.expensetracker.base;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * Splits test classes across shards using their historical durations
+ * Longest classes are placed first, each on the currently lightest shard (LPT scheduling),
+ * so shards finish at roughly the same time. Classes without history get the median duration.
+ */
+public final class ShardPlanner {
+    
+    // Assumed duration of a class when there is no history at all
+    private static final long DEFAULT_DURATION_MS = 60_000;
+    
+    private ShardPlanner() {
+    }
+    
+    /**
+     * @param classes Fully qualified test class names
+     * @param durations Historical class durations in milliseconds
+     * @param shards Number of shards
+     * @return One list of class names per shard; a shard can be empty when there are fewer classes
+     */
+    public static List<List<String>> plan(List<String> classes, Map<String, Long> durations, int shards) {
+        long fallback = median(durations.values());
+        List<String> ordered = new ArrayList<>(classes);
+        ordered.sort(Comparator.comparingLong((String c) -> durations.getOrDefault(c, fallback)).reversed()
+                .thenComparing(Comparator.naturalOrder()));
+        
+        List<List<String>> plan = new ArrayList<>();
+        long[] load = new long[shards];
+        for (int i = 0; i < shards; i++) {
+            plan.add(new ArrayList<>());
+        }
+        for (String testClass : ordered) {
+            int lightest = 0;
+            for (int i = 1; i < shards; i++) {
+                if (load[i] < load[lightest]) {
+                    lightest = i;
+                }
+            }
+            plan.get(lightest).add(testClass);
+            load[lightest] += durations.getOrDefault(testClass, fallback);
+        }
+        return plan;
+    }
+    
+    /**
+     * @return Estimated duration in ms of one shard according to the history
+     */
+    public static long estimate(List<String> shard, Map<String, Long> durations) {
+        long fallback = median(durations.values());
+        long total = 0;
+        for (String testClass : shard) {
+            total += durations.getOrDefault(testClass, fallback);
+        }
+        return total;
+    }
+    
+    public static Map<String, Long> loadDurations(Path file) throws IOException {
+        Map<String, Long> durations = new TreeMap<>();
+        if (!Files.exists(file)) {
+            return durations;
+        }
+        Properties props = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            props.load(reader);
+        }
+        for (String name : props.stringPropertyNames()) {
+            durations.put(name, Long.parseLong(props.getProperty(name).trim()));
+        }
+        return durations;
+    }
+    
+    public static void saveDurations(Path file, Map<String, Long> durations) throws IOException {
+        Properties props = new Properties();
+        durations.forEach((name, ms) -> props.setProperty(name, String.valueOf(ms)));
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            props.store(writer, "Test class durations in milliseconds");
+        }
+    }
+    
+    private static long median(Collection<Long> values) {
+        if (values.isEmpty()) {
+            return DEFAULT_DURATION_MS;
+        }
+        List<Long> sorted = new ArrayList<>(values);
+        sorted.sort(null);
+        return sorted.get(sorted.size() / 2);
+    }
+}
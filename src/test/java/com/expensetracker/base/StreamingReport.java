@@ -0,0 +1,269 @@
+package com.expensetracker.base;
+
+import com.aventstack.extentreports.ExtentReports;
+import com.aventstack.extentreports.ExtentTest;
+import com.aventstack.extentreports.Status;
+import com.aventstack.extentreports.model.Log;
+import com.aventstack.extentreports.reporter.ExtentSparkReporter;
+import com.aventstack.extentreports.reporter.configuration.Theme;
+import org.openqa.selenium.json.Json;
+import org.openqa.selenium.json.JsonOutput;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Test report that is appended to disk while the suite runs
+ * Every createTest/log call becomes one JSON line, queued and written by a background thread.
+ * Nothing is kept per test, so memory stays flat however long the run is; when the queue is full
+ * callers wait for the writer instead of buffering more. Safe to use from any number of threads.
+ *
+ * The Spark HTML is rendered from the stream file after the run ({@link #render(Path, String)}).
+ * If a run dies before that, the stream keeps everything logged so far and can be rendered with:
+ *   java -cp target/test-classes:... com.expensetracker.base.StreamingReport test-output/ExtentReport.jsonl
+ */
+public class StreamingReport implements AutoCloseable {
+
+    private static final Json JSON = new Json();
+    // Queued by close(); JSON events are never empty
+    private static final String END_OF_STREAM = "";
+
+    private final Path streamFile;
+    private final BlockingQueue<String> queue;
+    private final AtomicLong nextTestId = new AtomicLong();
+    private final Thread writerThread;
+    private volatile IOException writeFailure;
+    // Appends share the read lock so they still run in parallel; close() takes the write lock, so no
+    // event can be queued behind END_OF_STREAM
+    private final ReadWriteLock closeLock = new ReentrantReadWriteLock();
+    private boolean closed;
+
+    /**
+     * @param streamFile JSON lines file, replaced if it exists
+     * @param queueCapacity Events that may wait for the writer before callers block
+     */
+    public StreamingReport(Path streamFile, int queueCapacity) throws IOException {
+        this.streamFile = streamFile;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        if (streamFile.getParent() != null) {
+            Files.createDirectories(streamFile.getParent());
+        }
+        BufferedWriter writer = Files.newBufferedWriter(streamFile, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        writerThread = new Thread(() -> drain(writer), "report-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    public Path getStreamFile() {
+        return streamFile;
+    }
+
+    public void setSystemInfo(String name, String value) {
+        Map<String, Object> event = new LinkedHashMap<>();
+        event.put("type", "system");
+        event.put("name", name);
+        event.put("value", value);
+        append(event);
+    }
+
+    /**
+     * Start a test entry in the report
+     * @param name Test name, e.g. "TC-EXP-01"
+     * @param description What the test checks
+     * @return Handle to log steps against
+     */
+    public ReportTest createTest(String name, String description) {
+        long id = nextTestId.incrementAndGet();
+        Map<String, Object> event = new LinkedHashMap<>();
+        event.put("type", "test");
+        event.put("id", id);
+        event.put("name", name);
+        event.put("description", description);
+        event.put("time", System.currentTimeMillis());
+        append(event);
+        return new ReportTest(this, id);
+    }
+
+    void log(long testId, Status status, String details) {
+        Map<String, Object> event = new LinkedHashMap<>();
+        event.put("type", "log");
+        event.put("id", testId);
+        event.put("status", status.name());
+        event.put("details", details);
+        event.put("time", System.currentTimeMillis());
+        append(event);
+    }
+
+    private void append(Map<String, Object> event) {
+        StringBuilder line = new StringBuilder();
+        try (JsonOutput out = JSON.newOutput(line)) {
+            out.setPrettyPrint(false).write(event);
+        }
+        closeLock.readLock().lock();
+        try {
+            if (closed) {
+                System.out.println("Report already closed, dropping: " + event);
+                return;
+            }
+            // The writer keeps draining until END_OF_STREAM, so a full queue only blocks until it catches up
+            queue.put(line.toString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            closeLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Writer thread: one line per event, flushed whenever the queue runs dry so a crash loses
+     * at most what was still queued
+     */
+    private void drain(BufferedWriter writer) {
+        try (BufferedWriter out = writer) {
+            while (true) {
+                String line = queue.take();
+                if (line.isEmpty()) {
+                    break;
+                }
+                if (writeFailure != null) {
+                    continue;
+                }
+                try {
+                    out.write(line);
+                    out.newLine();
+                    if (queue.isEmpty()) {
+                        out.flush();
+                    }
+                } catch (IOException e) {
+                    writeFailure = e;
+                    System.out.println("Report stream write failed: " + e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            writeFailure = e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Write out everything still queued and close the stream file
+     */
+    @Override
+    public void close() throws IOException {
+        closeLock.writeLock().lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            queue.put(END_OF_STREAM);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } finally {
+            closeLock.writeLock().unlock();
+        }
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writeFailure != null) {
+            throw writeFailure;
+        }
+    }
+
+    /**
+     * Render a stream file as an Extent Spark HTML report
+     * The stream is read line by line; Spark still needs the whole model to write its page,
+     * so this is the only point where the report is held in memory, and only once.
+     */
+    public static void render(Path streamFile, String htmlPath) throws IOException {
+        ExtentSparkReporter sparkReporter = new ExtentSparkReporter(htmlPath);
+        sparkReporter.config().setTheme(Theme.STANDARD);
+        sparkReporter.config().setDocumentTitle("Expense Tracker Test Report");
+        sparkReporter.config().setReportName("Selenium Automation Test Results");
+
+        ExtentReports extent = new ExtentReports();
+        extent.attachReporter(sparkReporter);
+
+        Map<Long, ExtentTest> tests = new HashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(streamFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                Map<String, Object> event;
+                try {
+                    event = JSON.toType(line, Json.MAP_TYPE);
+                } catch (RuntimeException e) {
+                    // A run killed mid-write can leave a truncated last line
+                    System.out.println("Skipping unreadable report line: " + line);
+                    continue;
+                }
+                switch ((String) event.get("type")) {
+                    case "system":
+                        extent.setSystemInfo((String) event.get("name"), String.valueOf(event.get("value")));
+                        break;
+                    case "test": {
+                        ExtentTest test = extent.createTest((String) event.get("name"), (String) event.get("description"));
+                        Date started = new Date(((Number) event.get("time")).longValue());
+                        test.getModel().setStartTime(started);
+                        test.getModel().setEndTime(started);
+                        tests.put(((Number) event.get("id")).longValue(), test);
+                        break;
+                    }
+                    case "log": {
+                        ExtentTest test = tests.get(((Number) event.get("id")).longValue());
+                        if (test == null) {
+                            break;
+                        }
+                        Date logged = new Date(((Number) event.get("time")).longValue());
+                        test.log(Status.valueOf((String) event.get("status")), (String) event.get("details"));
+                        List<Log> logs = test.getModel().getLogs();
+                        logs.get(logs.size() - 1).setTimestamp(logged);
+                        test.getModel().setEndTime(logged);
+                        break;
+                    }
+                    default:
+                        break;
+                }
+            }
+        }
+        extent.flush();
+    }
+
+    /**
+     * Render a stream left behind by an interrupted run
+     * Usage: StreamingReport <stream.jsonl> [report.html]
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.out.println("Usage: StreamingReport <stream.jsonl> [report.html]");
+            return;
+        }
+        Path stream = Paths.get(args[0]);
+        String html = args.length > 1 ? args[1] : args[0].replaceAll("\\.jsonl$", "") + ".html";
+        render(stream, html);
+        System.out.println("Report location: " + html);
+    }
+}
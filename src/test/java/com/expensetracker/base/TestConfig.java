@@ -0,0 +1,115 @@
+package com.expensetracker.base;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Run configuration shared by all tests, resolved once from system properties
+ *
+ * In a sharded run every forked JVM gets -Dfork.number=N (1-based) and derives its own
+ * port, database name and report file from it, so forks never share a server or data.
+ */
+public final class TestConfig {
+    
+    // 0 when not running as a shard
+    public static final int FORK_NUMBER = Integer.getInteger("fork.number", 0);
+    
+    // Backend under test - "node" (server.js started by hand), "managed" (mongod and server.js
+    // started by the suite, see TestEnvironment) or "inmemory" (Java stand-in)
+    public static final String BACKEND = System.getProperty("backend", "node");
+    
+    // Port of an unsharded run; shard N uses BASE_PORT + N
+    public static final int BASE_PORT = Integer.getInteger("base.port", 3000);
+    
+    // A managed environment takes any free port unless one is given
+    public static final int PORT = isManaged() && System.getProperty("base.port") == null
+            ? freePort()
+            : BASE_PORT + FORK_NUMBER;
+    
+    // Application URL - an explicit -Dbase.url wins over the derived one
+    public static final String BASE_URL = System.getProperty("base.url", "http://localhost:" + PORT);
+    
+    // MongoDB database used when this JVM launches its own server.js
+    public static final String DATABASE_NAME = FORK_NUMBER == 0
+            ? "expense_tracker"
+            : "expense_tracker_fork" + FORK_NUMBER;
+    
+    public static final String REPORT_PATH = FORK_NUMBER == 0
+            ? "test-output/ExtentReport.html"
+            : "test-output/ExtentReport-fork" + FORK_NUMBER + ".html";
+    
+    // Events appended during the run, rendered into REPORT_PATH at the end
+    public static final String REPORT_STREAM_PATH = REPORT_PATH.replaceAll("\\.html$", ".jsonl");
+    
+    // Report events that may wait for the writer thread before test threads block
+    public static final int REPORT_QUEUE_SIZE = Integer.getInteger("report.queue.size", 1024);
+    
+    // Selenium Grid for UI tests - empty (local drivers), "local" (standalone started in this JVM,
+    // see LocalGrid) or the URL of a grid that is already running
+    public static final String GRID = System.getProperty("grid", "").trim();
+    
+    // Concurrent sessions per browser on a local grid
+    public static final int GRID_CHROME_SLOTS = Integer.getInteger("grid.chrome.slots", 2);
+    public static final int GRID_FIREFOX_SLOTS = Integer.getInteger("grid.firefox.slots", 2);
+    
+    // How long UI suites wait for /readyz before giving up, and how often they poll it
+    public static final Duration READY_TIMEOUT = Duration.ofSeconds(Long.getLong("ready.timeoutSeconds", 60));
+    public static final Duration READY_POLL_INTERVAL = Duration.ofMillis(Long.getLong("ready.pollMs", 100));
+    
+    // Tag sent with every registration (X-Test-Run), so the users this run creates expire and can be
+    // deleted together when the suite ends
+    public static final String TEST_RUN = System.getProperty("test.run",
+            "run-" + Long.toString(System.currentTimeMillis(), 36) + "-" + FORK_NUMBER);
+    
+    // Token for the server's admin routes (ADMIN_TOKEN); made up when not given, which only the
+    // servers this JVM starts itself are told
+    private static final String GIVEN_ADMIN_TOKEN = System.getProperty("admin.token", System.getenv("ADMIN_TOKEN"));
+    public static final String ADMIN_TOKEN = GIVEN_ADMIN_TOKEN != null && !GIVEN_ADMIN_TOKEN.isEmpty()
+            ? GIVEN_ADMIN_TOKEN
+            : UUID.randomUUID().toString();
+    
+    private TestConfig() {
+    }
+    
+    public static boolean isSharded() {
+        return FORK_NUMBER > 0;
+    }
+    
+    public static boolean isLocalGrid() {
+        return "local".equalsIgnoreCase(GRID);
+    }
+    
+    public static boolean isManaged() {
+        return "managed".equalsIgnoreCase(BACKEND);
+    }
+    
+    /**
+     * @return Whether BASE_URL is server.js (started by hand or by the suite) rather than the in-memory stand-in
+     */
+    public static boolean isNodeBackend() {
+        return "node".equalsIgnoreCase(BACKEND) || isManaged();
+    }
+    
+    /**
+     * @return Whether the server at BASE_URL accepts ADMIN_TOKEN: it was given, or this JVM starts the server
+     */
+    public static boolean serverKnowsAdminToken() {
+        return (GIVEN_ADMIN_TOKEN != null && !GIVEN_ADMIN_TOKEN.isEmpty())
+                || isManaged() || isSharded() || "inmemory".equalsIgnoreCase(BACKEND);
+    }
+    
+    /**
+     * @return A port nothing is listening on right now
+     */
+    public static int freePort() {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            socket.setReuseAddress(true);
+            return socket.getLocalPort();
+        } catch (IOException e) {
+            throw new UncheckedIOException("No free port available", e);
+        }
+    }
+}
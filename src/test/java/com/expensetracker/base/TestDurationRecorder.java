@@ -0,0 +1,41 @@
+package com.expensetracker.base;
+
+import org.testng.IInvokedMethod;
+import org.testng.IInvokedMethodListener;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ITestResult;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * TestNG listener that measures how long each test class takes, setup and teardown included
+ * Writes class=millis to the file named by -Dshard.durations.out when the suite finishes;
+ * ShardedSuiteTest merges these into the history used to plan the next sharded run.
+ */
+public class TestDurationRecorder implements IInvokedMethodListener, ISuiteListener {
+    
+    private final Map<String, Long> durations = new ConcurrentHashMap<>();
+    
+    @Override
+    public void afterInvocation(IInvokedMethod method, ITestResult result) {
+        String className = result.getTestClass().getRealClass().getName();
+        durations.merge(className, result.getEndMillis() - result.getStartMillis(), Long::sum);
+    }
+    
+    @Override
+    public void onFinish(ISuite suite) {
+        String out = System.getProperty("shard.durations.out");
+        if (out == null) {
+            return;
+        }
+        try {
+            ShardPlanner.saveDurations(Paths.get(out), durations);
+        } catch (IOException e) {
+            System.err.println("Could not write test durations to " + out + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.expensetracker.base;
+
+import com.aventstack.extentreports.Status;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * A throwaway mongod plus server.js for one suite run (-Dbackend=managed)
+ * Both processes start at once: server.js makes a single MongoDB connection attempt that waits up to
+ * 20s (serverSelectionTimeoutMS) for mongod, which covers mongod's startup, and start() returns when
+ * /readyz succeeds. A mongod slower than that leaves server.js unready until start() times out.
+ * Their output is logged in the report as it arrives and kept in test-output/ log files.
+ */
+public class TestEnvironment {
+
+    private final int serverPort;
+    private final ReportTest log;
+    private MongoProcess mongo;
+    private NodeServerProcess server;
+
+    /**
+     * @param serverPort Port for server.js
+     * @param log Report entry receiving the processes' output
+     */
+    public TestEnvironment(int serverPort, ReportTest log) {
+        this.serverPort = serverPort;
+        this.log = log;
+    }
+
+    /**
+     * Start mongod on a free port and server.js against it, and wait until the server is ready
+     * @param timeout Maximum time for the whole environment to come up
+     */
+    public void start(Duration timeout) throws IOException {
+        String suffix = TestConfig.isSharded() ? "-fork" + TestConfig.FORK_NUMBER : "";
+        mongo = new MongoProcess(TestConfig.freePort(), new File("test-output/mongod" + suffix + ".log"),
+                line -> log.log(Status.INFO, "[mongod] " + line));
+        server = new NodeServerProcess(serverPort, mongo.getUri() + "/" + TestConfig.DATABASE_NAME,
+                new File("test-output/server" + suffix + ".log"),
+                line -> log.log(Status.INFO, "[server.js] " + line));
+
+        CompletableFuture<Void> mongoStarted = startAsync(() -> mongo.start(timeout));
+        CompletableFuture<Void> serverStarted = startAsync(() -> server.start(timeout));
+        try {
+            // mongod fails fast (missing binary, port taken), so check it first
+            mongoStarted.join();
+            serverStarted.join();
+        } catch (CompletionException e) {
+            // server.js may still be launching; make sure it doesn't outlive the failed start
+            NodeServerProcess launching = server;
+            serverStarted.whenComplete((ignored, error) -> launching.stop());
+            stop();
+            Throwable cause = e.getCause() instanceof UncheckedIOException ? e.getCause().getCause() : e.getCause();
+            log.log(Status.FAIL, "Test environment failed to start: " + cause);
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw e;
+        }
+        log.log(Status.PASS, "mongod at " + mongo.getUri() + ", server.js at http://localhost:" + serverPort);
+    }
+
+    private interface Startup {
+        void run() throws IOException;
+    }
+
+    private static CompletableFuture<Void> startAsync(Startup startup) {
+        return CompletableFuture.runAsync(() -> {
+            try {
+                startup.run();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    public void stop() {
+        if (server != null) {
+            server.stop();
+            server = null;
+        }
+        if (mongo != null) {
+            mongo.stop();
+            mongo = null;
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.expensetracker.base;
+
+import org.openqa.selenium.json.Json;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Which source files and API routes each test method touches
+ * Keys are "ClassName#method"; values are repository paths ("Public/script.js") and
+ * route ids ("server.js#POST /add-expense"). Recorded during a full run with -Dimpact=record
+ * and stored with the commit it was recorded at, see TestImpactSelector.
+ */
+public class TestImpactMap {
+
+    public static final Path DEFAULT_FILE = Paths.get("test-output", "test-impact-map.json");
+    public static final String SERVER_FILE = "server.js";
+
+    private static final Json JSON = new Json();
+    private static final Pattern ROUTE_DECLARATION =
+            Pattern.compile("app\\.(get|post|put|delete|patch)\\(\\s*\"([^\"]+)\"");
+
+    private String commit;
+    private final Map<String, Set<String>> tests = new ConcurrentHashMap<>();
+
+    public String getCommit() {
+        return commit;
+    }
+
+    public void setCommit(String commit) {
+        this.commit = commit;
+    }
+
+    public boolean contains(String testId) {
+        return tests.containsKey(testId);
+    }
+
+    public Set<String> touchedBy(String testId) {
+        return tests.getOrDefault(testId, new TreeSet<>());
+    }
+
+    /**
+     * Replace the recorded dependencies of one test method
+     * @param testId "ClassName#method"
+     * @param urls Every URL the browser requested during the test
+     * @param routes Routes declared in server.js, see {@link #readRoutes(Path)}
+     */
+    public void record(String testId, Collection<String> urls, List<Route> routes) {
+        Set<String> touched = new TreeSet<>();
+        for (String url : urls) {
+            String dependency = toDependency(url, routes);
+            if (dependency != null) {
+                touched.add(dependency);
+            }
+        }
+        tests.put(testId, touched);
+    }
+
+    /**
+     * Map a requested URL to the file or route that served it
+     * @return "Public/..." for static files, "server.js#METHOD /route" for API calls, null for external URLs
+     */
+    static String toDependency(String methodAndUrl, List<Route> routes) {
+        int space = methodAndUrl.indexOf(' ');
+        String method = methodAndUrl.substring(0, space);
+        URI uri;
+        try {
+            uri = URI.create(methodAndUrl.substring(space + 1));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (!"localhost".equals(uri.getHost()) && !"127.0.0.1".equals(uri.getHost())) {
+            return null;
+        }
+        String path = uri.getPath() == null || uri.getPath().isEmpty() ? "/" : uri.getPath();
+        for (Route route : routes) {
+            if (route.matches(method, path)) {
+                return route.id();
+            }
+        }
+        if ("/".equals(path)) {
+            return "Public/index.html";
+        }
+        if (Files.isRegularFile(Paths.get("Public", path.substring(1)))) {
+            return "Public" + path;
+        }
+        return null;
+    }
+
+    /**
+     * Parse route declarations (app.get("/path", ...)) out of server.js, with their line spans
+     */
+    public static List<Route> readRoutes(Path serverFile) throws IOException {
+        List<String> lines = Files.readAllLines(serverFile, StandardCharsets.UTF_8);
+        List<Route> routes = new ArrayList<>();
+        for (int i = 0; i < lines.size(); i++) {
+            Matcher matcher = ROUTE_DECLARATION.matcher(lines.get(i));
+            if (!matcher.find()) {
+                continue;
+            }
+            // A route handler ends at the first top-level "});" after its declaration,
+            // or on the same line when it just names a function: app.get("/metrics", handler);
+            int end = i;
+            boolean singleLine = lines.get(i).trim().endsWith(");");
+            while (!singleLine && end < lines.size() - 1 && !lines.get(end).startsWith("});")) {
+                end++;
+            }
+            routes.add(new Route(matcher.group(1).toUpperCase(), matcher.group(2), i + 1, end + 1));
+        }
+        return routes;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static TestImpactMap load(Path file) throws IOException {
+        TestImpactMap map = new TestImpactMap();
+        if (!Files.exists(file)) {
+            return map;
+        }
+        Map<String, Object> raw = JSON.toType(new String(Files.readAllBytes(file), StandardCharsets.UTF_8), Json.MAP_TYPE);
+        map.commit = (String) raw.get("commit");
+        Map<String, Object> tests = (Map<String, Object>) raw.getOrDefault("tests", Map.of());
+        tests.forEach((id, deps) -> map.tests.put(id, new TreeSet<>((List<String>) deps)));
+        return map;
+    }
+
+    public void save(Path file) throws IOException {
+        Map<String, Object> raw = new LinkedHashMap<>();
+        raw.put("commit", commit);
+        raw.put("tests", new TreeMap<>(tests));
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        Files.write(file, JSON.toJson(raw).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * A route handler in server.js and the lines it occupies (1-based, inclusive)
+     */
+    public static class Route {
+
+        private final String method;
+        private final String path;
+        private final Pattern pattern;
+        private final int firstLine;
+        private final int lastLine;
+
+        Route(String method, String path, int firstLine, int lastLine) {
+            this.method = method;
+            this.path = path;
+            this.pattern = Pattern.compile(path.replaceAll(":[^/]+", "[^/]+"));
+            this.firstLine = firstLine;
+            this.lastLine = lastLine;
+        }
+
+        public String id() {
+            return SERVER_FILE + "#" + method + " " + path;
+        }
+
+        public boolean matches(String requestMethod, String requestPath) {
+            return method.equalsIgnoreCase(requestMethod) && pattern.matcher(requestPath).matches();
+        }
+
+        public boolean containsLine(int line) {
+            return line >= firstLine && line <= lastLine;
+        }
+    }
+}
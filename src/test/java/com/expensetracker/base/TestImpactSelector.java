@@ -0,0 +1,187 @@
+package com.expensetracker.base;
+
+import org.testng.IMethodInstance;
+import org.testng.IMethodInterceptor;
+import org.testng.ITestContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Runs only the test methods affected by the changes since the impact map was recorded
+ * Active with -Dimpact=select (registered as a listener in testng.xml, inert otherwise).
+ *
+ * Changed files come from git diff against the map's commit (or -Dimpact.base=ref), including
+ * uncommitted work. Changes to server.js are narrowed to the routes whose lines changed.
+ * Anything the map can't account for - no map, unknown commit, test code, build files, server.js
+ * outside a route - falls back to running everything.
+ */
+public class TestImpactSelector implements IMethodInterceptor {
+
+    // Changes under these prefixes can affect any test
+    private static final List<String> GLOBAL_PREFIXES = Arrays.asList(
+            "src/test/", "pom.xml", "package.json", "package-lock.json", "node_modules/", ".env");
+
+    private static final Pattern HUNK = Pattern.compile("^@@ -\\d+(?:,\\d+)? \\+(\\d+)(?:,(\\d+))? @@");
+
+    private static Set<String> impacted;   // null = run everything
+    private static boolean decided;
+
+    @Override
+    public List<IMethodInstance> intercept(List<IMethodInstance> methods, ITestContext context) {
+        if (!"select".equalsIgnoreCase(System.getProperty("impact"))) {
+            return methods;
+        }
+        TestImpactMap map = loadMap();
+        Set<String> selected = decide(map);
+        if (selected == null) {
+            return methods;
+        }
+
+        List<IMethodInstance> kept = new ArrayList<>();
+        for (IMethodInstance instance : methods) {
+            String testId = instance.getMethod().getRealClass().getName() + "#" + instance.getMethod().getMethodName();
+            // Methods the map has never seen are always run
+            boolean touched = !map.contains(testId);
+            for (String dependency : map.touchedBy(testId)) {
+                touched |= selected.contains(dependency);
+            }
+            if (touched) {
+                kept.add(instance);
+            } else {
+                System.out.println("Impact analysis: skipping " + testId);
+            }
+        }
+        System.out.println("Impact analysis: running " + kept.size() + " of " + methods.size()
+                + " methods in '" + context.getName() + "'");
+        return kept;
+    }
+
+    private static TestImpactMap loadMap() {
+        try {
+            return TestImpactMap.load(TestImpactMap.DEFAULT_FILE);
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Impact analysis: unreadable map (" + e.getMessage() + ")");
+            return new TestImpactMap();
+        }
+    }
+
+    /**
+     * @return Changed files and routes, or null when everything has to run
+     */
+    private static synchronized Set<String> decide(TestImpactMap map) {
+        if (decided) {
+            return impacted;
+        }
+        decided = true;
+        String base = System.getProperty("impact.base", map.getCommit());
+        try {
+            if (base == null || git("cat-file", "-e", base + "^{commit}") == null) {
+                System.out.println("Impact analysis: map missing or recorded at an unknown commit - running all tests");
+                return impacted = null;
+            }
+            Set<String> changed = new LinkedHashSet<>(lines(git("diff", "--name-only", base)));
+            changed.addAll(lines(git("ls-files", "--others", "--exclude-standard")));
+
+            Set<String> result = new TreeSet<>();
+            for (String file : changed) {
+                for (String prefix : GLOBAL_PREFIXES) {
+                    if (file.startsWith(prefix)) {
+                        System.out.println("Impact analysis: " + file + " affects every test - running all tests");
+                        return impacted = null;
+                    }
+                }
+                if (file.equals(TestImpactMap.SERVER_FILE)) {
+                    Set<String> routes = changedRoutes(base);
+                    if (routes == null) {
+                        System.out.println("Impact analysis: server.js changed outside a route - running all tests");
+                        return impacted = null;
+                    }
+                    result.addAll(routes);
+                } else {
+                    result.add(file);
+                }
+            }
+            System.out.println("Impact analysis: changes since " + base + ": " + result);
+            return impacted = result;
+        } catch (IOException e) {
+            System.out.println("Impact analysis: git unavailable (" + e.getMessage() + ") - running all tests");
+            return impacted = null;
+        }
+    }
+
+    /**
+     * Route ids whose handler lines changed in server.js, null if a change falls outside every route
+     */
+    private static Set<String> changedRoutes(String base) throws IOException {
+        List<TestImpactMap.Route> routes = TestImpactMap.readRoutes(Paths.get(TestImpactMap.SERVER_FILE));
+        Set<String> result = new TreeSet<>();
+        for (String line : lines(git("diff", "-U0", base, "--", TestImpactMap.SERVER_FILE))) {
+            Matcher hunk = HUNK.matcher(line);
+            if (!hunk.find()) {
+                continue;
+            }
+            int start = Integer.parseInt(hunk.group(1));
+            int count = hunk.group(2) == null ? 1 : Integer.parseInt(hunk.group(2));
+            // A pure deletion (count 0) sits between lines start and start + 1
+            int last = Math.max(start, start + count - 1);
+            for (int n = start; n <= last; n++) {
+                TestImpactMap.Route owner = null;
+                for (TestImpactMap.Route route : routes) {
+                    if (route.containsLine(n)) {
+                        owner = route;
+                    }
+                }
+                if (owner == null) {
+                    return null;
+                }
+                result.add(owner.id());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Run git in the working directory
+     * @return Standard output, or null if git exited with an error
+     */
+    static String git(String... args) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add("git");
+        command.addAll(Arrays.asList(args));
+        Process process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.DISCARD).start();
+        String output;
+        try (InputStream in = process.getInputStream()) {
+            output = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        try {
+            return process.waitFor() == 0 ? output : null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while running git", e);
+        }
+    }
+
+    private static List<String> lines(String output) {
+        List<String> result = new ArrayList<>();
+        if (output == null) {
+            return result;
+        }
+        for (String line : output.split("\\R")) {
+            if (!line.isEmpty()) {
+                result.add(line);
+            }
+        }
+        return result;
+    }
+}
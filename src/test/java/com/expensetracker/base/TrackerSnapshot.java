@@ -0,0 +1,291 @@
+package com.expensetracker.base;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * State of the expense tracker page, read in a single executeScript call
+ * Replaces per-element findElement/getText calls, each of which is a WebDriver round trip,
+ * with one script that collects the expense table, total, filter and budget status.
+ * The table only renders the rows in view, so rows outside the window are read from the list behind it
+ * (expenseListView in script.js) and the rendered rows from #expense-list itself. Capturing checks that
+ * the rendered rows are the window's slice of that list, with Edit and Delete buttons, so a broken row
+ * builder or window fails the capture; renderedRowCount() is what is actually in the DOM.
+ */
+public class TrackerSnapshot {
+
+    private static final String ACTIONS = "Edit Delete";
+
+    private static final String CAPTURE_SCRIPT =
+            "const text = id => { const el = document.getElementById(id); return el ? el.textContent.trim() : null; };"
+            + "const cellTexts = row => Array.from(row.cells, cell => cell.textContent.replace(/\\s+/g, ' ').trim());"
+            + "const list = document.getElementById('expense-list');"
+            + "const renderedRows = list ? Array.from(list.rows).filter(row => row.className !== 'spacer') : [];"
+            + "const rendered = renderedRows.map(cellTexts);"
+            + "let rows = rendered;"
+            + "let mismatch = null;"
+            + "if (typeof expenseListView !== 'undefined' && list && list.style.display !== 'none') {"
+            + "  const view = expenseListView;"
+            + "  rows = view.items.map(expense => expenseCells(expense).concat('" + ACTIONS + "'));"
+            + "  if (rendered.length !== view.end - view.start || (view.items.length > 0 && rendered.length === 0)) {"
+            + "    mismatch = rendered.length + ' rows rendered for items ' + view.start + '-' + view.end"
+            + "        + ' of ' + view.items.length;"
+            + "  }"
+            + "  rendered.forEach((cells, i) => {"
+            + "    const position = view.start + i;"
+            + "    const actions = renderedRows[i].cells[4];"
+            + "    if (!mismatch && JSON.stringify(cells) !== JSON.stringify(rows[position])) {"
+            + "      mismatch = 'row ' + position + ' renders ' + JSON.stringify(cells) + ', listed as ' + JSON.stringify(rows[position]);"
+            + "    } else if (!mismatch && !(actions && actions.querySelector('button[data-action=\"edit\"]')"
+            + "        && actions.querySelector('button[data-action=\"delete\"]'))) {"
+            + "      mismatch = 'row ' + position + ' has no Edit and Delete buttons';"
+            + "    }"
+            + "    rows[position] = cells;"
+            + "  });"
+            + "}"
+            + "const filter = document.getElementById('filter-category');"
+            + "const status = document.getElementById('budget-status');"
+            + "return {"
+            + "  rows: rows,"
+            + "  mismatch: mismatch,"
+            + "  rendered: rendered.length,"
+            + "  total: text('total-amount'),"
+            + "  filter: filter ? filter.value : null,"
+            + "  budgetVisible: !!status && getComputedStyle(status).display !== 'none',"
+            + "  budgetMonth: text('current-month-display'),"
+            + "  budget: text('budget-display'),"
+            + "  spent: text('expense-display'),"
+            + "  remaining: text('remaining-display'),"
+            + "  usage: text('usage-percentage'),"
+            + "  intensity: text('intensity-indicator')"
+            + "};";
+
+    private final List<Row> rows;
+    private final int renderedRowCount;
+    private final String totalText;
+    private final String filter;
+    private final BudgetStatus budgetStatus;
+
+    private TrackerSnapshot(List<Row> rows, int renderedRowCount, String totalText, String filter,
+                            BudgetStatus budgetStatus) {
+        this.rows = rows;
+        this.renderedRowCount = renderedRowCount;
+        this.totalText = totalText;
+        this.filter = filter;
+        this.budgetStatus = budgetStatus;
+    }
+
+    /**
+     * Read the current page state
+     * @param driver Driver showing expense-tracker.html
+     * @return Snapshot of the page at the time of the call
+     */
+    @SuppressWarnings("unchecked")
+    public static TrackerSnapshot capture(WebDriver driver) {
+        Map<String, Object> raw = (Map<String, Object>) ((JavascriptExecutor) driver).executeScript(CAPTURE_SCRIPT);
+        if (raw.get("mismatch") != null) {
+            throw new IllegalStateException("#expense-list does not show the listed expenses: " + raw.get("mismatch"));
+        }
+
+        List<Row> rows = new ArrayList<>();
+        for (Object cells : (List<Object>) raw.get("rows")) {
+            rows.add(new Row((List<String>) cells));
+        }
+        BudgetStatus budgetStatus = new BudgetStatus(
+                Boolean.TRUE.equals(raw.get("budgetVisible")),
+                (String) raw.get("budgetMonth"),
+                parseAmount((String) raw.get("budget")),
+                parseAmount((String) raw.get("spent")),
+                parseAmount((String) raw.get("remaining")),
+                parseAmount((String) raw.get("usage")),
+                (String) raw.get("intensity"));
+        return new TrackerSnapshot(Collections.unmodifiableList(rows), ((Number) raw.get("rendered")).intValue(),
+                (String) raw.get("total"), (String) raw.get("filter"), budgetStatus);
+    }
+
+    public List<Row> getRows() {
+        return rows;
+    }
+
+    public int rowCount() {
+        return rows.size();
+    }
+
+    // Expense rows currently in the DOM, at most a window's worth
+    public int renderedRowCount() {
+        return renderedRowCount;
+    }
+
+    /**
+     * @return True if any cell of the expense table contains the text
+     */
+    public boolean containsText(String text) {
+        for (Row row : rows) {
+            for (String cell : row.getCells()) {
+                if (cell.contains(text)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return Rows whose expense name is exactly the given name
+     */
+    public List<Row> rowsNamed(String name) {
+        List<Row> matches = new ArrayList<>();
+        for (Row row : rows) {
+            if (name.equals(row.getName())) {
+                matches.add(row);
+            }
+        }
+        return matches;
+    }
+
+    // #total-amount as displayed
+    public String getTotalText() {
+        return totalText;
+    }
+
+    public double getTotal() {
+        return parseAmount(totalText);
+    }
+
+    // Selected value of #filter-category
+    public String getFilter() {
+        return filter;
+    }
+
+    public BudgetStatus getBudgetStatus() {
+        return budgetStatus;
+    }
+
+    @Override
+    public String toString() {
+        return rows.size() + " rows, total " + totalText + ", filter " + filter + ", budget " + budgetStatus;
+    }
+
+    /**
+     * Number shown in an element, ignoring currency symbols and grouping; 0 if empty
+     */
+    static double parseAmount(String text) {
+        if (text == null) {
+            return 0;
+        }
+        String digits = text.replaceAll("[^0-9.\\-]", "");
+        if (digits.isEmpty() || digits.equals("-") || digits.equals(".")) {
+            return 0;
+        }
+        try {
+            return Double.parseDouble(digits);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * One row of #expense-list: name, amount, category, date, actions
+     */
+    public static class Row {
+
+        private final List<String> cells;
+
+        Row(List<String> cells) {
+            this.cells = Collections.unmodifiableList(new ArrayList<>(cells));
+        }
+
+        public List<String> getCells() {
+            return cells;
+        }
+
+        public String getName() {
+            return cell(0);
+        }
+
+        public double getAmount() {
+            return parseAmount(cell(1));
+        }
+
+        public String getCategory() {
+            return cell(2);
+        }
+
+        public String getDate() {
+            return cell(3);
+        }
+
+        private String cell(int index) {
+            return index < cells.size() ? cells.get(index) : "";
+        }
+
+        @Override
+        public String toString() {
+            return cells.toString();
+        }
+    }
+
+    /**
+     * The #budget-status panel; only meaningful when visible (a budget is set for the month)
+     */
+    public static class BudgetStatus {
+
+        private final boolean visible;
+        private final String month;
+        private final double budget;
+        private final double spent;
+        private final double remaining;
+        private final double usagePercentage;
+        private final String intensity;
+
+        BudgetStatus(boolean visible, String month, double budget, double spent, double remaining,
+                     double usagePercentage, String intensity) {
+            this.visible = visible;
+            this.month = month;
+            this.budget = budget;
+            this.spent = spent;
+            this.remaining = remaining;
+            this.usagePercentage = usagePercentage;
+            this.intensity = intensity;
+        }
+
+        public boolean isVisible() {
+            return visible;
+        }
+
+        public String getMonth() {
+            return month;
+        }
+
+        public double getBudget() {
+            return budget;
+        }
+
+        public double getSpent() {
+            return spent;
+        }
+
+        public double getRemaining() {
+            return remaining;
+        }
+
+        public double getUsagePercentage() {
+            return usagePercentage;
+        }
+
+        // e.g. "🟢 Safe - Spending under control"
+        public String getIntensity() {
+            return intensity;
+        }
+
+        @Override
+        public String toString() {
+            return visible ? month + ": " + spent + " of " + budget + " (" + usagePercentage + "%)" : "hidden";
+        }
+    }
+}
@@ -0,0 +1,318 @@
+package com.expensetracker.base;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.devtools.Command;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.Event;
+import org.openqa.selenium.devtools.HasDevTools;
+import org.openqa.selenium.json.Json;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the API calls a browser session makes through Chrome DevTools (-Dtraffic=record)
+ * Only fetch/XHR requests to the application are kept; pages, scripts and styles are not. The result is
+ * a {@link Scenario} in which the user's email and password, ids returned by the server and the cookies
+ * it set are replaced by variables, so ScenarioReplayer can run it as any number of other users.
+ *
+ * Chromium browsers only; attach after NetworkMonitor, whose close() also removes these listeners.
+ */
+public class TrafficRecorder {
+
+    private static final Event<Map<String, Object>> REQUEST_WILL_BE_SENT = event("Network.requestWillBeSent");
+    private static final Event<Map<String, Object>> REQUEST_EXTRA_INFO = event("Network.requestWillBeSentExtraInfo");
+    private static final Event<Map<String, Object>> RESPONSE_RECEIVED = event("Network.responseReceived");
+    private static final Event<Map<String, Object>> LOADING_FINISHED = event("Network.loadingFinished");
+    private static final Event<Map<String, Object>> LOADING_FAILED = event("Network.loadingFailed");
+
+    private static final long BODY_TIMEOUT_SECONDS = 10;
+
+    private final DevTools devTools;
+    private final String origin;
+    private final Map<String, Exchange> exchanges = new LinkedHashMap<>();
+
+    private TrafficRecorder(DevTools devTools, String baseUrl) {
+        this.devTools = devTools;
+        this.origin = origin(baseUrl);
+    }
+
+    /**
+     * Start recording API calls to the application at baseUrl
+     * @param driver A Chromium-based driver
+     */
+    public static TrafficRecorder attach(WebDriver driver, String baseUrl) {
+        if (!NetworkMonitor.isSupported(driver)) {
+            throw new IllegalArgumentException("DevTools not available for " + driver.getClass().getSimpleName());
+        }
+        DevTools devTools = ((HasDevTools) driver).getDevTools();
+        devTools.createSessionIfThereIsNotOne();
+        TrafficRecorder recorder = new TrafficRecorder(devTools, baseUrl);
+        devTools.addListener(REQUEST_WILL_BE_SENT, recorder::onRequest);
+        devTools.addListener(REQUEST_EXTRA_INFO, recorder::onRequestExtraInfo);
+        devTools.addListener(RESPONSE_RECEIVED, recorder::onResponse);
+        devTools.addListener(LOADING_FINISHED, params -> recorder.onFinished(params, false));
+        devTools.addListener(LOADING_FAILED, params -> recorder.onFinished(params, true));
+        devTools.send(new Command<>("Network.enable", new HashMap<>()));
+        return recorder;
+    }
+
+    /**
+     * @param name Scenario name, e.g. the test's Class.method
+     * @return Completed API calls so far, in the order they were sent, with variables in place of
+     *         the user, ids and cookies
+     */
+    public Scenario toScenario(String name) {
+        List<Exchange> finished = new ArrayList<>();
+        synchronized (exchanges) {
+            for (Exchange exchange : exchanges.values()) {
+                if (exchange.endSeconds > 0 && !exchange.failed) {
+                    finished.add(exchange);
+                }
+            }
+        }
+        finished.sort(Comparator.comparingDouble(exchange -> exchange.startSeconds));
+
+        Map<String, String> literals = new LinkedHashMap<>();
+        Map<String, IdSource> ids = new LinkedHashMap<>();
+        List<Scenario.Step> steps = new ArrayList<>();
+        double previousEnd = 0;
+        for (Exchange exchange : finished) {
+            learnUser(exchange.postData, literals);
+            String path = parameterize(exchange.path, literals, ids);
+            String body = exchange.postData == null ? null : parameterize(exchange.postData, literals, ids);
+
+            Map<String, String> headers = new LinkedHashMap<>();
+            if (exchange.contentType != null && body != null) {
+                headers.put("Content-Type", exchange.contentType);
+            }
+            if (exchange.cookieNames != null && !exchange.cookieNames.isEmpty()) {
+                StringBuilder cookie = new StringBuilder();
+                for (String cookieName : exchange.cookieNames) {
+                    cookie.append(cookie.length() == 0 ? "" : "; ").append(cookieName).append("=${cookie.").append(cookieName).append('}');
+                }
+                headers.put("Cookie", cookie.toString());
+            }
+            long thinkMs = previousEnd == 0 ? 0 : Math.max(0, Math.round((exchange.startSeconds - previousEnd) * 1000));
+            previousEnd = Math.max(previousEnd, exchange.endSeconds);
+            steps.add(new Scenario.Step(exchange.method, path, headers, body, exchange.status, thinkMs, new HashMap<>()));
+
+            // Ids in this response can be referred to by the steps after it
+            Object json = responseJson(exchange);
+            if (json != null) {
+                collectIds(json, "", steps.size() - 1, ids);
+            }
+        }
+        for (IdSource id : ids.values()) {
+            if (id.variable != null) {
+                steps.get(id.step).addExtract(id.variable, id.jsonPath);
+            }
+        }
+        return new Scenario(name, steps);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void onRequest(Map<String, Object> params) {
+        String type = (String) params.get("type");
+        Map<String, Object> request = (Map<String, Object>) params.get("request");
+        String url = (String) request.get("url");
+        if (!("Fetch".equals(type) || "XHR".equals(type)) || url == null || !origin.equals(origin(url))) {
+            return;
+        }
+        Exchange exchange = new Exchange();
+        exchange.method = (String) request.get("method");
+        URI uri = URI.create(url);
+        exchange.path = uri.getRawPath() + (uri.getRawQuery() == null ? "" : "?" + uri.getRawQuery());
+        exchange.postData = (String) request.get("postData");
+        exchange.contentType = header((Map<String, Object>) request.get("headers"), "Content-Type");
+        exchange.startSeconds = ((Number) params.get("timestamp")).doubleValue();
+        synchronized (exchanges) {
+            Exchange extraInfo = exchanges.get((String) params.get("requestId"));
+            if (extraInfo != null) {
+                exchange.cookieNames = extraInfo.cookieNames;
+            }
+            exchanges.put((String) params.get("requestId"), exchange);
+        }
+    }
+
+    // Cookies are only visible here; this event may arrive before or after requestWillBeSent
+    @SuppressWarnings("unchecked")
+    private void onRequestExtraInfo(Map<String, Object> params) {
+        String cookieHeader = header((Map<String, Object>) params.get("headers"), "Cookie");
+        if (cookieHeader == null) {
+            return;
+        }
+        List<String> names = new ArrayList<>();
+        for (String pair : cookieHeader.split(";")) {
+            int equals = pair.indexOf('=');
+            if (equals > 0) {
+                names.add(pair.substring(0, equals).trim());
+            }
+        }
+        synchronized (exchanges) {
+            exchanges.computeIfAbsent((String) params.get("requestId"), id -> new Exchange()).cookieNames = names;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void onResponse(Map<String, Object> params) {
+        Map<String, Object> response = (Map<String, Object>) params.get("response");
+        synchronized (exchanges) {
+            Exchange exchange = exchanges.get((String) params.get("requestId"));
+            if (exchange != null) {
+                exchange.status = ((Number) response.get("status")).intValue();
+            }
+        }
+    }
+
+    private void onFinished(Map<String, Object> params, boolean failed) {
+        String requestId = (String) params.get("requestId");
+        synchronized (exchanges) {
+            Exchange exchange = exchanges.get(requestId);
+            if (exchange == null || exchange.method == null) {
+                return;
+            }
+            exchange.endSeconds = ((Number) params.get("timestamp")).doubleValue();
+            exchange.failed = failed;
+            if (!failed) {
+                // Sending a command from the event thread would wait on that same thread
+                Map<String, Object> command = new HashMap<>();
+                command.put("requestId", requestId);
+                exchange.body = CompletableFuture.supplyAsync(() -> devTools.send(new Command<Map<String, Object>>(
+                        "Network.getResponseBody", command, input -> input.read(Json.MAP_TYPE))));
+            }
+        }
+    }
+
+    private static Object responseJson(Exchange exchange) {
+        if (exchange.body == null) {
+            return null;
+        }
+        try {
+            Map<String, Object> result = exchange.body.get(BODY_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            String body = (String) result.get("body");
+            if (Boolean.TRUE.equals(result.get("base64Encoded"))) {
+                body = new String(Base64.getDecoder().decode(body), StandardCharsets.UTF_8);
+            }
+            return new Json().toType(body, Object.class);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (Exception e) {
+            // Body evicted by a navigation, or not JSON: nothing to take ids from
+            return null;
+        }
+    }
+
+    // The first email and password posted belong to the test's user
+    private static void learnUser(String postData, Map<String, String> literals) {
+        if (postData == null || !postData.startsWith("{")) {
+            return;
+        }
+        try {
+            Map<String, Object> body = new Json().toType(postData, Json.MAP_TYPE);
+            for (String field : new String[] {"email", "password"}) {
+                if (body.get(field) instanceof String && !((String) body.get(field)).isEmpty()) {
+                    literals.putIfAbsent((String) body.get(field), "${" + field + "}");
+                }
+            }
+        } catch (RuntimeException e) {
+            // Not a JSON body
+        }
+    }
+
+    private static String parameterize(String text, Map<String, String> literals, Map<String, IdSource> ids) {
+        for (Map.Entry<String, String> literal : literals.entrySet()) {
+            text = text.replace(literal.getKey(), literal.getValue());
+        }
+        for (Map.Entry<String, IdSource> id : ids.entrySet()) {
+            if (text.contains(id.getKey())) {
+                IdSource source = id.getValue();
+                if (source.variable == null) {
+                    source.variable = "id" + (ids.values().stream().filter(other -> other.variable != null).count() + 1);
+                }
+                text = text.replace(id.getKey(), "${" + source.variable + "}");
+            }
+        }
+        return text;
+    }
+
+    // Remember where each _id first appeared, as a dotted path such as expenses.0._id
+    @SuppressWarnings("unchecked")
+    private static void collectIds(Object json, String path, int step, Map<String, IdSource> ids) {
+        if (json instanceof Map) {
+            for (Map.Entry<String, Object> field : ((Map<String, Object>) json).entrySet()) {
+                String fieldPath = path.isEmpty() ? field.getKey() : path + "." + field.getKey();
+                if ("_id".equals(field.getKey()) && field.getValue() instanceof String) {
+                    ids.putIfAbsent((String) field.getValue(), new IdSource(step, fieldPath));
+                } else {
+                    collectIds(field.getValue(), fieldPath, step, ids);
+                }
+            }
+        } else if (json instanceof List) {
+            List<Object> items = (List<Object>) json;
+            for (int i = 0; i < items.size(); i++) {
+                collectIds(items.get(i), path.isEmpty() ? String.valueOf(i) : path + "." + i, step, ids);
+            }
+        }
+    }
+
+    private static String header(Map<String, Object> headers, String name) {
+        if (headers == null) {
+            return null;
+        }
+        for (Map.Entry<String, Object> header : headers.entrySet()) {
+            if (header.getKey().equalsIgnoreCase(name)) {
+                return String.valueOf(header.getValue());
+            }
+        }
+        return null;
+    }
+
+    private static String origin(String url) {
+        try {
+            URI uri = URI.create(url);
+            return uri.getScheme() + "://" + uri.getAuthority();
+        } catch (IllegalArgumentException e) {
+            return url;
+        }
+    }
+
+    private static Event<Map<String, Object>> event(String method) {
+        return new Event<>(method, input -> input.read(Json.MAP_TYPE));
+    }
+
+    private static final class Exchange {
+        private String method;
+        private String path;
+        private String postData;
+        private String contentType;
+        private List<String> cookieNames;
+        private double startSeconds;
+        private double endSeconds;
+        private int status;
+        private boolean failed;
+        private CompletableFuture<Map<String, Object>> body;
+    }
+
+    private static final class IdSource {
+        private final int step;
+        private final String jsonPath;
+        // Assigned once a later request uses the id
+        private String variable;
+
+        private IdSource(int step, String jsonPath) {
+            this.step = step;
+            this.jsonPath = jsonPath;
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.expensetracker.tests;
+
+import com.aventstack.extentreports.Status;
+import com.expensetracker.base.ApiClient;
+import com.expensetracker.base.BaseTest;
+import com.expensetracker.base.LatencyStats;
+import com.expensetracker.base.PageMetrics;
+import org.openqa.selenium.JavascriptExecutor;
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Main-thread scripting time of one add on the tracker page, across expense list sizes
+ * For each size the list is replaced by that many synthetic expenses, then expenses are added through
+ * the form (real /add-expense requests). Chrome's ScriptDuration counter is read over DevTools before
+ * and after each add, so a sample covers the submit handlers, the server reply and the redraw on the
+ * next frame. Chart animation is turned off so its frames don't spill into the next sample.
+ *
+ * With incremental totals and a windowed table the cost of an add should not depend on the list size;
+ * the test fails if the median at the largest size exceeds the smallest one by more than
+ * -Dscripting.maxGrowth times plus -Dscripting.slackMs. Results go to test-output/add-scripting.csv.
+ *
+ * Run with: mvn test -Plongtask [-Dscripting.sizes=0,1000,10000,50000] [-Dscripting.adds=20]
+ */
+public class AddExpenseScriptingBenchmarkTest extends BaseTest {
+
+    private final List<Integer> sizes = parseSizes(System.getProperty("scripting.sizes", "0,1000,10000,50000"));
+    private final int adds = Integer.getInteger("scripting.adds", 20);
+    private final double maxGrowth = Double.parseDouble(System.getProperty("scripting.maxGrowth", "3"));
+    private final double slackMs = Double.parseDouble(System.getProperty("scripting.slackMs", "5"));
+
+    // Installed once per page: dialog stubs, a count of fetches in flight and no chart animation
+    private static final String INSTALL_SCRIPT =
+            "if (!window.__bench) {"
+            + "  window.__bench = { pending: 0 };"
+            + "  const originalFetch = window.fetch;"
+            + "  window.fetch = (...args) => { __bench.pending++; return originalFetch(...args).finally(() => __bench.pending--); };"
+            + "  window.alert = () => {};"
+            + "  window.confirm = () => true;"
+            + "  pieChart.options.animation = false;"
+            + "}";
+
+    // arguments: list size, month as yyyy-mm, callback; replaces the list and draws it
+    private static final String FILL_SCRIPT =
+            "const [count, month, done] = arguments;"
+            + "const types = ['Food', 'Transport', 'Entertainment', 'Other'];"
+            + "document.getElementById('filter-category').value = 'All';"
+            + "expenses = Array.from({ length: count }, (_, i) => ({"
+            + "  _id: 'synthetic-' + i, description: 'Synthetic ' + i, amount: 1 + i % 500,"
+            + "  type: types[i % 4], date: month + '-' + String(1 + i % 28).padStart(2, '0') }));"
+            + "updateExpenseList(expenses);"
+            + "refreshExpenseSummary();"
+            + "requestAnimationFrame(() => setTimeout(() => done(expenses.length), 100));";
+
+    // arguments: expense name, month as yyyy-mm, callback; one add through the form, done after the redraw
+    private static final String ADD_SCRIPT =
+            "const [name, month, done] = arguments;"
+            + "const sleep = ms => new Promise(r => setTimeout(r, ms));"
+            + "const frame = () => new Promise(r => requestAnimationFrame(() => setTimeout(r, 0)));"
+            + "const set = (id, value) => { document.getElementById(id).value = value; };"
+            + "(async () => {"
+            + "  set('expense-name', name); set('expense-amount', '25');"
+            + "  set('expense-category', 'Food'); set('expense-date', month + '-12');"
+            + "  document.getElementById('expense-form').dispatchEvent(new Event('submit', { cancelable: true }));"
+            + "  do { await sleep(5); } while (__bench.pending > 0);"
+            + "  await frame();"
+            + "  return expenses.length;"
+            + "})().then(done, e => done(String(e)));";
+
+    @Test(description = "Scripting time per added expense does not grow with the list size")
+    public void scriptingPerAdd() throws IOException {
+        test = extent.createTest("PERF-UI-03", "Scripting time per add at " + sizes + " expenses");
+        if (network == null) {
+            throw new SkipException("Scripting time comes from Chrome DevTools, not available on " + browser);
+        }
+
+        String email = "scriptinguser" + System.currentTimeMillis() + "@example.com";
+        ApiClient client = newApiClient();
+        try {
+            client.register("Scripting User", email, "ScriptingPass123");
+        } catch (IllegalStateException e) {
+            throw new SkipException("Application not reachable at " + BASE_URL + ": " + e.getMessage());
+        }
+        loginThroughUi(email, "ScriptingPass123");
+        navigateTo(BASE_URL + "/expense-tracker.html");
+        waitForNetworkIdle();
+
+        JavascriptExecutor js = (JavascriptExecutor) driver;
+        js.executeScript(INSTALL_SCRIPT);
+        driver.manage().timeouts().scriptTimeout(Duration.ofMinutes(2));
+        LocalDate today = LocalDate.now();
+        String month = String.format("%d-%02d", today.getYear(), today.getMonthValue());
+        PageMetrics metrics = PageMetrics.attach(driver);
+
+        Map<Integer, LatencyStats> scripting = new LinkedHashMap<>();
+        Map<Integer, LatencyStats> layout = new LinkedHashMap<>();
+        for (int size : sizes) {
+            js.executeAsyncScript(FILL_SCRIPT, size, month);
+            LatencyStats script = new LatencyStats(size + " expenses");
+            LatencyStats style = new LatencyStats(size + " expenses (layout)");
+            for (int i = 0; i < adds; i++) {
+                PageMetrics.Sample before = metrics.sample();
+                Object result = js.executeAsyncScript(ADD_SCRIPT, "Scripting " + size + "-" + i, month);
+                PageMetrics.Sample after = metrics.sample();
+                if (!(result instanceof Number)) {
+                    script.recordError();
+                    continue;
+                }
+                script.record(secondsToNanos(after.getScriptSeconds() - before.getScriptSeconds()));
+                style.record(secondsToNanos(after.getLayoutSeconds() - before.getLayoutSeconds()));
+            }
+            scripting.put(size, script);
+            layout.put(size, style);
+            System.out.println("Add at " + script.summary());
+        }
+
+        StringBuilder table = new StringBuilder("<table><tr><th>Expenses</th><th>Adds</th>"
+                + "<th>Script p50 (ms)</th><th>Script p95 (ms)</th><th>Layout p50 (ms)</th></tr>");
+        StringBuilder csv = new StringBuilder("expenses,adds,errors,script_p50_ms,script_p95_ms,script_max_ms,layout_p50_ms\n");
+        for (int size : sizes) {
+            LatencyStats script = scripting.get(size);
+            double layoutP50 = layout.get(size).percentileMs(50);
+            table.append(String.format(Locale.ROOT, "<tr><td>%d</td><td>%d</td><td>%.2f</td><td>%.2f</td><td>%.2f</td></tr>",
+                    size, script.count(), script.percentileMs(50), script.percentileMs(95), layoutP50));
+            csv.append(String.format(Locale.ROOT, "%d,%d,%d,%.3f,%.3f,%.3f,%.3f%n", size, script.count(), script.errors(),
+                    script.percentileMs(50), script.percentileMs(95), script.maxMs(), layoutP50));
+        }
+        test.log(Status.INFO, table.append("</table>").toString());
+        Path path = Paths.get("test-output", "add-scripting.csv");
+        Files.createDirectories(path.getParent());
+        Files.write(path, csv.toString().getBytes(StandardCharsets.UTF_8));
+        test.log(Status.INFO, "Results written to " + path);
+
+        for (LatencyStats script : scripting.values()) {
+            Assert.assertEquals(script.errors(), 0, "Adds failed at " + script.getName());
+        }
+        double smallest = scripting.get(sizes.get(0)).percentileMs(50);
+        double largest = scripting.get(sizes.get(sizes.size() - 1)).percentileMs(50);
+        String growth = String.format(Locale.ROOT, "median %.2f ms at %d expenses vs %.2f ms at %d",
+                largest, sizes.get(sizes.size() - 1), smallest, sizes.get(0));
+        Assert.assertTrue(largest <= smallest * maxGrowth + slackMs, "Scripting per add grows with the list: " + growth);
+        test.log(Status.PASS, "✓ PERF-UI-03 PASSED: " + growth);
+    }
+
+    private static long secondsToNanos(double seconds) {
+        return Math.max(0, Math.round(seconds * 1e9));
+    }
+
+    private static List<Integer> parseSizes(String value) {
+        List<Integer> sizes = new ArrayList<>();
+        for (String size : value.split(",")) {
+            sizes.add(Integer.parseInt(size.trim()));
+        }
+        sizes.sort(null);
+        return sizes;
+    }
+}
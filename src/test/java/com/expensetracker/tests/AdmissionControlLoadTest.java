@@ -0,0 +1,187 @@
+package com.expensetracker.tests;
+
+import com.aventstack.extentreports.Status;
+import com.expensetracker.base.ApiClient;
+import com.expensetracker.base.ApiClient.ApiResponse;
+import com.expensetracker.base.BaseApiTest;
+import com.expensetracker.base.LatencyStats;
+import com.expensetracker.base.ServerMetrics;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop load stepped past the server's admission limit (admission.js)
+ * Each stage runs more light users, one thread each, plus one hot user hammering from many threads
+ * on a single session. Past saturation the server should shed with 503 + Retry-After rather than
+ * queue without bound, so admitted requests keep a bounded p99 and 503s come back fast; the per-user
+ * queue should make the hot user absorb more of the shedding than the light users.
+ *
+ * Clients deliberately ignore Retry-After so the load stays above the limit for the whole stage.
+ *
+ * Run with: mvn test -Pbenchmark [-Dadmission.stages=8,32,128] [-Dadmission.stageSeconds=10]
+ */
+public class AdmissionControlLoadTest extends BaseApiTest {
+
+    private final int[] stages = Arrays.stream(System.getProperty("admission.stages", "8,32,128").split(","))
+            .mapToInt(stage -> Integer.parseInt(stage.trim())).toArray();
+    private final int stageSeconds = Integer.getInteger("admission.stageSeconds", 10);
+    private final int hotThreads = Integer.getInteger("admission.hotThreads", 16);
+    // Server default queue timeout is 2s; an admitted request may wait that long, then run
+    private final double maxAdmittedP99Ms = Double.parseDouble(System.getProperty("admission.maxP99Ms", "3000"));
+    private final double maxShedP99Ms = Double.parseDouble(System.getProperty("admission.maxShedP99Ms", "2500"));
+
+    private final List<ApiClient> lightUsers = new ArrayList<>();
+    private ApiClient hotUser;
+    private final LocalDate today = LocalDate.now();
+
+    @BeforeClass
+    public void loginUsers() {
+        long stamp = System.currentTimeMillis();
+        hotUser = login("admission" + stamp + "-hot@example.com");
+        int mostUsers = Arrays.stream(stages).max().orElse(0);
+        for (int i = 0; i < mostUsers; i++) {
+            lightUsers.add(login("admission" + stamp + "-" + i + "@example.com"));
+        }
+    }
+
+    private ApiClient login(String email) {
+        ApiClient client = newApiClient();
+        client.register("Admission User", email, "LoadPass123");
+        Assert.assertEquals(client.login(email, "LoadPass123").status(), 200, "Load user should log in");
+        client.addExpense("Load", 25, "Food", today.toString());
+        return client;
+    }
+
+    @Test(description = "Admitted p99 stays bounded and excess load is shed with 503 + Retry-After")
+    public void shedLoadPastSaturation() throws Exception {
+        test = extent.createTest("PERF-API-03", "Stages of " + Arrays.toString(stages) + " light users + 1 hot user x"
+                + hotThreads + " threads, " + stageSeconds + "s each");
+
+        ServerMetrics before = scrapeOrNull();
+        StringBuilder table = new StringBuilder("<table><tr><th>Light users</th><th>Req/s</th><th>Admitted p50 ms</th>"
+                + "<th>Admitted p99 ms</th><th>Shed %</th><th>Shed p99 ms</th><th>Hot user shed %</th><th>Light users shed %</th></tr>");
+        for (int users : stages) {
+            Stage stage = runStage(users);
+            table.append(String.format(Locale.ROOT,
+                    "<tr><td>%d</td><td>%.0f</td><td>%.1f</td><td>%.1f</td><td>%.1f</td><td>%.1f</td><td>%.1f</td><td>%.1f</td></tr>",
+                    users, stage.throughput(), stage.admitted.percentileMs(50), stage.admitted.percentileMs(99),
+                    stage.shedPercent(), stage.shed.count() == 0 ? 0 : stage.shed.percentileMs(99),
+                    stage.hot.shedPercent(), stage.light.shedPercent()));
+            System.out.println(users + " light users: " + stage.admitted.summary() + " | " + stage.shed.summary());
+
+            Assert.assertEquals(stage.unexpected.get(), 0, users + " users: responses other than 2xx or 503");
+            Assert.assertEquals(stage.missingRetryAfter.get(), 0, users + " users: 503 responses without Retry-After");
+            Assert.assertTrue(stage.admitted.percentileMs(99) <= maxAdmittedP99Ms,
+                    users + " users: admitted p99 " + stage.admitted.percentileMs(99) + "ms above " + maxAdmittedP99Ms + "ms");
+            if (stage.shed.count() > 0) {
+                Assert.assertTrue(stage.shed.percentileMs(99) <= maxShedP99Ms,
+                        users + " users: 503 p99 " + stage.shed.percentileMs(99) + "ms above " + maxShedP99Ms + "ms");
+                Assert.assertTrue(stage.hot.shedPercent() >= stage.light.shedPercent(),
+                        users + " users: hot user shed " + stage.hot.shedPercent() + "% but light users "
+                                + stage.light.shedPercent() + "%");
+            }
+        }
+        test.log(Status.INFO, table.append("</table>").toString());
+
+        ServerMetrics after = scrapeOrNull();
+        if (before != null && after != null && after.has("admission_rejected_total")) {
+            StringBuilder reasons = new StringBuilder("Server shed by reason: ");
+            for (String reason : after.labelValues("admission_rejected_total", "reason")) {
+                reasons.append(String.format(Locale.ROOT, "%s=%.0f; ", reason,
+                        after.value("admission_rejected_total", "reason", reason)
+                                - before.value("admission_rejected_total", "reason", reason)));
+            }
+            test.log(Status.INFO, reasons.toString());
+        }
+        test.log(Status.PASS, "✓ PERF-API-03 PASSED: admitted p99 bounded past saturation");
+    }
+
+    private Stage runStage(int users) throws Exception {
+        Stage stage = new Stage();
+        String path = "/get-expenses-by-month?month=" + today.getMonthValue() + "&year=" + today.getYear();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(stageSeconds);
+
+        ExecutorService workers = Executors.newFixedThreadPool(users + hotThreads);
+        List<Future<?>> running = new ArrayList<>();
+        for (int i = 0; i < users; i++) {
+            ApiClient user = lightUsers.get(i);
+            running.add(workers.submit(() -> hammer(user, path, deadline, stage, stage.light)));
+        }
+        for (int i = 0; i < hotThreads; i++) {
+            running.add(workers.submit(() -> hammer(hotUser, path, deadline, stage, stage.hot)));
+        }
+        long start = System.nanoTime();
+        for (Future<?> worker : running) {
+            worker.get();
+        }
+        stage.elapsedNanos = System.nanoTime() - start;
+        workers.shutdown();
+        return stage;
+    }
+
+    private static void hammer(ApiClient user, String path, long deadline, Stage stage, Share share) {
+        while (System.nanoTime() < deadline) {
+            ApiResponse response = user.get(path);
+            if (response.status() == 503) {
+                stage.shed.record(response.elapsedNanos());
+                share.shed.incrementAndGet();
+                if (response.header("Retry-After") == null) {
+                    stage.missingRetryAfter.incrementAndGet();
+                }
+            } else if (response.status() < 300) {
+                stage.admitted.record(response.elapsedNanos());
+            } else {
+                stage.unexpected.incrementAndGet();
+            }
+            share.sent.incrementAndGet();
+        }
+    }
+
+    private ServerMetrics scrapeOrNull() {
+        try {
+            return ServerMetrics.scrape(newApiClient());
+        } catch (IllegalStateException e) {
+            return null;
+        }
+    }
+
+    private static final class Stage {
+        private final LatencyStats admitted = new LatencyStats("admitted");
+        private final LatencyStats shed = new LatencyStats("shed");
+        private final AtomicLong unexpected = new AtomicLong();
+        private final AtomicLong missingRetryAfter = new AtomicLong();
+        private final Share hot = new Share();
+        private final Share light = new Share();
+        private long elapsedNanos;
+
+        double throughput() {
+            return (admitted.count() + shed.count()) / (elapsedNanos / 1e9);
+        }
+
+        double shedPercent() {
+            int total = admitted.count() + shed.count();
+            return total == 0 ? 0 : 100.0 * shed.count() / total;
+        }
+    }
+
+    private static final class Share {
+        private final AtomicLong sent = new AtomicLong();
+        private final AtomicLong shed = new AtomicLong();
+
+        double shedPercent() {
+            return sent.get() == 0 ? 0 : 100.0 * shed.get() / sent.get();
+        }
+    }
+}
@@ -0,0 +1,359 @@
+package com.expensetracker.tests;
+
+import com.aventstack.extentreports.Status;
+import com.expensetracker.base.ApiClient;
+import com.expensetracker.base.ApiClient.ApiResponse;
+import com.expensetracker.base.BaseApiTest;
+import com.expensetracker.base.InMemoryExpenseServer;
+import com.expensetracker.base.TestConfig;
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.time.format.TextStyle;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * API Contract Test Suite
+ * Runs the same checks against server.js and the in-memory Java stand-in so the two stay in sync.
+ * Implements test cases: TC-API-01 to TC-API-07
+ */
+public class ApiContractTest extends BaseApiTest {
+
+    private final InMemoryExpenseServer inMemory = new InMemoryExpenseServer();
+    private String inMemoryUrl;
+
+    @BeforeClass
+    public void startImplementations() throws IOException {
+        inMemoryUrl = inMemory.start(0);
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void stopImplementations() {
+        inMemory.stop();
+    }
+
+    @DataProvider(name = "backends")
+    public Object[][] backends() {
+        return new Object[][] {
+            {"node", BASE_URL},
+            {"inmemory", inMemoryUrl}
+        };
+    }
+
+    private ApiClient clientFor(String backend, String url) {
+        if (backend.equals("node")) {
+            requireNodeServer();
+        }
+        return new ApiClient(url);
+    }
+
+    private static String uniqueEmail(String prefix) {
+        return prefix + System.nanoTime() + "@example.com";
+    }
+
+    private static ApiClient loggedIn(ApiClient client) {
+        String email = uniqueEmail("contract");
+        Assert.assertEquals(client.register("Contract User", email, "ContractPass1").status(), 201);
+        Assert.assertEquals(client.login(email, "ContractPass1").status(), 200);
+        return client;
+    }
+
+    /**
+     * TC-API-01: Registration responses
+     */
+    @Test(dataProvider = "backends", description = "TC-API-01: Registration contract")
+    public void testRegistrationContract(String backend, String url) {
+        test = extent.createTest("TC-API-01 [" + backend + "]", "Registration contract");
+        ApiClient client = clientFor(backend, url);
+        String email = uniqueEmail("register");
+
+        ApiResponse created = client.register("  Contract User  ", "  " + email + " ", "Secret123");
+        Assert.assertEquals(created.status(), 201, created.toString());
+        Assert.assertEquals(created.json().get("message"), "User registered successfully!");
+        @SuppressWarnings("unchecked")
+        Map<String, Object> user = (Map<String, Object>) created.json().get("user");
+        Assert.assertTrue(String.valueOf(user.get("id")).matches("[0-9a-f]{24}"), "id should look like an ObjectId");
+        Assert.assertEquals(user.get("name"), "Contract User", "name should be trimmed");
+        Assert.assertEquals(user.get("email"), email, "email should be trimmed");
+
+        ApiResponse duplicate = client.register("Someone Else", email, "Other123");
+        Assert.assertEquals(duplicate.status(), 400);
+        Assert.assertEquals(duplicate.json().get("error"), "Email already registered.");
+
+        ApiResponse missingName = client.register("   ", uniqueEmail("noname"), "Secret123");
+        Assert.assertEquals(missingName.status(), 500);
+        Assert.assertEquals(missingName.json().get("error"), "Error registering user. Please try again.");
+
+        test.log(Status.PASS, "✓ TC-API-01 PASSED on " + backend);
+    }
+
+    /**
+     * TC-API-02: Login, cookie and authentication responses
+     */
+    @Test(dataProvider = "backends", description = "TC-API-02: Login and auth contract")
+    public void testLoginContract(String backend, String url) throws Exception {
+        test = extent.createTest("TC-API-02 [" + backend + "]", "Login and auth contract");
+        ApiClient client = clientFor(backend, url);
+        String email = uniqueEmail("login");
+        client.register("Login User", email, "Secret123");
+
+        ApiResponse wrongPassword = client.login(email, "Wrong123");
+        Assert.assertEquals(wrongPassword.status(), 400);
+        Assert.assertEquals(wrongPassword.json().get("error"), "Invalid email or password.");
+
+        ApiResponse unauthenticated = client.get("/get-expenses");
+        Assert.assertEquals(unauthenticated.status(), 401);
+        Assert.assertEquals(unauthenticated.json().get("error"), "Unauthorized access. Please log in.");
+
+        HttpResponse<String> badToken = HttpClient.newHttpClient().send(
+                HttpRequest.newBuilder(URI.create(url + "/get-expenses")).header("Cookie", "authToken=garbage").build(),
+                HttpResponse.BodyHandlers.ofString());
+        Assert.assertEquals(badToken.statusCode(), 401);
+        Assert.assertTrue(badToken.body().contains("Invalid or expired token. Please log in again."), badToken.body());
+
+        ApiResponse ok = client.login("  " + email + "  ", " Secret123 ");
+        Assert.assertEquals(ok.status(), 200, ok.toString());
+        Assert.assertEquals(ok.json().get("message"), "Login successful!");
+        String cookie = ok.header("Set-Cookie");
+        Assert.assertNotNull(cookie, "login should set a cookie");
+        Assert.assertTrue(cookie.startsWith("authToken=") && cookie.contains("HttpOnly"), cookie);
+        Assert.assertEquals(client.get("/get-expenses").status(), 200, "cookie should authenticate later calls");
+
+        ApiResponse logout = client.post("/logout", Map.of());
+        Assert.assertEquals(logout.status(), 200);
+        Assert.assertEquals(logout.json().get("message"), "Logout successful!");
+
+        test.log(Status.PASS, "✓ TC-API-02 PASSED on " + backend);
+    }
+
+    /**
+     * TC-API-03: Adding, listing, month filtering and summarising expenses
+     */
+    @Test(dataProvider = "backends", description = "TC-API-03: Expense contract")
+    public void testExpenseContract(String backend, String url) {
+        test = extent.createTest("TC-API-03 [" + backend + "]", "Expense contract");
+        ApiClient client = loggedIn(clientFor(backend, url));
+
+        ApiResponse added = client.addExpense("Lunch", "250", "Food", "2026-01-31");
+        Assert.assertEquals(added.status(), 200, added.toString());
+        Assert.assertEquals(added.json().get("message"), "Expense added successfully!");
+        Map<String, Object> expense = added.jsonList("expenses").get(0);
+        Assert.assertEquals(expense.get("description"), "Lunch");
+        Assert.assertEquals(((Number) expense.get("amount")).doubleValue(), 250.0, "amount should be cast to a number");
+        Assert.assertEquals(expense.get("type"), "Food");
+        Assert.assertEquals(expense.get("date"), "2026-01-31T00:00:00.000Z", "date should be stored at UTC midnight");
+        Assert.assertTrue(String.valueOf(expense.get("_id")).matches("[0-9a-f]{24}"));
+
+        client.addExpense("Bus", 30.5, "Transport", "2026-02-01");
+        client.addExpense("Movie", 200, "Entertainment", "2026-01-01");
+
+        Assert.assertEquals(client.get("/get-expenses").jsonList("expenses").size(), 3);
+
+        ApiResponse january = client.get("/get-expenses-by-month?month=1&year=2026");
+        Assert.assertEquals(january.jsonList("expenses").size(), 2, "UTC month bounds should include 1st and 31st");
+        Assert.assertEquals(january.number("month"), 1.0);
+        Assert.assertEquals(january.number("year"), 2026.0);
+        Assert.assertEquals(client.get("/get-expenses-by-month?month=2&year=2026").jsonList("expenses").size(), 1);
+        Assert.assertEquals(client.get("/get-expenses-by-month?month=3&year=2026").jsonList("expenses").size(), 0);
+        // Out-of-range months must not roll over into a real one (13/2025 would be January 2026)
+        ApiResponse outOfRange = client.get("/get-expenses-by-month?month=13&year=2025");
+        Assert.assertEquals(outOfRange.status(), 200, outOfRange.toString());
+        Assert.assertEquals(outOfRange.jsonList("expenses").size(), 0, "month 13 matches no expenses");
+        Assert.assertEquals(client.get("/get-expenses-by-month?month=0&year=2026").jsonList("expenses").size(), 0);
+        Assert.assertEquals(client.get("/get-expenses-by-month?month=1&year=26").jsonList("expenses").size(), 0);
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> summary = (Map<String, Object>) client.get("/expense-summary").json().get("summary");
+        Assert.assertEquals(((Number) summary.get("Food")).doubleValue(), 250.0);
+        Assert.assertEquals(((Number) summary.get("Transport")).doubleValue(), 30.5);
+
+        ApiResponse invalidAmount = client.addExpense("Broken", "abc", "Food", "2026-01-02");
+        Assert.assertEquals(invalidAmount.status(), 500);
+        Assert.assertEquals(invalidAmount.json().get("error"), "Failed to add expense.");
+
+        test.log(Status.PASS, "✓ TC-API-03 PASSED on " + backend);
+    }
+
+    /**
+     * TC-API-04: Deleting expenses
+     */
+    @Test(dataProvider = "backends", description = "TC-API-04: Delete contract")
+    public void testDeleteContract(String backend, String url) {
+        test = extent.createTest("TC-API-04 [" + backend + "]", "Delete contract");
+        ApiClient client = loggedIn(clientFor(backend, url));
+        client.addExpense("Keep", 10, "Other", "2026-01-05");
+        List<Map<String, Object>> expenses = client.addExpense("Remove", 20, "Other", "2026-01-06").jsonList("expenses");
+        String removeId = (String) expenses.get(1).get("_id");
+
+        ApiResponse deleted = client.delete("/delete-expense/" + removeId);
+        Assert.assertEquals(deleted.status(), 200, deleted.toString());
+        Assert.assertEquals(deleted.json().get("message"), "Expense deleted successfully!");
+        Assert.assertEquals(deleted.jsonList("expenses").size(), 1);
+        Assert.assertEquals(deleted.jsonList("expenses").get(0).get("description"), "Keep");
+
+        ApiResponse again = client.delete("/delete-expense/" + removeId);
+        Assert.assertEquals(again.status(), 404);
+        Assert.assertEquals(again.json().get("error"), "Expense not found");
+
+        ApiResponse malformed = client.delete("/delete-expense/not-an-id");
+        Assert.assertEquals(malformed.status(), 404);
+        Assert.assertEquals(malformed.json().get("error"), "Expense not found");
+
+        test.log(Status.PASS, "✓ TC-API-04 PASSED on " + backend);
+    }
+
+    /**
+     * TC-API-05: Monthly budgets and budget history
+     */
+    @Test(dataProvider = "backends", description = "TC-API-05: Budget contract")
+    public void testBudgetContract(String backend, String url) {
+        test = extent.createTest("TC-API-05 [" + backend + "]", "Budget contract");
+        ApiClient client = loggedIn(clientFor(backend, url));
+        LocalDate now = LocalDate.now();
+        int month = now.getMonthValue();
+        int year = now.getYear();
+
+        ApiResponse unset = client.get("/get-budget?month=" + month + "&year=" + year);
+        Assert.assertEquals(unset.status(), 200);
+        Assert.assertEquals(unset.number("budget"), 0.0);
+        Assert.assertEquals(unset.number("month"), (double) month);
+
+        ApiResponse set = client.setBudget(1000, month, year);
+        Assert.assertEquals(set.status(), 200, set.toString());
+        Assert.assertEquals(set.json().get("message"), "Budget set successfully!");
+        Assert.assertEquals(set.number("budget"), 1000.0);
+        Assert.assertEquals(set.number("month"), (double) month);
+        Assert.assertEquals(set.number("year"), (double) year);
+
+        client.setBudget(1500, month, year);
+        Assert.assertEquals(client.get("/get-budget?month=" + month + "&year=" + year).number("budget"), 1500.0,
+                "setting a budget twice should replace it");
+
+        client.addExpense("Rent", 600, "Other", now.withDayOfMonth(1).toString());
+        List<Map<String, Object>> history = client.get("/get-budget-history?months=3").jsonList("history");
+        Assert.assertEquals(history.size(), 3);
+        Map<String, Object> current = history.get(0);
+        Assert.assertEquals(((Number) current.get("month")).intValue(), month);
+        Assert.assertEquals(current.get("monthName"), now.getMonth().getDisplayName(TextStyle.FULL, Locale.US));
+        Assert.assertEquals(((Number) current.get("budget")).doubleValue(), 1500.0);
+        Assert.assertEquals(((Number) current.get("expenses")).doubleValue(), 600.0);
+        Assert.assertEquals(((Number) current.get("remaining")).doubleValue(), 900.0);
+        Assert.assertEquals(((Number) history.get(1).get("budget")).doubleValue(), 0.0);
+
+        test.log(Status.PASS, "✓ TC-API-05 PASSED on " + backend);
+    }
+
+    /**
+     * TC-API-06: Dashboard (month expenses, budget, summary and optional history in one response)
+     */
+    @Test(dataProvider = "backends", description = "TC-API-06: Dashboard contract")
+    @SuppressWarnings("unchecked")
+    public void testDashboardContract(String backend, String url) {
+        test = extent.createTest("TC-API-06 [" + backend + "]", "Dashboard contract");
+        ApiClient client = loggedIn(clientFor(backend, url));
+        LocalDate now = LocalDate.now();
+        int month = now.getMonthValue();
+        int year = now.getYear();
+
+        client.setBudget(1000, month, year);
+        client.addExpense("Lunch", 250, "Food", now.withDayOfMonth(1).toString());
+        client.addExpense("Dinner", 100.5, "Food", now.withDayOfMonth(2).toString());
+        client.addExpense("Bus", 30, "Transport", now.withDayOfMonth(3).toString());
+        client.addExpense("Last month", 999, "Other", now.minusMonths(1).withDayOfMonth(1).toString());
+
+        ApiResponse dashboard = client.get("/dashboard?month=" + month + "&year=" + year);
+        Assert.assertEquals(dashboard.status(), 200, dashboard.toString());
+        Assert.assertEquals(dashboard.number("month"), (double) month);
+        Assert.assertEquals(dashboard.number("year"), (double) year);
+        Assert.assertEquals(dashboard.number("budget"), 1000.0);
+        List<Map<String, Object>> expenses = dashboard.jsonList("expenses");
+        Assert.assertEquals(expenses.size(), 3, "only the requested month's expenses");
+        Assert.assertEquals(expenses, client.get("/get-expenses-by-month?month=" + month + "&year=" + year)
+                .jsonList("expenses"), "same expenses as /get-expenses-by-month");
+
+        Map<String, Object> summary = (Map<String, Object>) dashboard.json().get("summary");
+        Map<String, Object> byCategory = (Map<String, Object>) summary.get("byCategory");
+        Assert.assertEquals(((Number) summary.get("total")).doubleValue(), 380.5);
+        Assert.assertEquals(((Number) byCategory.get("Food")).doubleValue(), 350.5);
+        Assert.assertEquals(((Number) byCategory.get("Transport")).doubleValue(), 30.0);
+        Assert.assertNull(byCategory.get("Other"), "other months don't count");
+        Assert.assertNull(dashboard.json().get("history"), "history only when asked for");
+
+        ApiResponse withHistory = client.get("/dashboard?month=" + month + "&year=" + year + "&history=3");
+        Assert.assertEquals(withHistory.jsonList("history"),
+                client.get("/get-budget-history?months=3").jsonList("history"), "same history as /get-budget-history");
+
+        ApiResponse empty = client.get("/dashboard?month=" + month + "&year=" + (year - 5));
+        Assert.assertEquals(empty.status(), 200);
+        Assert.assertEquals(empty.jsonList("expenses").size(), 0);
+        Assert.assertEquals(empty.number("budget"), 0.0);
+        Assert.assertEquals(((Number) ((Map<String, Object>) empty.json().get("summary")).get("total")).doubleValue(), 0.0);
+
+        // Month 13 of this year must not roll over into next January's expenses
+        client.addExpense("Next year", 75, "Other", LocalDate.of(year + 1, 1, 15).toString());
+        ApiResponse outOfRange = client.get("/dashboard?month=13&year=" + year);
+        Assert.assertEquals(outOfRange.status(), 200, outOfRange.toString());
+        Assert.assertEquals(outOfRange.number("month"), 13.0);
+        Assert.assertEquals(outOfRange.jsonList("expenses").size(), 0, "month 13 matches no expenses");
+        Assert.assertEquals(outOfRange.number("budget"), 0.0);
+
+        Assert.assertEquals(new ApiClient(url).get("/dashboard").status(), 401, "dashboard requires a login");
+
+        test.log(Status.PASS, "✓ TC-API-06 PASSED on " + backend);
+    }
+
+    /**
+     * TC-API-07: Test-run tagging and bulk deletion of a run's users; admin token on admin routes and /metrics
+     */
+    @Test(dataProvider = "backends", description = "TC-API-07: Test user cleanup contract")
+    public void testTestRunCleanupContract(String backend, String url) {
+        test = extent.createTest("TC-API-07 [" + backend + "]", "Test user cleanup contract");
+        ApiClient client = clientFor(backend, url);
+        if (backend.equals("node") && !TestConfig.serverKnowsAdminToken()) {
+            throw new SkipException("ADMIN_TOKEN of server.js not given (-Dadmin.token)");
+        }
+        // A run of its own, so the suite's users stay until the suite ends
+        String testRun = "contract-" + System.nanoTime();
+        String tagged1 = uniqueEmail("tagged");
+        String tagged2 = uniqueEmail("tagged");
+        String otherRun = uniqueEmail("otherrun");
+        client.setTestRun(testRun);
+        Assert.assertEquals(client.register("Tagged User", tagged1, "Secret123").status(), 201);
+        Assert.assertEquals(client.register("Tagged User", tagged2, "Secret123").status(), 201);
+        client.setTestRun(testRun + "-other");
+        Assert.assertEquals(client.register("Other Run User", otherRun, "Secret123").status(), 201);
+
+        ApiResponse wrongToken = client.deleteTestRun(testRun, "not-the-token");
+        Assert.assertEquals(wrongToken.status(), 401);
+        Assert.assertEquals(wrongToken.json().get("error"), "Invalid admin token.");
+        Assert.assertEquals(client.login(tagged1, "Secret123").status(), 200, "a rejected purge deletes nothing");
+        Assert.assertEquals(client.get("/metrics").status(), 401, "metrics need the admin token");
+        Assert.assertEquals(client.metrics("not-the-token").status(), 401);
+        Assert.assertEquals(client.metrics(TestConfig.ADMIN_TOKEN).status(), 200);
+
+        ApiResponse purged = client.deleteTestRun(testRun, TestConfig.ADMIN_TOKEN);
+        Assert.assertEquals(purged.status(), 200, purged.toString());
+        Assert.assertEquals(purged.json().get("message"), "Test users deleted.");
+        Assert.assertEquals(purged.json().get("testRun"), testRun);
+        Assert.assertEquals(purged.number("deleted"), 2.0);
+        Assert.assertEquals(client.login(tagged1, "Secret123").status(), 400, "tagged user deleted");
+        Assert.assertEquals(client.login(tagged2, "Secret123").status(), 400, "tagged user deleted");
+        Assert.assertEquals(client.login(otherRun, "Secret123").status(), 200, "other run's user kept");
+        Assert.assertEquals(client.deleteTestRun(testRun, TestConfig.ADMIN_TOKEN).number("deleted"), 0.0);
+        Assert.assertEquals(client.deleteTestRun(testRun + "-other", TestConfig.ADMIN_TOKEN).number("deleted"), 1.0);
+
+        test.log(Status.PASS, "✓ TC-API-07 PASSED on " + backend);
+    }
+}
@@ -0,0 +1,184 @@
+package com.expensetracker.tests;
+
+import com.aventstack.extentreports.Status;
+import com.expensetracker.base.ApiClient;
+import com.expensetracker.base.ApiClient.ApiResponse;
+import com.expensetracker.base.BaseApiTest;
+import com.expensetracker.base.LatencyStats;
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Per-route latency benchmark for the authenticated API
+ * Seeds one user with a large expense/budget history, then times every read and write route.
+ *
+ * Results go to test-output/route-latency-{label}.csv. Run once on the old server with
+ * -Dbenchmark.label=before and once on the new one with -Dbenchmark.label=after; the second
+ * run prints the p50/p95 change against the first when -Dbenchmark.compareTo=before is set.
+ */
+public class ApiRouteBenchmarkTest extends BaseApiTest {
+    
+    private static final String[] CATEGORIES = {"Food", "Transport", "Entertainment", "Other"};
+    
+    private final int historySize = Integer.getInteger("benchmark.expenses", 2000);
+    private final int historyMonths = Integer.getInteger("benchmark.months", 24);
+    private final int warmup = Integer.getInteger("benchmark.warmup", 20);
+    private final int iterations = Integer.getInteger("benchmark.iterations", 200);
+    private final String label = System.getProperty("benchmark.label", "current");
+    private final String compareTo = System.getProperty("benchmark.compareTo");
+    
+    private ApiClient client;
+    private final LocalDate today = LocalDate.now();
+    
+    @BeforeClass
+    public void seedLargeHistory() {
+        client = newApiClient();
+        String email = "benchuser" + System.currentTimeMillis() + "@example.com";
+        try {
+            client.register("Benchmark User", email, "BenchPass123");
+        } catch (IllegalStateException e) {
+            throw new SkipException("Application not reachable at " + BASE_URL + ": " + e.getMessage());
+        }
+        Assert.assertEquals(client.login(email, "BenchPass123").status(), 200, "Benchmark user should log in");
+        
+        // Spread the history over the last N months so month filters have real work to do
+        for (int i = 0; i < historySize; i++) {
+            LocalDate date = today.minusMonths(i % historyMonths).withDayOfMonth(1 + i % 28);
+            client.addExpense("Seed " + i, 10 + i % 90, CATEGORIES[i % CATEGORIES.length], date.toString());
+        }
+        for (int m = 0; m < historyMonths; m++) {
+            LocalDate month = today.minusMonths(m);
+            client.setBudget(5000 + m, month.getMonthValue(), month.getYear());
+        }
+        System.out.println("✓ Seeded " + email + " with " + historySize + " expenses over " + historyMonths + " months");
+    }
+    
+    @Test(description = "Per-route latency and response-time distribution on a large history")
+    public void benchmarkRoutes() throws IOException {
+        test = extent.createTest("PERF-API-01", "Per-route latency on a user with " + historySize + " expenses");
+        
+        int month = today.getMonthValue();
+        int year = today.getYear();
+        Map<String, LatencyStats> results = new LinkedHashMap<>();
+        
+        results.put("GET /get-budget", measure("GET /get-budget",
+                i -> client.get("/get-budget?month=" + month + "&year=" + year)));
+        results.put("GET /get-expenses-by-month", measure("GET /get-expenses-by-month",
+                i -> client.get("/get-expenses-by-month?month=" + month + "&year=" + year)));
+        results.put("GET /get-budget-history", measure("GET /get-budget-history",
+                i -> client.get("/get-budget-history?months=6")));
+        results.put("GET /expense-summary", measure("GET /expense-summary",
+                i -> client.get("/expense-summary")));
+        results.put("GET /get-expenses", measure("GET /get-expenses",
+                i -> client.get("/get-expenses")));
+        results.put("POST /set-budget", measure("POST /set-budget",
+                i -> client.setBudget(6000 + i, month, year)));
+        results.put("POST /add-expense", measure("POST /add-expense",
+                i -> client.addExpense("Bench " + i, 42, "Food", today.toString())));
+        
+        // Delete the expenses the add phase created, newest first
+        List<String> benchIds = new ArrayList<>();
+        for (Map<String, Object> expense : client.get("/get-expenses").jsonList("expenses")) {
+            if (String.valueOf(expense.get("description")).startsWith("Bench ")) {
+                benchIds.add(0, (String) expense.get("_id"));
+            }
+        }
+        results.put("DELETE /delete-expense", measure("DELETE /delete-expense", benchIds.size(),
+                i -> client.delete("/delete-expense/" + benchIds.get(i))));
+        
+        Map<String, double[]> baseline = compareTo != null ? readCsv(csvPath(compareTo)) : Map.of();
+        for (LatencyStats stats : results.values()) {
+            String line = stats.summary();
+            double[] before = baseline.get(stats.getName());
+            if (before != null) {
+                line += String.format(" | vs %s: p50 %+.1f%%, p95 %+.1f%%", compareTo,
+                        change(before[0], stats.percentileMs(50)), change(before[1], stats.percentileMs(95)));
+            }
+            System.out.println(line);
+            test.log(Status.INFO, line);
+            test.log(Status.INFO, stats.getName() + " distribution: " + stats.distribution());
+            Assert.assertEquals(stats.errors(), 0, stats.getName() + " should not return errors");
+        }
+        
+        writeCsv(csvPath(label), results);
+        test.log(Status.PASS, "✓ PERF-API-01 results written to " + csvPath(label));
+    }
+    
+    private LatencyStats measure(String name, Call call) {
+        return measure(name, warmup + iterations, call);
+    }
+    
+    /**
+     * Run a call repeatedly; the first {@code warmup} calls are not recorded
+     */
+    private LatencyStats measure(String name, int calls, Call call) {
+        LatencyStats stats = new LatencyStats(name);
+        for (int i = 0; i < calls; i++) {
+            ApiResponse response = call.run(i);
+            if (i < warmup && calls > warmup) {
+                continue;
+            }
+            if (response.status() >= 400) {
+                stats.recordError();
+            } else {
+                stats.record(response.elapsedNanos());
+            }
+        }
+        return stats;
+    }
+    
+    private static double change(double before, double after) {
+        return before == 0 ? 0 : (after - before) / before * 100.0;
+    }
+    
+    private static Path csvPath(String label) {
+        return Paths.get("test-output", "route-latency-" + label + ".csv");
+    }
+    
+    private static void writeCsv(Path path, Map<String, LatencyStats> results) throws IOException {
+        StringBuilder csv = new StringBuilder("route,count,errors,mean_ms,p50_ms,p95_ms,p99_ms,max_ms\n");
+        for (LatencyStats s : results.values()) {
+            csv.append(String.format(Locale.ROOT, "%s,%d,%d,%.3f,%.3f,%.3f,%.3f,%.3f%n",
+                    s.getName(), s.count(), s.errors(), s.meanMs(),
+                    s.percentileMs(50), s.percentileMs(95), s.percentileMs(99), s.maxMs()));
+        }
+        Files.createDirectories(path.getParent());
+        Files.write(path, csv.toString().getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * @return route -> {p50, p95} from a previous run, empty if the file does not exist
+     */
+    private static Map<String, double[]> readCsv(Path path) throws IOException {
+        Map<String, double[]> rows = new LinkedHashMap<>();
+        if (!Files.exists(path)) {
+            System.out.println("No baseline found at " + path);
+            return rows;
+        }
+        List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+        for (String line : lines.subList(1, lines.size())) {
+            String[] cols = line.split(",");
+            rows.put(cols[0], new double[] {Double.parseDouble(cols[4]), Double.parseDouble(cols[5])});
+        }
+        return rows;
+    }
+    
+    @FunctionalInterface
+    private interface Call {
+        ApiResponse run(int iteration);
+    }
+}
@@ -0,0 +1,361 @@
+package com.expensetracker.tests;
+
+import com.aventstack.extentreports.Status;
+import com.expensetracker.base.ApiClient;
+import com.expensetracker.base.ApiClient.ApiResponse;
+import com.expensetracker.base.BaseApiTest;
+import com.expensetracker.base.InMemoryExpenseServer;
+import com.expensetracker.base.ReportTest;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Budget and Month Filter Test Suite
+ * Generates randomised budget and expense histories per user, sends them over plain HTTP and checks
+ * /set-budget, /get-budget, /get-budget-history and /get-expenses-by-month against a Java model of
+ * server.js's rules (per-month budgets, UTC month boundaries, history of the last N months).
+ * Scenarios run in parallel, one user each, against server.js (if running) and the in-memory stand-in.
+ * Implements test cases: TC-BUD-01 to TC-BUD-02
+ *
+ * Run with: mvn test -Papi [-Dbudget.scenarios=48] [-Dbudget.operations=60] [-Dbudget.seed=42]
+ */
+public class BudgetApiTest extends BaseApiTest {
+
+    private static final int SCENARIOS = Integer.getInteger("budget.scenarios", 48);
+    private static final int OPERATIONS = Integer.getInteger("budget.operations", 60);
+    private static final long SEED = Long.getLong("budget.seed", System.currentTimeMillis());
+    // Months before the current one that scenarios may touch; history is checked over this window
+    private static final int MONTHS_BACK = 24;
+    private static final double EPSILON = 1e-6;
+
+    private final InMemoryExpenseServer inMemory = new InMemoryExpenseServer();
+    private String inMemoryUrl;
+    // Shared by every scenario's HttpClient for its async plumbing
+    private ExecutorService httpExecutor;
+
+    @BeforeClass
+    public void startImplementations() throws IOException {
+        inMemoryUrl = inMemory.start(0);
+        httpExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors() * 2, r -> {
+            Thread thread = new Thread(r, "budget-http");
+            thread.setDaemon(true);
+            return thread;
+        });
+        System.out.println("Budget scenarios use seed " + SEED + " (-Dbudget.seed=" + SEED + " to replay)");
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void stopImplementations() {
+        inMemory.stop();
+        httpExecutor.shutdownNow();
+    }
+
+    @DataProvider(name = "scenarios", parallel = true)
+    public Object[][] scenarios() {
+        List<Object[]> rows = new ArrayList<>();
+        for (String[] backend : backends()) {
+            for (int i = 0; i < SCENARIOS; i++) {
+                rows.add(new Object[] {backend[0], backend[1], SEED + i});
+            }
+        }
+        return rows.toArray(new Object[0][]);
+    }
+
+    @DataProvider(name = "months", parallel = true)
+    public Object[][] months() {
+        List<Object[]> rows = new ArrayList<>();
+        for (String[] backend : backends()) {
+            // A leap February and both year ends
+            for (YearMonth month = YearMonth.of(2023, 12); !month.isAfter(YearMonth.of(2025, 1)); month = month.plusMonths(1)) {
+                rows.add(new Object[] {backend[0], backend[1], month.getYear(), month.getMonthValue()});
+            }
+        }
+        return rows.toArray(new Object[0][]);
+    }
+
+    private String[][] backends() {
+        return new String[][] {{"node", BASE_URL}, {"inmemory", inMemoryUrl}};
+    }
+
+    private ApiClient loggedIn(String backend, String url) {
+        if (backend.equals("node")) {
+            requireNodeServer();
+        }
+        ApiClient client = new ApiClient(url, HttpClient.newBuilder().executor(httpExecutor));
+        String email = "budget" + System.nanoTime() + "-" + Thread.currentThread().getId() + "@example.com";
+        Assert.assertEquals(client.register("Budget User", email, "BudgetPass1").status(), 201);
+        Assert.assertEquals(client.login(email, "BudgetPass1").status(), 200);
+        return client;
+    }
+
+    /**
+     * TC-BUD-01: Random budgets and expenses match the reference model
+     */
+    @Test(dataProvider = "scenarios", description = "TC-BUD-01: Budget and month filter against reference model")
+    public void testScenarioMatchesModel(String backend, String url, long seed) {
+        ApiClient client = loggedIn(backend, url);
+        Random random = new Random(seed);
+        BudgetModel model = new BudgetModel();
+        List<String> mismatches = new ArrayList<>();
+        YearMonth current = YearMonth.now();
+
+        for (int op = 0; op < OPERATIONS; op++) {
+            int choice = random.nextInt(100);
+            if (choice < 30) {
+                YearMonth month = randomMonth(random, current);
+                double amount = randomAmount(random, 100000);
+                ApiResponse response = client.setBudget(amount, month.getMonthValue(), month.getYear());
+                model.setBudget(month, amount);
+                expectStatus(mismatches, "set-budget " + month, response, 200);
+                if (response.status() == 200) {
+                    expectNumber(mismatches, "set-budget " + month + " budget", response.number("budget"), amount);
+                    expectNumber(mismatches, "set-budget " + month + " month", response.number("month"), month.getMonthValue());
+                    expectNumber(mismatches, "set-budget " + month + " year", response.number("year"), month.getYear());
+                }
+            } else if (choice < 35) {
+                // No month/year: the server uses its current month
+                double amount = randomAmount(random, 100000);
+                Map<String, Object> body = new HashMap<>();
+                body.put("budget", amount);
+                ApiResponse response = client.post("/set-budget", body);
+                model.setBudget(current, amount);
+                expectStatus(mismatches, "set-budget (current month)", response, 200);
+            } else if (choice < 80) {
+                LocalDate date = randomDate(random, current);
+                double amount = randomAmount(random, 5000);
+                String description = "e" + seed + "-" + op;
+                ApiResponse response = client.addExpense(description, amount, "Food", date.toString());
+                model.addExpense(description, date, amount);
+                expectStatus(mismatches, "add-expense " + date, response, 200);
+            } else {
+                checkMonth(client, model, randomMonth(random, current), mismatches);
+            }
+        }
+
+        // Every month in the window, then the history over it
+        for (int i = -3; i <= MONTHS_BACK; i++) {
+            checkMonth(client, model, current.minusMonths(i), mismatches);
+        }
+        int historyMonths = 1 + random.nextInt(MONTHS_BACK);
+        checkHistory(client, model, historyMonths, current, mismatches);
+
+        ReportTest report = extent.createTest("TC-BUD-01 [" + backend + "] seed " + seed,
+                OPERATIONS + " operations, " + model.expenseCount() + " expenses, " + model.budgetCount() + " budgets");
+        if (!mismatches.isEmpty()) {
+            report.log(Status.FAIL, String.join("<br>", mismatches.subList(0, Math.min(20, mismatches.size()))));
+        }
+        Assert.assertTrue(mismatches.isEmpty(), mismatches.size() + " mismatches for seed " + seed + ", first: "
+                + (mismatches.isEmpty() ? "" : mismatches.get(0)));
+        report.log(Status.PASS, "✓ TC-BUD-01 PASSED on " + backend);
+    }
+
+    /**
+     * TC-BUD-02: Expenses on the first and last day of a month stay in that month
+     */
+    @Test(dataProvider = "months", description = "TC-BUD-02: UTC month boundaries")
+    public void testMonthBoundaries(String backend, String url, int year, int month) {
+        ApiClient client = loggedIn(backend, url);
+        YearMonth target = YearMonth.of(year, month);
+        ReportTest report = extent.createTest("TC-BUD-02 [" + backend + "] " + target, "UTC month boundaries");
+        BudgetModel model = new BudgetModel();
+        LocalDate[] dates = {
+            target.minusMonths(1).atEndOfMonth(), target.atDay(1), target.atEndOfMonth(), target.plusMonths(1).atDay(1)
+        };
+        for (int i = 0; i < dates.length; i++) {
+            String description = "boundary-" + i;
+            Assert.assertEquals(client.addExpense(description, 10 + i, "Bills", dates[i].toString()).status(), 200);
+            model.addExpense(description, dates[i], 10 + i);
+        }
+        client.setBudget(500, month, year);
+        model.setBudget(target, 500);
+
+        List<String> mismatches = new ArrayList<>();
+        for (YearMonth checked = target.minusMonths(1); !checked.isAfter(target.plusMonths(1)); checked = checked.plusMonths(1)) {
+            checkMonth(client, model, checked, mismatches);
+        }
+        Assert.assertTrue(mismatches.isEmpty(), target + ": " + mismatches);
+        Assert.assertEquals(model.expensesIn(target).size(), 2, "model sanity: first and last day of " + target);
+        report.log(Status.PASS, "✓ TC-BUD-02 PASSED on " + backend + " for " + target);
+    }
+
+    // ------------------------------------------------------------------
+    // Checks
+    // ------------------------------------------------------------------
+
+    private static void checkMonth(ApiClient client, BudgetModel model, YearMonth month, List<String> mismatches) {
+        String query = "?month=" + month.getMonthValue() + "&year=" + month.getYear();
+
+        ApiResponse budget = client.get("/get-budget" + query);
+        expectStatus(mismatches, "get-budget " + month, budget, 200);
+        if (budget.status() == 200) {
+            expectNumber(mismatches, "get-budget " + month, budget.number("budget"), model.budget(month));
+        }
+
+        ApiResponse byMonth = client.get("/get-expenses-by-month" + query);
+        expectStatus(mismatches, "get-expenses-by-month " + month, byMonth, 200);
+        if (byMonth.status() != 200) {
+            return;
+        }
+        Map<String, Double> actual = new TreeMap<>();
+        for (Map<String, Object> expense : byMonth.jsonList("expenses")) {
+            String date = String.valueOf(expense.get("date"));
+            actual.put(expense.get("description") + "@" + date.substring(0, Math.min(10, date.length())),
+                    ((Number) expense.get("amount")).doubleValue());
+        }
+        Map<String, Double> expected = new TreeMap<>();
+        for (Expense expense : model.expensesIn(month)) {
+            expected.put(expense.description + "@" + expense.date, expense.amount);
+        }
+        if (!actual.equals(expected)) {
+            mismatches.add("get-expenses-by-month " + month + ": expected " + expected + " but got " + actual);
+        }
+    }
+
+    private static void checkHistory(ApiClient client, BudgetModel model, int months, YearMonth current,
+                                     List<String> mismatches) {
+        ApiResponse response = client.get("/get-budget-history?months=" + months);
+        expectStatus(mismatches, "get-budget-history", response, 200);
+        if (response.status() != 200) {
+            return;
+        }
+        List<Map<String, Object>> history = response.jsonList("history");
+        if (history.size() != months) {
+            mismatches.add("get-budget-history: expected " + months + " entries but got " + history.size());
+            return;
+        }
+        for (int i = 0; i < months; i++) {
+            YearMonth month = current.minusMonths(i);
+            Map<String, Object> entry = history.get(i);
+            String label = "get-budget-history[" + i + "] ";
+            expectNumber(mismatches, label + "month", (Number) entry.get("month"), month.getMonthValue());
+            expectNumber(mismatches, label + "year", (Number) entry.get("year"), month.getYear());
+            expectNumber(mismatches, label + "budget", (Number) entry.get("budget"), model.budget(month));
+            expectNumber(mismatches, label + "expenses", (Number) entry.get("expenses"), model.total(month));
+            expectNumber(mismatches, label + "remaining", (Number) entry.get("remaining"),
+                    model.budget(month) - model.total(month));
+        }
+    }
+
+    private static void expectStatus(List<String> mismatches, String what, ApiResponse response, int status) {
+        if (response.status() != status) {
+            mismatches.add(what + ": expected " + status + " but got " + response);
+        }
+    }
+
+    private static void expectNumber(List<String> mismatches, String what, Number actual, double expected) {
+        if (actual == null || Math.abs(actual.doubleValue() - expected) > EPSILON) {
+            mismatches.add(what + ": expected " + expected + " but got " + actual);
+        }
+    }
+
+    private static void expectNumber(List<String> mismatches, String what, double actual, double expected) {
+        expectNumber(mismatches, what, (Number) actual, expected);
+    }
+
+    // ------------------------------------------------------------------
+    // Generators
+    // ------------------------------------------------------------------
+
+    // Mostly recent months, a few in the future
+    private static YearMonth randomMonth(Random random, YearMonth current) {
+        return current.minusMonths(random.nextInt(MONTHS_BACK + 4) - 3);
+    }
+
+    // Month edges twice as often as any other day, so boundary mistakes show up
+    private static LocalDate randomDate(Random random, YearMonth current) {
+        YearMonth month = randomMonth(random, current);
+        switch (random.nextInt(4)) {
+            case 0:
+                return month.atDay(1);
+            case 1:
+                return month.atEndOfMonth();
+            default:
+                return month.atDay(1 + random.nextInt(month.lengthOfMonth()));
+        }
+    }
+
+    // Whole cents, as the tracker form sends them
+    private static double randomAmount(Random random, int max) {
+        return (1 + random.nextInt(max * 100)) / 100.0;
+    }
+
+    // ------------------------------------------------------------------
+    // Reference model
+    // ------------------------------------------------------------------
+
+    /**
+     * What server.js should hold for one user: one budget per calendar month (last write wins)
+     * and expenses filed under the UTC month of their YYYY-MM-DD date
+     */
+    private static final class BudgetModel {
+        private final Map<YearMonth, Double> budgets = new HashMap<>();
+        private final List<Expense> expenses = new ArrayList<>();
+
+        void setBudget(YearMonth month, double amount) {
+            budgets.put(month, amount);
+        }
+
+        void addExpense(String description, LocalDate date, double amount) {
+            expenses.add(new Expense(description, date, amount));
+        }
+
+        double budget(YearMonth month) {
+            return budgets.getOrDefault(month, 0.0);
+        }
+
+        List<Expense> expensesIn(YearMonth month) {
+            List<Expense> inMonth = new ArrayList<>();
+            for (Expense expense : expenses) {
+                if (YearMonth.from(expense.date).equals(month)) {
+                    inMonth.add(expense);
+                }
+            }
+            return inMonth;
+        }
+
+        // Summed in insertion order, like the server, so floating-point totals match exactly
+        double total(YearMonth month) {
+            double sum = 0;
+            for (Expense expense : expensesIn(month)) {
+                sum += expense.amount;
+            }
+            return sum;
+        }
+
+        int expenseCount() {
+            return expenses.size();
+        }
+
+        int budgetCount() {
+            return budgets.size();
+        }
+    }
+
+    private static final class Expense {
+        private final String description;
+        private final LocalDate date;
+        private final double amount;
+
+        Expense(String description, LocalDate date, double amount) {
+            this.description = description;
+            this.date = date;
+            this.amount = amount;
+        }
+    }
+}
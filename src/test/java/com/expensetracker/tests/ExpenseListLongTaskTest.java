@@ -0,0 +1,175 @@
+package com.expensetracker.tests;
+
+import com.aventstack.extentreports.Status;
+import com.expensetracker.base.ApiClient;
+import com.expensetracker.base.BaseTest;
+import org.openqa.selenium.JavascriptExecutor;
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Main-thread long tasks on the tracker page with a very large expense list
+ * Loads a few real expenses, pads the list in the page with synthetic ones (-Dlongtask.rows, default 50000)
+ * and runs each interaction - full render, scrolling, filtering, adding, deleting and switching to another
+ * month of the same size - under a PerformanceObserver for 'longtask' entries. The browser reports every
+ * task over 50 ms; the test fails if any of them is longer than the budget or if the table renders more
+ * than a window of rows. Chrome only, Firefox does not report long tasks.
+ *
+ * The month switch swaps in a prepared list the way fetchExpensesByMonth does once the response is parsed,
+ * so it measures the table and not JSON parsing of 50k records.
+ *
+ * Run with: mvn test -Plongtask [-Dlongtask.rows=50000] [-Dlongtask.maxMs=50]
+ */
+public class ExpenseListLongTaskTest extends BaseTest {
+
+    private static final List<String> INTERACTIONS = List.of("render", "scroll", "filter", "add", "delete", "month switch");
+    // A window is a screenful plus overscan; anything near the list size means virtualization is off
+    private static final int MAX_RENDERED_ROWS = 200;
+
+    private final int rows = Integer.getInteger("longtask.rows", 50000);
+    private final double maxTaskMs = Double.parseDouble(System.getProperty("longtask.maxMs", "50"));
+
+    // Installed once per page: long task observer, dialog stubs and a count of fetches in flight
+    private static final String INSTALL_SCRIPT =
+            "if (!window.__longTasks) {"
+            + "  window.__longTasks = [];"
+            + "  window.__pending = 0;"
+            + "  if (PerformanceObserver.supportedEntryTypes.includes('longtask')) {"
+            + "    new PerformanceObserver(list => list.getEntries().forEach(entry =>"
+            + "      __longTasks.push({ start: entry.startTime, duration: entry.duration }))).observe({ type: 'longtask' });"
+            + "  }"
+            + "  const originalFetch = window.fetch;"
+            + "  window.fetch = (...args) => { __pending++; return originalFetch(...args).finally(() => __pending--); };"
+            + "  window.alert = () => {};"
+            + "  window.confirm = () => true;"
+            + "}"
+            + "return PerformanceObserver.supportedEntryTypes.includes('longtask');";
+
+    // arguments: synthetic row count, month as yyyy-mm; builds this month's list and the one to switch to
+    private static final String SETUP_SCRIPT =
+            "const [count, month] = arguments;"
+            + "const types = ['Food', 'Transport', 'Entertainment', 'Other'];"
+            + "const synthetic = prefix => Array.from({ length: count }, (_, i) => ({"
+            + "  _id: 'synthetic-' + prefix + i, description: prefix + ' ' + i, amount: 1 + i % 500,"
+            + "  type: types[i % 4], date: month + '-' + String(1 + i % 28).padStart(2, '0') }));"
+            + "expenses = expenses.concat(synthetic('Synthetic'));"
+            + "window.__otherMonth = synthetic('Other month');"
+            + "return expenses.length;";
+
+    // arguments: interaction name, month as yyyy-mm, callback
+    private static final String INTERACTION_SCRIPT =
+            "const [name, month, done] = arguments;"
+            + "const sleep = ms => new Promise(r => setTimeout(r, ms));"
+            + "const frame = () => new Promise(r => requestAnimationFrame(() => setTimeout(r, 0)));"
+            + "const settle = async () => { do { await sleep(10); } while (__pending > 0); await frame(); };"
+            + "const set = (id, value) => { document.getElementById(id).value = value; };"
+            + "const scroller = document.getElementById('expense-scroll');"
+            + "const filter = document.getElementById('filter-category');"
+            + "const actions = {"
+            + "  'render': async () => { updateExpenseList(expenses); refreshExpenseSummary(); await frame(); },"
+            + "  'scroll': async () => {"
+            + "    for (const at of [0.1, 0.35, 0.5, 0.9, 1, 0]) { scroller.scrollTop = at * scroller.scrollHeight; await frame(); }"
+            + "  },"
+            + "  'filter': async () => {"
+            + "    for (const value of ['Food', 'Other', 'All']) { filter.value = value; filter.dispatchEvent(new Event('change')); await frame(); }"
+            + "  },"
+            + "  'add': async () => {"
+            + "    set('expense-name', 'Long task add'); set('expense-amount', '42');"
+            + "    set('expense-category', 'Food'); set('expense-date', month + '-10');"
+            + "    document.getElementById('expense-form').dispatchEvent(new Event('submit', { cancelable: true }));"
+            + "    await settle();"
+            + "  },"
+            + "  'delete': async () => {"
+            + "    await deleteExpense(expenses.findIndex(e => !String(e._id).startsWith('synthetic-')));"
+            + "    await settle();"
+            + "  },"
+            + "  'month switch': async () => { expenses = __otherMonth; updateExpenseList(expenses); refreshExpenseSummary(); await frame(); }"
+            + "};"
+            + "(async () => {"
+            + "  await sleep(200);"
+            + "  const start = performance.now();"
+            + "  await actions[name]();"
+            + "  const elapsed = performance.now() - start;"
+            // Long task entries are delivered asynchronously
+            + "  await sleep(200);"
+            + "  const list = document.getElementById('expense-list');"
+            + "  return {"
+            + "    elapsed: elapsed,"
+            + "    longTasks: __longTasks.filter(t => t.start >= start).map(t => t.duration),"
+            + "    listed: expenseListView.items.length,"
+            + "    rendered: Array.from(list.rows).filter(row => row.className !== 'spacer').length"
+            + "  };"
+            + "})().then(done, e => done({ error: String(e) }));";
+
+    @Test(description = "Tracker interactions with a very large expense list stay free of long tasks")
+    @SuppressWarnings("unchecked")
+    public void interactionsStayResponsive() {
+        test = extent.createTest("PERF-UI-02", "Long tasks on the tracker with " + rows + " expenses");
+
+        String email = "longtaskuser" + System.currentTimeMillis() + "@example.com";
+        LocalDate today = LocalDate.now();
+        String month = String.format("%d-%02d", today.getYear(), today.getMonthValue());
+        ApiClient client = newApiClient();
+        try {
+            client.register("Long Task User", email, "LongTaskPass123");
+        } catch (IllegalStateException e) {
+            throw new SkipException("Application not reachable at " + BASE_URL + ": " + e.getMessage());
+        }
+        client.login(email, "LongTaskPass123");
+        for (int i = 1; i <= 3; i++) {
+            client.addExpense("Real expense " + i, 10 * i, "Food", month + "-0" + i);
+        }
+        loginThroughUi(email, "LongTaskPass123");
+        navigateTo(BASE_URL + "/expense-tracker.html");
+        waitForNetworkIdle();
+
+        JavascriptExecutor js = (JavascriptExecutor) driver;
+        if (!Boolean.TRUE.equals(js.executeScript(INSTALL_SCRIPT))) {
+            throw new SkipException("Long task timing not supported on " + browser);
+        }
+        driver.manage().timeouts().scriptTimeout(Duration.ofMinutes(2));
+        Number listed = (Number) js.executeScript(SETUP_SCRIPT, rows, month);
+        test.log(Status.INFO, "Expense list padded to " + listed + " rows");
+
+        StringBuilder table = new StringBuilder("<table><tr><th>Interaction</th><th>Elapsed (ms)</th>"
+                + "<th>Long tasks</th><th>Longest (ms)</th><th>Listed</th><th>Rendered</th></tr>");
+        List<String> failures = new ArrayList<>();
+        for (String interaction : INTERACTIONS) {
+            Map<String, Object> result = (Map<String, Object>) js.executeAsyncScript(INTERACTION_SCRIPT, interaction, month);
+            Assert.assertNull(result.get("error"), interaction + " failed");
+
+            double longest = 0;
+            List<Object> longTasks = (List<Object>) result.get("longTasks");
+            for (Object duration : longTasks) {
+                longest = Math.max(longest, ((Number) duration).doubleValue());
+            }
+            long rendered = ((Number) result.get("rendered")).longValue();
+            String line = String.format(Locale.ROOT, "%s: %.1f ms, %d long tasks, longest %.1f ms, %d listed, %d rendered",
+                    interaction, ((Number) result.get("elapsed")).doubleValue(), longTasks.size(), longest,
+                    ((Number) result.get("listed")).longValue(), rendered);
+            System.out.println(line);
+            table.append(String.format(Locale.ROOT, "<tr><td>%s</td><td>%.1f</td><td>%d</td><td>%.1f</td><td>%d</td><td>%d</td></tr>",
+                    interaction, ((Number) result.get("elapsed")).doubleValue(), longTasks.size(), longest,
+                    ((Number) result.get("listed")).longValue(), rendered));
+
+            if (longest > maxTaskMs) {
+                failures.add(line);
+            }
+            if (rendered > MAX_RENDERED_ROWS) {
+                failures.add(interaction + ": " + rendered + " rows in the DOM");
+            }
+        }
+        test.log(Status.INFO, table.append("</table>").toString());
+
+        Assert.assertTrue(failures.isEmpty(), "Interactions over the " + maxTaskMs + " ms budget: " + failures);
+        test.log(Status.PASS, "✓ PERF-UI-02 PASSED: no task over " + maxTaskMs + " ms at " + listed + " rows");
+    }
+}
@@ -69,12 +69,11 @@ public class LoginTest extends BaseTest {
             
             test.log(Status.INFO, "Entered valid credentials");
             
-            driver.findElement(By.id("loginBtn")).click();
-            waitFor(3);
+            awaitResponse("POST", "/login", () -> driver.findElement(By.id("loginBtn")).click());
             
             // Handle login success alert
             handleAlert();
-            waitFor(2);
+            waitForNetworkIdle();
             
             test.log(Status.PASS, "Clicked Login button");
             
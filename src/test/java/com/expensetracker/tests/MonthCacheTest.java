@@ -0,0 +1,189 @@
+package com.expensetracker.tests;
+
+import com.aventstack.extentreports.Status;
+import com.expensetracker.base.ApiClient;
+import com.expensetracker.base.BaseTest;
+import com.expensetracker.base.TrackerSnapshot;
+import org.openqa.selenium.JavascriptExecutor;
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Client-side month cache of expense-tracker.html
+ * Seeds this month and the previous one, waits for the months next to the current one to be prefetched,
+ * then switches back and forth through the month selector: a cached month must be drawn without any
+ * request. Adding an expense to the other month, deleting one and changing a budget must show up
+ * when the month is switched to again, and what is shown must match the server.
+ *
+ * Requests are split in two: those started while the month is being drawn (must be none on a cache hit)
+ * and those started in the background afterwards (prefetches of the new month's neighbours).
+ */
+public class MonthCacheTest extends BaseTest {
+
+    // Installed once per page: dialog stubs and a log of fetch() calls, plus how many are in flight
+    private static final String INSTALL_SCRIPT =
+            "if (!window.__cacheTest) {"
+            + "  window.__cacheTest = { pending: 0, requests: [] };"
+            + "  const originalFetch = window.fetch;"
+            + "  window.fetch = (url, init) => {"
+            + "    const target = new URL(url, location.href);"
+            + "    __cacheTest.requests.push(((init && init.method) || 'GET') + ' ' + target.pathname + target.search);"
+            + "    __cacheTest.pending++;"
+            + "    return originalFetch(url, init).finally(() => __cacheTest.pending--);"
+            + "  };"
+            + "  window.alert = () => {};"
+            + "  window.confirm = () => true;"
+            + "}";
+
+    // arguments: month keys (yyyy-mm), callback; waits until all of them are cached
+    private static final String CACHED_SCRIPT =
+            "const [keys, done] = arguments;"
+            + "const poll = () => keys.every(key => monthCache.has(key)) ? done(true) : setTimeout(poll, 50);"
+            + "poll();";
+
+    // arguments: action, value, name, callback; returns the requests made while drawing and those after
+    private static final String ACTION_SCRIPT =
+            "const [action, value, name, done] = arguments;"
+            + "const sleep = ms => new Promise(r => setTimeout(r, ms));"
+            + "const frame = () => new Promise(r => requestAnimationFrame(() => setTimeout(r, 0)));"
+            + "const drained = async () => { do { await sleep(20); } while (__cacheTest.pending > 0); };"
+            + "const until = async ready => { while (!ready()) await sleep(20); };"
+            + "const set = (id, v) => { document.getElementById(id).value = v; };"
+            + "const submit = id => document.getElementById(id).dispatchEvent(new Event('submit', { cancelable: true }));"
+            + "const actions = {"
+            + "  'switch': async () => { set('view-month', value); await loadMonthData(); },"
+            + "  'add': async () => {"
+            + "    set('expense-name', name); set('expense-amount', '75');"
+            + "    set('expense-category', 'Food'); set('expense-date', value);"
+            + "    submit('expense-form'); await until(() => pendingExpenses.length === 0);"
+            + "  },"
+            + "  'delete': async () => { await deleteExpense(expenses.findIndex(e => e.description === name)); },"
+            + "  'budget': async () => {"
+            + "    set('budget-month', value); set('budget-amount', name); submit('budget-form');"
+            + "    await until(() => __cacheTest.requests.some(r => r.startsWith('GET /dashboard'))); await drained();"
+            + "  }"
+            + "};"
+            + "(async () => {"
+            + "  __cacheTest.requests = [];"
+            + "  await actions[action]();"
+            + "  await frame();"
+            + "  const drawing = __cacheTest.requests.splice(0);"
+            // Prefetches wait for the browser to be idle
+            + "  await sleep(300); await drained();"
+            + "  return { drawing: drawing, background: __cacheTest.requests.splice(0) };"
+            + "})().then(done, e => done({ error: String(e) }));";
+
+    @Test(description = "Switching to a cached month makes no requests and shows changes made since")
+    public void monthSwitchesUseTheCache() {
+        test = extent.createTest("PERF-UI-05", "Month cache and adjacent-month prefetch on expense-tracker.html");
+
+        String email = "monthcache" + System.currentTimeMillis() + "@example.com";
+        LocalDate current = LocalDate.now().withDayOfMonth(1);
+        LocalDate previous = current.minusMonths(1);
+        String currentKey = monthKey(current);
+        String previousKey = monthKey(previous);
+
+        ApiClient client = newApiClient();
+        try {
+            client.register("Month Cache User", email, "MonthCache123");
+        } catch (IllegalStateException e) {
+            throw new SkipException("Application not reachable at " + BASE_URL + ": " + e.getMessage());
+        }
+        client.login(email, "MonthCache123");
+        client.addExpense("Cache current 1", 120, "Food", current.plusDays(1).toString());
+        client.addExpense("Cache current 2", 80, "Transport", current.plusDays(2).toString());
+        client.addExpense("Cache previous 1", 300, "Other", previous.plusDays(3).toString());
+        client.setBudget(3000, previous.getMonthValue(), previous.getYear());
+
+        loginThroughUi(email, "MonthCache123");
+        navigateTo(BASE_URL + "/expense-tracker.html");
+        waitForNetworkIdle();
+
+        JavascriptExecutor js = (JavascriptExecutor) driver;
+        js.executeScript(INSTALL_SCRIPT);
+        driver.manage().timeouts().scriptTimeout(Duration.ofSeconds(30));
+        js.executeAsyncScript(CACHED_SCRIPT, List.of(currentKey, previousKey, monthKey(current.plusMonths(1))));
+        test.log(Status.INFO, "Months around " + currentKey + " prefetched");
+
+        // Back and forth between the two months: everything comes from the cache
+        for (int i = 0; i < 3; i++) {
+            switchTo(previousKey);
+            TrackerSnapshot state = snapshot();
+            Assert.assertEquals(names(state), List.of("Cache previous 1"), "Previous month from the cache: " + state);
+            Assert.assertEquals(state.getBudgetStatus().getBudget(), 3000.0, 0.001, "Previous month's budget");
+
+            switchTo(currentKey);
+            state = snapshot();
+            Assert.assertEquals(names(state), List.of("Cache current 1", "Cache current 2"), "Current month from the cache: " + state);
+        }
+        test.log(Status.PASS, "3 round trips between " + currentKey + " and " + previousKey + " without a request");
+
+        // Added to the previous month while viewing this one: written through to the cached month
+        List<String> requests = run("add", previous.plusDays(9).toString(), "Cache added to previous").get("drawing");
+        Assert.assertEquals(requests, List.of("POST /add-expense"), "Adding should only post the expense");
+        switchTo(previousKey);
+        Assert.assertEquals(names(snapshot()), List.of("Cache previous 1", "Cache added to previous"),
+                "The expense added from another month should be in the cached month");
+
+        // Deleted while viewing the month: gone when coming back to it
+        run("delete", null, "Cache previous 1");
+        switchTo(currentKey);
+        switchTo(previousKey);
+        Assert.assertEquals(names(snapshot()), List.of("Cache added to previous"), "The deleted expense should stay deleted");
+        test.log(Status.PASS, "Add and delete reconciled into the cached month");
+
+        // A new budget fetches the month again, and the new figure is what gets cached
+        requests = run("budget", previousKey, "4500").get("drawing");
+        Assert.assertTrue(requests.contains("GET /dashboard?month=" + previous.getMonthValue() + "&year=" + previous.getYear()),
+                "Setting a budget should fetch the month again: " + requests);
+        switchTo(currentKey);
+        switchTo(previousKey);
+        Assert.assertEquals(snapshot().getBudgetStatus().getBudget(), 4500.0, 0.001, "The new budget should be cached");
+
+        // What the cache shows is what the server has
+        List<String> onServer = new ArrayList<>();
+        for (Map<String, Object> expense : client.get("/get-expenses-by-month?month=" + previous.getMonthValue()
+                + "&year=" + previous.getYear()).jsonList("expenses")) {
+            onServer.add(String.valueOf(expense.get("description")));
+        }
+        Assert.assertEquals(names(snapshot()), onServer, "Cached month should match the server");
+        test.log(Status.PASS, "✓ PERF-UI-05 PASSED: cached month switches made no requests and matched the server after changes");
+    }
+
+    // Switch through the month selector; a cached month must be drawn without any request
+    private void switchTo(String monthKey) {
+        Map<String, List<String>> requests = run("switch", monthKey, null);
+        Assert.assertEquals(requests.get("drawing"), List.of(), "Switching to " + monthKey + " should not make requests");
+        for (String request : requests.get("background")) {
+            Assert.assertTrue(request.startsWith("GET /dashboard?"), "Only prefetches may run in the background: " + request);
+        }
+        test.log(Status.INFO, "Switched to " + monthKey + ", background " + requests.get("background"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, List<String>> run(String action, String value, String name) {
+        Map<String, Object> result = (Map<String, Object>) ((JavascriptExecutor) driver)
+                .executeAsyncScript(ACTION_SCRIPT, action, value, name);
+        Assert.assertNull(result.get("error"), action + " failed");
+        return (Map<String, List<String>>) (Map<String, ?>) result;
+    }
+
+    private static List<String> names(TrackerSnapshot state) {
+        List<String> names = new ArrayList<>();
+        for (TrackerSnapshot.Row row : state.getRows()) {
+            names.add(row.getName());
+        }
+        return names;
+    }
+
+    private static String monthKey(LocalDate date) {
+        return String.format("%d-%02d", date.getYear(), date.getMonthValue());
+    }
+}
@@ -0,0 +1,123 @@
+package com.expensetracker.tests;
+
+import com.aventstack.extentreports.Status;
+import com.expensetracker.base.ApiClient;
+import com.expensetracker.base.BaseTest;
+import com.expensetracker.base.EmulationProfile;
+import com.expensetracker.base.LatencyStats;
+import com.expensetracker.base.NetworkMonitor;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebElement;
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Perceived latency of the expense tracker under emulated network and CPU conditions
+ * For each profile, times the tracker page load and adding an expense (request plus list refresh,
+ * excluding the time the success alert is open). Chrome only, the conditions come from DevTools.
+ *
+ * Run with: mvn test -Platency [-Dlatency.profiles=none,slow-3g] [-Dlatency.iterations=5]
+ */
+public class PerceivedLatencyTest extends BaseTest {
+
+    private static final long QUIET_PERIOD_MS = 500;
+
+    private final int iterations = Integer.getInteger("latency.iterations", 5);
+
+    @DataProvider(name = "profiles")
+    public Object[][] profiles() {
+        String names = System.getProperty("latency.profiles", "none,fast-3g,slow-3g,cpu-4x,slow-3g-cpu-4x");
+        List<Object[]> rows = new ArrayList<>();
+        for (String name : names.split(",")) {
+            rows.add(new Object[] {EmulationProfile.fromName(name)});
+        }
+        return rows.toArray(new Object[0][]);
+    }
+
+    @Test(dataProvider = "profiles", description = "Tracker load and add-expense latency under emulated conditions")
+    public void measureTracker(EmulationProfile profile) {
+        test = extent.createTest("PERF-UI-01 [" + profile + "]", "Perceived tracker latency under " + profile);
+        if (network == null) {
+            throw new SkipException("Emulation needs Chrome DevTools, not available on " + browser);
+        }
+
+        // Log in unthrottled, only the tracker itself is measured
+        String email = "latencyuser" + System.currentTimeMillis() + "@example.com";
+        ApiClient client = newApiClient();
+        try {
+            client.register("Latency User", email, "LatencyPass123");
+        } catch (IllegalStateException e) {
+            throw new SkipException("Application not reachable at " + BASE_URL + ": " + e.getMessage());
+        }
+        loginThroughUi(email, "LatencyPass123");
+
+        network.emulate(profile);
+        test.log(Status.INFO, "Emulating " + profile);
+        LatencyStats pageLoad = new LatencyStats("tracker load");
+        LatencyStats addExpense = new LatencyStats("add expense");
+        try {
+            for (int i = 0; i < iterations; i++) {
+                pageLoad.record(timeTrackerLoad());
+                long added = timeAddExpense("Latency " + i);
+                if (added < 0) {
+                    addExpense.recordError();
+                } else {
+                    addExpense.record(added);
+                }
+            }
+        } finally {
+            network.emulate(EmulationProfile.NONE);
+        }
+
+        test.log(Status.INFO, pageLoad.summary());
+        test.log(Status.INFO, addExpense.summary());
+        System.out.println(profile + " " + pageLoad.summary());
+        System.out.println(profile + " " + addExpense.summary());
+
+        Assert.assertEquals(addExpense.errors(), 0, "Every add-expense should succeed under " + profile);
+        test.log(Status.PASS, "✓ PERF-UI-01 [" + profile + "] measured over " + iterations + " iterations");
+    }
+
+    /**
+     * Navigation start until the page has loaded and its API calls have settled
+     */
+    private long timeTrackerLoad() {
+        long start = System.nanoTime();
+        navigateTo(BASE_URL + "/expense-tracker.html");
+        waitForNetworkIdle();
+        return System.nanoTime() - start - QUIET_PERIOD_MS * 1_000_000;
+    }
+
+    /**
+     * Submit until the response arrives, plus alert dismissal until the list refresh has settled
+     * @return Nanoseconds, or -1 if the expense was rejected
+     */
+    private long timeAddExpense(String name) {
+        driver.findElement(By.id("expense-name")).sendKeys(name);
+        driver.findElement(By.id("expense-amount")).sendKeys("42");
+        driver.findElement(By.cssSelector("#expense-category option[value='Food']")).click();
+        WebElement date = driver.findElement(By.id("expense-date"));
+        ((org.openqa.selenium.JavascriptExecutor) driver).executeScript(
+                "arguments[0].value = arguments[1];", date, LocalDate.now().toString());
+        WebElement submitBtn = driver.findElement(By.cssSelector("#expense-form button[type='submit']"));
+
+        long start = System.nanoTime();
+        NetworkMonitor.Response response = awaitResponse("POST", "/add-expense", () -> clickWithJS(submitBtn));
+        long requestNanos = System.nanoTime() - start;
+        if (response.getStatus() != 200) {
+            handleAlert();
+            return -1;
+        }
+
+        handleAlert();
+        long refreshStart = System.nanoTime();
+        waitForNetworkIdle();
+        return requestNanos + System.nanoTime() - refreshStart - QUIET_PERIOD_MS * 1_000_000;
+    }
+}
@@ -0,0 +1,101 @@
+package com.expensetracker.tests;
+
+import com.aventstack.extentreports.Status;
+import com.expensetracker.base.BaseApiTest;
+import com.expensetracker.base.LatencyStats;
+import com.expensetracker.base.ReadinessProbe;
+import com.expensetracker.base.Scenario;
+import com.expensetracker.base.ScenarioReplayer;
+import com.expensetracker.base.TestConfig;
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Recorded browser traffic replayed as many concurrent users
+ * Scenarios come from -Dreplay.scenarios (default test-output/scenarios, written by a UI run with
+ * -Dtraffic=record); without any there, the sample scenarios checked in under src/test/resources/scenarios
+ * are used. Each scenario runs as -Dreplay.scale users started over -Dreplay.rampUpSeconds, with the
+ * recorded think times multiplied by -Dreplay.thinkScale, -Dreplay.iterations times per user.
+ *
+ * Latency percentiles per request go to the report and to test-output/replay-latency.csv.
+ *
+ * Run with: mvn test -Pbenchmark [-Dreplay.scale=50] [-Dreplay.rampUpSeconds=10] [-Dreplay.thinkScale=0.5]
+ */
+public class ScenarioReplayTest extends BaseApiTest {
+
+    private static final Path SAMPLE_SCENARIOS = Paths.get("src", "test", "resources", "scenarios");
+
+    private final Path scenarioDir = Paths.get(System.getProperty("replay.scenarios", "test-output/scenarios"));
+    private final int scale = Integer.getInteger("replay.scale", 10);
+    private final int rampUpSeconds = Integer.getInteger("replay.rampUpSeconds", 5);
+    private final double thinkScale = Double.parseDouble(System.getProperty("replay.thinkScale", "1"));
+    private final int iterations = Integer.getInteger("replay.iterations", 1);
+    private final double maxErrorPercent = Double.parseDouble(System.getProperty("replay.maxErrorPercent", "1"));
+
+    @Test(description = "Recorded scenarios replayed at scale stay within the error budget")
+    public void replayRecordedScenarios() throws Exception {
+        List<Scenario> scenarios = Scenario.loadAll(scenarioDir);
+        Path source = scenarioDir;
+        if (scenarios.isEmpty()) {
+            scenarios = Scenario.loadAll(SAMPLE_SCENARIOS);
+            source = SAMPLE_SCENARIOS;
+        }
+        test = extent.createTest("PERF-API-04", scenarios.size() + " scenarios from " + source + " x" + scale
+                + " users, " + rampUpSeconds + "s ramp-up, think time x" + thinkScale);
+        if (scenarios.isEmpty()) {
+            throw new SkipException("No scenarios in " + scenarioDir + " or " + SAMPLE_SCENARIOS);
+        }
+        try {
+            new ReadinessProbe(BASE_URL).await(TestConfig.READY_TIMEOUT, TestConfig.READY_POLL_INTERVAL);
+        } catch (RuntimeException e) {
+            throw new SkipException("Application not reachable at " + BASE_URL + ": " + e.getMessage());
+        }
+
+        ScenarioReplayer replayer = new ScenarioReplayer(BASE_URL, scale, Duration.ofSeconds(rampUpSeconds), thinkScale, iterations);
+        long start = System.nanoTime();
+        Map<String, LatencyStats> results = replayer.replay(scenarios);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        test.log(Status.INFO, String.format(Locale.ROOT, "%d users on %s threads: %d iterations completed, %d failed in %.1fs",
+                scenarios.size() * scale, ScenarioReplayer.threadKind(), replayer.getCompletedIterations(),
+                replayer.getFailedIterations(), seconds));
+
+        StringBuilder table = new StringBuilder("<table><tr><th>Request</th><th>Count</th><th>Errors</th>"
+                + "<th>p50 (ms)</th><th>p95 (ms)</th><th>p99 (ms)</th><th>Max (ms)</th></tr>");
+        StringBuilder csv = new StringBuilder("request,count,errors,p50_ms,p95_ms,p99_ms,max_ms\n");
+        long requests = 0;
+        long errors = 0;
+        for (LatencyStats stats : results.values()) {
+            table.append(String.format(Locale.ROOT, "<tr><td>%s</td><td>%d</td><td>%d</td><td>%.1f</td><td>%.1f</td><td>%.1f</td><td>%.1f</td></tr>",
+                    stats.getName(), stats.count(), stats.errors(), stats.percentileMs(50), stats.percentileMs(95),
+                    stats.percentileMs(99), stats.maxMs()));
+            csv.append(String.format(Locale.ROOT, "%s,%d,%d,%.3f,%.3f,%.3f,%.3f%n", stats.getName(), stats.count(), stats.errors(),
+                    stats.percentileMs(50), stats.percentileMs(95), stats.percentileMs(99), stats.maxMs()));
+            System.out.println(stats.summary());
+            requests += stats.count() + stats.errors();
+            errors += stats.errors();
+        }
+        test.log(Status.INFO, table.append("</table>").toString());
+        Path path = Paths.get("test-output", "replay-latency.csv");
+        Files.createDirectories(path.getParent());
+        Files.write(path, csv.toString().getBytes(StandardCharsets.UTF_8));
+        test.log(Status.INFO, "Results written to " + path);
+
+        Assert.assertTrue(requests > 0, "No requests were replayed");
+        double errorPercent = 100.0 * errors / requests;
+        Assert.assertTrue(errorPercent <= maxErrorPercent, String.format(Locale.ROOT,
+                "%.1f%% of replayed requests failed or got a different status than recorded (at most %.1f%%)",
+                errorPercent, maxErrorPercent));
+        test.log(Status.PASS, String.format(Locale.ROOT, "✓ PERF-API-04 PASSED: %d requests replayed, %.1f%% errors",
+                requests, errorPercent));
+    }
+}
@@ -0,0 +1,177 @@
+package com.expensetracker.tests;
+
+import com.aventstack.extentreports.Status;
+import com.expensetracker.base.ApiClient;
+import com.expensetracker.base.ApiClient.ApiResponse;
+import com.expensetracker.base.BaseApiTest;
+import com.expensetracker.base.LatencyStats;
+import com.expensetracker.base.ServerMetrics;
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Concurrent API load with server-side metrics alongside
+ * Several users hit the expense routes for a fixed time while /metrics is scraped in the background.
+ * Per route, the server's own latency (from its histograms) is set against what the client measured,
+ * so the gap shows time spent outside the handler; MongoDB time and event-loop lag show where the
+ * handler time itself went.
+ *
+ * Run with: mvn test -Pbenchmark [-Dload.users=8] [-Dload.seconds=20]
+ */
+public class ServerMetricsLoadTest extends BaseApiTest {
+
+    private final int users = Integer.getInteger("load.users", 8);
+    private final int seconds = Integer.getInteger("load.seconds", 20);
+    private final long scrapeIntervalMs = Long.getLong("load.scrapeMs", 1000);
+
+    private final List<ApiClient> clients = new ArrayList<>();
+    private ApiClient scraper;
+    private final LocalDate today = LocalDate.now();
+
+    @BeforeClass
+    public void loginUsers() {
+        scraper = newApiClient();
+        try {
+            ServerMetrics.scrape(scraper);
+        } catch (IllegalStateException e) {
+            throw new SkipException("No metrics endpoint at " + BASE_URL + ": " + e.getMessage());
+        }
+        long stamp = System.currentTimeMillis();
+        for (int i = 0; i < users; i++) {
+            ApiClient client = newApiClient();
+            String email = "loaduser" + stamp + "-" + i + "@example.com";
+            client.register("Load User " + i, email, "LoadPass123");
+            Assert.assertEquals(client.login(email, "LoadPass123").status(), 200, "Load user should log in");
+            client.setBudget(5000, today.getMonthValue(), today.getYear());
+            clients.add(client);
+        }
+    }
+
+    @Test(description = "Client-side latency against server-side route, MongoDB and event-loop metrics")
+    public void correlateClientAndServerLatency() throws Exception {
+        test = extent.createTest("PERF-API-02", users + " concurrent users for " + seconds + "s with /metrics scraped");
+
+        // Route label as reported by the server -> request to send
+        Map<String, Function<ApiClient, ApiResponse>> routes = new LinkedHashMap<>();
+        int month = today.getMonthValue();
+        int year = today.getYear();
+        routes.put("POST /add-expense", c -> c.addExpense("Load", 25, "Food", today.toString()));
+        routes.put("GET /get-expenses-by-month", c -> c.get("/get-expenses-by-month?month=" + month + "&year=" + year));
+        routes.put("GET /get-budget", c -> c.get("/get-budget?month=" + month + "&year=" + year));
+        routes.put("GET /expense-summary", c -> c.get("/expense-summary"));
+
+        Map<String, LatencyStats> client = new LinkedHashMap<>();
+        routes.keySet().forEach(route -> client.put(route, new LatencyStats(route)));
+
+        ServerMetrics before = ServerMetrics.scrape(scraper);
+        List<double[]> runtimeSeries = new ArrayList<>();
+        ScheduledExecutorService scrapes = Executors.newSingleThreadScheduledExecutor();
+        scrapes.scheduleAtFixedRate(() -> {
+            try {
+                ServerMetrics sample = ServerMetrics.scrape(scraper);
+                synchronized (runtimeSeries) {
+                    runtimeSeries.add(new double[] {
+                        sample.value("nodejs_eventloop_lag_max_seconds") * 1000,
+                        sample.value("nodejs_heap_used_bytes") / (1024 * 1024)
+                    });
+                }
+            } catch (IllegalStateException e) {
+                System.out.println("Metrics scrape failed: " + e.getMessage());
+            }
+        }, scrapeIntervalMs, scrapeIntervalMs, TimeUnit.MILLISECONDS);
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        ExecutorService workers = Executors.newFixedThreadPool(users);
+        List<Future<?>> running = new ArrayList<>();
+        for (ApiClient user : clients) {
+            running.add(workers.submit(() -> {
+                while (System.nanoTime() < deadline) {
+                    for (Map.Entry<String, Function<ApiClient, ApiResponse>> route : routes.entrySet()) {
+                        ApiResponse response = route.getValue().apply(user);
+                        if (response.status() >= 400) {
+                            client.get(route.getKey()).recordError();
+                        } else {
+                            client.get(route.getKey()).record(response.elapsedNanos());
+                        }
+                    }
+                }
+            }));
+        }
+        for (Future<?> worker : running) {
+            worker.get();
+        }
+        workers.shutdown();
+        scrapes.shutdown();
+        scrapes.awaitTermination(10, TimeUnit.SECONDS);
+        ServerMetrics after = ServerMetrics.scrape(scraper);
+
+        StringBuilder table = new StringBuilder("<table><tr><th>Route</th><th>Requests (client/server)</th>"
+                + "<th>Client mean ms</th><th>Server mean ms</th><th>Outside handler ms</th><th>Client p99 ms</th></tr>");
+        for (Map.Entry<String, LatencyStats> entry : client.entrySet()) {
+            String[] methodAndRoute = entry.getKey().split(" ", 2);
+            String[] labels = {"method", methodAndRoute[0], "route", methodAndRoute[1]};
+            double serverCount = after.value("http_request_duration_seconds_count", labels)
+                    - before.value("http_request_duration_seconds_count", labels);
+            double serverSum = after.value("http_request_duration_seconds_sum", labels)
+                    - before.value("http_request_duration_seconds_sum", labels);
+            LatencyStats stats = entry.getValue();
+            double serverMeanMs = serverCount == 0 ? 0 : serverSum / serverCount * 1000;
+            double clientMeanMs = stats.meanMs();
+
+            table.append(String.format(Locale.ROOT, "<tr><td>%s</td><td>%d / %.0f</td><td>%.2f</td><td>%.2f</td><td>%.2f</td><td>%.2f</td></tr>",
+                    entry.getKey(), stats.count() + stats.errors(), serverCount, clientMeanMs, serverMeanMs,
+                    clientMeanMs - serverMeanMs, stats.percentileMs(99)));
+            System.out.println(stats.summary() + String.format(Locale.ROOT, " server-mean=%.2fms", serverMeanMs));
+
+            Assert.assertEquals(stats.errors(), 0, entry.getKey() + " should not fail under load");
+            Assert.assertTrue(serverCount >= stats.count(),
+                    entry.getKey() + ": server counted " + serverCount + " requests, client sent " + stats.count());
+            // The server's time is part of the client's; allow for clock granularity
+            Assert.assertTrue(serverMeanMs <= clientMeanMs + 0.5,
+                    entry.getKey() + ": server mean " + serverMeanMs + "ms above client mean " + clientMeanMs + "ms");
+        }
+        test.log(Status.INFO, table.append("</table>").toString());
+
+        if (after.has("mongodb_operation_duration_seconds_sum")) {
+            StringBuilder mongo = new StringBuilder("MongoDB time during the run: ");
+            for (String operation : after.labelValues("mongodb_operation_duration_seconds_sum", "operation")) {
+                double count = after.value("mongodb_operation_duration_seconds_count", "operation", operation)
+                        - before.value("mongodb_operation_duration_seconds_count", "operation", operation);
+                double sum = after.value("mongodb_operation_duration_seconds_sum", "operation", operation)
+                        - before.value("mongodb_operation_duration_seconds_sum", "operation", operation);
+                if (count > 0) {
+                    mongo.append(String.format(Locale.ROOT, "%s n=%.0f mean=%.2fms; ", operation, count, sum / count * 1000));
+                }
+            }
+            test.log(Status.INFO, mongo.toString());
+        }
+        if (after.has("nodejs_eventloop_lag_max_seconds")) {
+            double worstLag = 0;
+            double peakHeap = 0;
+            synchronized (runtimeSeries) {
+                for (double[] point : runtimeSeries) {
+                    worstLag = Math.max(worstLag, point[0]);
+                    peakHeap = Math.max(peakHeap, point[1]);
+                }
+            }
+            test.log(Status.INFO, String.format(Locale.ROOT,
+                    "Event loop lag max %.1fms, heap peak %.1fMB over %d scrapes", worstLag, peakHeap, runtimeSeries.size()));
+        }
+        test.log(Status.PASS, "✓ PERF-API-02 PASSED: server metrics account for every client request");
+    }
+}
@@ -0,0 +1,160 @@
+package com.expensetracker.tests;
+
+import com.expensetracker.base.ShardPlanner;
+import com.expensetracker.base.TestDurationRecorder;
+import org.testng.Assert;
+import org.testng.TestNG;
+import org.testng.annotations.Test;
+import org.testng.xml.XmlClass;
+import org.testng.xml.XmlSuite;
+import org.testng.xml.XmlTest;
+import org.testng.xml.internal.Parser;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sharded Suite Coordinator
+ * Splits the classes of a TestNG suite across N forked JVMs by historical duration and runs them in parallel.
+ * Each fork gets -Dfork.number=N, which gives it its own port, server.js instance and database (see TestConfig).
+ *
+ * Run with: mvn test -Psharded -Dshards=3
+ */
+public class ShardedSuiteTest {
+
+    private static final Path DURATIONS = Paths.get("test-output", "test-durations.properties");
+    private static final Path SHARD_DIR = Paths.get("target", "shards");
+
+    // System properties handed down to every fork
+    private static final String[] FORWARDED_PROPERTIES = {
+        "browser", "backend", "base.port", "mongo.uri", "node.executable", "app.dir", "public.dir"
+    };
+
+    private final int shards = Integer.getInteger("shards", 3);
+    private final String sourceSuite = System.getProperty("shard.suite", "src/test/resources/testng.xml");
+    private final long timeoutMinutes = Long.getLong("shard.timeout.minutes", 60);
+
+    @Test(description = "Run the suite split across forked JVMs")
+    public void runShards() throws Exception {
+        XmlSuite suite = new Parser(sourceSuite).parseToList().get(0);
+        List<String> classes = new ArrayList<>();
+        for (XmlTest xmlTest : suite.getTests()) {
+            for (XmlClass xmlClass : xmlTest.getXmlClasses()) {
+                classes.add(xmlClass.getName());
+            }
+        }
+
+        Map<String, Long> history = ShardPlanner.loadDurations(DURATIONS);
+        List<List<String>> plan = ShardPlanner.plan(classes, history, shards);
+        Files.createDirectories(SHARD_DIR);
+
+        List<Process> forks = new ArrayList<>();
+        for (int i = 0; i < plan.size(); i++) {
+            List<String> shard = plan.get(i);
+            if (shard.isEmpty()) {
+                forks.add(null);
+                continue;
+            }
+            int forkNumber = i + 1;
+            System.out.println("Shard " + forkNumber + " (~" + ShardPlanner.estimate(shard, history) / 1000 + "s): " + shard);
+            forks.add(startFork(forkNumber, shardSuite(suite, forkNumber, shard)));
+        }
+
+        Map<String, Long> measured = new TreeMap<>(history);
+        List<String> failures = new ArrayList<>();
+        for (int i = 0; i < forks.size(); i++) {
+            Process fork = forks.get(i);
+            if (fork == null) {
+                continue;
+            }
+            int forkNumber = i + 1;
+            if (!fork.waitFor(timeoutMinutes, TimeUnit.MINUTES)) {
+                fork.destroyForcibly();
+                failures.add("shard " + forkNumber + " timed out");
+                continue;
+            }
+            // TestNG exit code bits: 1 = failures, 2 = skips, 8 = no tests
+            if ((fork.exitValue() & ~(2 | 8)) != 0) {
+                failures.add("shard " + forkNumber + " exited with " + fork.exitValue()
+                        + " (see " + SHARD_DIR.resolve("shard-" + forkNumber + ".log") + ")");
+            }
+            measured.putAll(ShardPlanner.loadDurations(durationsFile(forkNumber)));
+        }
+
+        ShardPlanner.saveDurations(DURATIONS, measured);
+        Assert.assertTrue(failures.isEmpty(), "Sharded run failed: " + failures);
+    }
+
+    /**
+     * Copy of the source suite restricted to one shard's classes, keeping parameters and test names
+     */
+    private Path shardSuite(XmlSuite source, int forkNumber, List<String> shard) throws Exception {
+        XmlSuite copy = new XmlSuite();
+        copy.setName(source.getName() + " - Shard " + forkNumber);
+        copy.setParameters(source.getParameters());
+        for (XmlTest sourceTest : source.getTests()) {
+            List<XmlClass> kept = new ArrayList<>();
+            for (XmlClass xmlClass : sourceTest.getXmlClasses()) {
+                if (shard.contains(xmlClass.getName())) {
+                    kept.add(new XmlClass(xmlClass.getName(), false));
+                }
+            }
+            if (!kept.isEmpty()) {
+                XmlTest test = new XmlTest(copy);
+                test.setName(sourceTest.getName());
+                test.setParameters(sourceTest.getLocalParameters());
+                test.setXmlClasses(kept);
+            }
+        }
+        // Keep the suite's own listeners (e.g. TestImpactSelector) and record durations for the next plan
+        List<String> listeners = new ArrayList<>(source.getListeners());
+        if (!listeners.contains(TestDurationRecorder.class.getName())) {
+            listeners.add(TestDurationRecorder.class.getName());
+        }
+        copy.setListeners(listeners);
+
+        Path file = SHARD_DIR.resolve("shard-" + forkNumber + ".xml");
+        Files.write(file, copy.toXml().getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private Process startFork(int forkNumber, Path suiteFile) throws Exception {
+        String javaBin = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        // Surefire runs us from a manifest-only jar, the real test classpath is exposed separately
+        String classpath = System.getProperty("surefire.test.class.path", System.getProperty("java.class.path"));
+
+        List<String> command = new ArrayList<>();
+        command.add(javaBin);
+        for (String name : FORWARDED_PROPERTIES) {
+            if (System.getProperty(name) != null) {
+                command.add("-D" + name + "=" + System.getProperty(name));
+            }
+        }
+        command.add("-Dfork.number=" + forkNumber);
+        command.add("-Dshard.durations.out=" + durationsFile(forkNumber));
+        command.add("-cp");
+        command.add(classpath);
+        command.add(TestNG.class.getName());
+        command.add("-d");
+        command.add(Paths.get("target", "surefire-reports", "shard-" + forkNumber).toString());
+        command.add(suiteFile.toString());
+
+        File log = SHARD_DIR.resolve("shard-" + forkNumber + ".log").toFile();
+        return new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(log)
+                .start();
+    }
+
+    private static Path durationsFile(int forkNumber) {
+        return SHARD_DIR.resolve("durations-" + forkNumber + ".properties");
+    }
+}
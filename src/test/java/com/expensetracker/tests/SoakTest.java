@@ -0,0 +1,203 @@
+package com.expensetracker.tests;
+
+import com.aventstack.extentreports.Status;
+import com.expensetracker.base.ApiClient;
+import com.expensetracker.base.BaseTest;
+import com.expensetracker.base.PageMetrics;
+import org.openqa.selenium.JavascriptExecutor;
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.ToLongFunction;
+
+/**
+ * Memory soak test for the expense tracker page
+ * Runs thousands of add / edit / delete / month-switch cycles in one tab, driving the page's own
+ * functions from a script (alerts and confirms stubbed) so each batch is a single WebDriver call.
+ * Between batches it forces a GC and samples JS heap, DOM nodes and event listeners over DevTools,
+ * then fails if the least-squares growth per cycle of any series exceeds its threshold.
+ *
+ * Run with: mvn test -Psoak [-Dsoak.cycles=2000] [-Dsoak.sampleEvery=100]
+ */
+public class SoakTest extends BaseTest {
+
+    private final int cycles = Integer.getInteger("soak.cycles", 2000);
+    private final int sampleEvery = Integer.getInteger("soak.sampleEvery", 100);
+    // Allowed growth per cycle; a real leak of one row or chart per cycle is far above these
+    private final double maxHeapBytesPerCycle = Double.parseDouble(System.getProperty("soak.maxHeapSlope", "512"));
+    private final double maxNodesPerCycle = Double.parseDouble(System.getProperty("soak.maxNodeSlope", "0.05"));
+    private final double maxListenersPerCycle = Double.parseDouble(System.getProperty("soak.maxListenerSlope", "0.05"));
+
+    // Installed once per page: stub dialogs and count fetches still in flight
+    private static final String INSTALL_SCRIPT =
+            "if (!window.__soak) {"
+            + "  window.__soak = { pending: 0 };"
+            + "  const originalFetch = window.fetch;"
+            + "  window.fetch = (...args) => { __soak.pending++; return originalFetch(...args).finally(() => __soak.pending--); };"
+            + "  window.alert = () => {};"
+            + "  window.confirm = () => true;"
+            + "}";
+
+    // arguments: first cycle number, cycle count, [month A, month B] as yyyy-mm, callback
+    private static final String CYCLE_SCRIPT =
+            "const [first, count, months, done] = arguments;"
+            + "const sleep = ms => new Promise(r => setTimeout(r, ms));"
+            + "const settle = async () => { do { await sleep(10); } while (__soak.pending > 0); await sleep(10); };"
+            + "const set = (id, value) => { document.getElementById(id).value = value; };"
+            + "const tagged = name => expenses.findIndex(e => [name, name + ' edited'].includes(e.description || e.name));"
+            + "(async () => {"
+            + "  for (let i = first; i < first + count; i++) {"
+            + "    const month = months[i % 2];"
+            + "    const name = 'Soak ' + i;"
+            // Month switch
+            + "    set('view-month', month);"
+            + "    await loadMonthData();"
+            // Add
+            + "    set('expense-name', name); set('expense-amount', String(10 + i % 90));"
+            + "    set('expense-category', 'Food'); set('expense-date', month + '-15');"
+            + "    await handleExpense({ preventDefault() {} });"
+            + "    await settle();"
+            // Edit, through the form like the Update button does
+            + "    const index = tagged(name);"
+            + "    if (index >= 0) {"
+            + "      editExpense(index);"
+            + "      set('expense-name', name + ' edited'); set('expense-amount', String(20 + i % 90));"
+            + "      set('expense-category', 'Other'); set('expense-date', month + '-16');"
+            + "      document.getElementById('expense-form').dispatchEvent(new Event('submit', { cancelable: true }));"
+            + "      await settle();"
+            + "    }"
+            // Delete everything this cycle created, starting from the server's view
+            + "    await fetchExpensesByMonth(currentMonth, currentYear);"
+            + "    let guard = 5;"
+            + "    while (tagged(name) >= 0 && guard-- > 0) { await deleteExpense(tagged(name)); await settle(); }"
+            + "  }"
+            + "})().then(() => done(null), e => done(String(e)));";
+
+    @Test(description = "Heap, DOM node and listener growth over thousands of tracker cycles")
+    public void soakTrackerPage() throws IOException {
+        test = extent.createTest("SOAK-UI-01", "Tracker page memory over " + cycles + " add/edit/delete/month cycles");
+        if (network == null) {
+            throw new SkipException("Soak sampling needs Chrome DevTools, not available on " + browser);
+        }
+
+        String email = "soakuser" + System.currentTimeMillis() + "@example.com";
+        ApiClient client = newApiClient();
+        try {
+            client.register("Soak User", email, "SoakPass123");
+        } catch (IllegalStateException e) {
+            throw new SkipException("Application not reachable at " + BASE_URL + ": " + e.getMessage());
+        }
+        loginThroughUi(email, "SoakPass123");
+        navigateTo(BASE_URL + "/expense-tracker.html");
+        waitForNetworkIdle();
+
+        JavascriptExecutor js = (JavascriptExecutor) driver;
+        js.executeScript(INSTALL_SCRIPT);
+        driver.manage().timeouts().scriptTimeout(Duration.ofMinutes(10));
+        LocalDate today = LocalDate.now();
+        List<String> months = List.of(yearMonth(today), yearMonth(today.minusMonths(1)));
+
+        PageMetrics metrics = PageMetrics.attach(driver);
+        List<Integer> cycleNumbers = new ArrayList<>();
+        List<PageMetrics.Sample> samples = new ArrayList<>();
+        for (int done = 0; done < cycles; done += sampleEvery) {
+            int batch = Math.min(sampleEvery, cycles - done);
+            Object error = js.executeAsyncScript(CYCLE_SCRIPT, done, batch, months);
+            Assert.assertNull(error, "Cycle script failed after cycle " + done);
+
+            metrics.collectGarbage();
+            PageMetrics.Sample sample = metrics.sample();
+            cycleNumbers.add(done + batch);
+            samples.add(sample);
+            System.out.println("Soak cycle " + (done + batch) + ": " + sample);
+        }
+
+        Path csv = writeSeries(cycleNumbers, samples);
+        test.log(Status.INFO, seriesTable(cycleNumbers, samples));
+        test.log(Status.INFO, "Series written to " + csv);
+
+        // The first batch includes one-off warm-up allocations (chart, caches), fit from the second on
+        int from = samples.size() > 2 ? 1 : 0;
+        double heapSlope = slope(cycleNumbers, samples, from, PageMetrics.Sample::getJsHeapUsedBytes);
+        double nodeSlope = slope(cycleNumbers, samples, from, PageMetrics.Sample::getDomNodes);
+        double listenerSlope = slope(cycleNumbers, samples, from, PageMetrics.Sample::getEventListeners);
+        String growth = String.format(Locale.ROOT, "heap %.1f B/cycle, nodes %.3f/cycle, listeners %.3f/cycle",
+                heapSlope, nodeSlope, listenerSlope);
+        test.log(Status.INFO, "Growth: " + growth);
+
+        Assert.assertTrue(heapSlope <= maxHeapBytesPerCycle, "JS heap keeps growing: " + growth);
+        Assert.assertTrue(nodeSlope <= maxNodesPerCycle, "DOM node count keeps growing: " + growth);
+        Assert.assertTrue(listenerSlope <= maxListenersPerCycle, "Event listener count keeps growing: " + growth);
+        test.log(Status.PASS, "✓ SOAK-UI-01 PASSED: no sustained growth over " + cycles + " cycles (" + growth + ")");
+    }
+
+    private static String yearMonth(LocalDate date) {
+        return String.format("%d-%02d", date.getYear(), date.getMonthValue());
+    }
+
+    /**
+     * Least-squares slope of one series against cycle number
+     */
+    private static double slope(List<Integer> x, List<PageMetrics.Sample> samples, int from,
+                                ToLongFunction<PageMetrics.Sample> series) {
+        int n = samples.size() - from;
+        if (n < 2) {
+            return 0;
+        }
+        double meanX = 0;
+        double meanY = 0;
+        for (int i = from; i < samples.size(); i++) {
+            meanX += x.get(i);
+            meanY += series.applyAsLong(samples.get(i));
+        }
+        meanX /= n;
+        meanY /= n;
+        double covariance = 0;
+        double variance = 0;
+        for (int i = from; i < samples.size(); i++) {
+            double dx = x.get(i) - meanX;
+            covariance += dx * (series.applyAsLong(samples.get(i)) - meanY);
+            variance += dx * dx;
+        }
+        return variance == 0 ? 0 : covariance / variance;
+    }
+
+    private static String seriesTable(List<Integer> cycleNumbers, List<PageMetrics.Sample> samples) {
+        StringBuilder html = new StringBuilder("<table><tr><th>Cycle</th><th>JS heap (KB)</th><th>DOM nodes</th>"
+                + "<th>Listeners</th><th>Documents</th></tr>");
+        for (int i = 0; i < samples.size(); i++) {
+            PageMetrics.Sample sample = samples.get(i);
+            html.append(String.format(Locale.ROOT, "<tr><td>%d</td><td>%.1f</td><td>%d</td><td>%d</td><td>%d</td></tr>",
+                    cycleNumbers.get(i), sample.getJsHeapUsedBytes() / 1024.0, sample.getDomNodes(),
+                    sample.getEventListeners(), sample.getDocuments()));
+        }
+        return html.append("</table>").toString();
+    }
+
+    private static Path writeSeries(List<Integer> cycleNumbers, List<PageMetrics.Sample> samples) throws IOException {
+        Path path = Paths.get("test-output", "soak-series.csv");
+        Files.createDirectories(path.getParent());
+        StringBuilder csv = new StringBuilder("cycle,js_heap_bytes,dom_nodes,event_listeners,documents\n");
+        for (int i = 0; i < samples.size(); i++) {
+            PageMetrics.Sample sample = samples.get(i);
+            csv.append(cycleNumbers.get(i)).append(',')
+               .append(sample.getJsHeapUsedBytes()).append(',')
+               .append(sample.getDomNodes()).append(',')
+               .append(sample.getEventListeners()).append(',')
+               .append(sample.getDocuments()).append('\n');
+        }
+        Files.write(path, csv.toString().getBytes(StandardCharsets.UTF_8));
+        return path;
+    }
+}
@@ -0,0 +1,96 @@
+package com.expensetracker.tests;
+
+import com.aventstack.extentreports.Status;
+import com.expensetracker.base.ApiClient;
+import com.expensetracker.base.BaseTest;
+import com.expensetracker.base.LatencyStats;
+import com.expensetracker.base.TrackerSnapshot;
+import org.openqa.selenium.JavascriptExecutor;
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * API requests and time to interactive of expense-tracker.html
+ * Loads the tracker several times for a user with a month of expenses and a budget. For each load it
+ * reads, from the page's own timeline, the "tracker-ready" mark (set in the frame after the month's
+ * expenses, total, chart and budget are first drawn) and the fetch() requests started before it.
+ * Fails if first paint takes more than -Dtti.maxRequests API calls (default 1, GET /dashboard), or if the
+ * median time from navigation start to ready exceeds -Dtti.maxMs.
+ *
+ * Run with: mvn test -Platency [-Dtti.loads=5] [-Dtti.maxMs=3000]
+ */
+public class TrackerFirstPaintTest extends BaseTest {
+
+    private static final int SEEDED_EXPENSES = 20;
+
+    private final int loads = Integer.getInteger("tti.loads", 5);
+    private final int maxRequests = Integer.getInteger("tti.maxRequests", 1);
+    private final double maxMs = Double.parseDouble(System.getProperty("tti.maxMs", "3000"));
+
+    // arguments: callback; waits for the ready mark, then reports it and the API calls made before it
+    private static final String READY_SCRIPT =
+            "const done = arguments[0];"
+            + "const poll = () => {"
+            + "  const mark = performance.getEntriesByName('tracker-ready')[0];"
+            + "  if (!mark) { setTimeout(poll, 20); return; }"
+            + "  const requests = performance.getEntriesByType('resource')"
+            + "    .filter(entry => ['fetch', 'xmlhttprequest'].includes(entry.initiatorType) && entry.startTime <= mark.startTime)"
+            + "    .map(entry => new URL(entry.name).pathname);"
+            + "  done({ ready: mark.startTime, requests: requests });"
+            + "};"
+            + "poll();";
+
+    @Test(description = "The tracker paints its first month from one API request")
+    @SuppressWarnings("unchecked")
+    public void firstPaint() {
+        test = extent.createTest("PERF-UI-04", "API requests and time to interactive of expense-tracker.html");
+
+        String email = "firstpaint" + System.currentTimeMillis() + "@example.com";
+        LocalDate today = LocalDate.now();
+        ApiClient client = newApiClient();
+        try {
+            client.register("First Paint User", email, "FirstPaint123");
+        } catch (IllegalStateException e) {
+            throw new SkipException("Application not reachable at " + BASE_URL + ": " + e.getMessage());
+        }
+        client.login(email, "FirstPaint123");
+        client.setBudget(5000, today.getMonthValue(), today.getYear());
+        for (int i = 0; i < SEEDED_EXPENSES; i++) {
+            client.addExpense("First paint " + i, 10 + i, i % 2 == 0 ? "Food" : "Transport",
+                    today.withDayOfMonth(1 + i % today.lengthOfMonth()).toString());
+        }
+        loginThroughUi(email, "FirstPaint123");
+        driver.manage().timeouts().scriptTimeout(Duration.ofSeconds(30));
+
+        LatencyStats ready = new LatencyStats("tracker ready");
+        for (int i = 0; i < loads; i++) {
+            navigateTo(BASE_URL + "/expense-tracker.html");
+            Map<String, Object> result = (Map<String, Object>) ((JavascriptExecutor) driver).executeAsyncScript(READY_SCRIPT);
+            double readyMs = ((Number) result.get("ready")).doubleValue();
+            List<String> requests = (List<String>) result.get("requests");
+            ready.record(Math.round(readyMs * 1_000_000));
+            test.log(Status.INFO, String.format("Load %d: ready after %.0f ms, API requests %s", i + 1, readyMs, requests));
+
+            Assert.assertTrue(requests.contains("/dashboard"), "First paint should come from /dashboard: " + requests);
+            Assert.assertTrue(requests.size() <= maxRequests,
+                    "First paint took " + requests.size() + " API requests, expected at most " + maxRequests + ": " + requests);
+        }
+
+        TrackerSnapshot state = snapshot();
+        Assert.assertEquals(state.rowCount(), SEEDED_EXPENSES, "All of the month's expenses should be listed");
+        Assert.assertTrue(state.getBudgetStatus().isVisible(), "Budget status should be shown: " + state);
+        Assert.assertEquals(state.getBudgetStatus().getBudget(), 5000.0, 0.001);
+
+        test.log(Status.INFO, ready.summary());
+        System.out.println(ready.summary());
+        double median = ready.percentileMs(50);
+        Assert.assertTrue(median <= maxMs, String.format("Median time to interactive %.0f ms over %.0f ms", median, maxMs));
+        test.log(Status.PASS, String.format("✓ PERF-UI-04 PASSED: first paint from /dashboard, ready after %.0f ms (median)", median));
+    }
+}